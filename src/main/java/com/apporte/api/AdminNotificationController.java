@@ -1,6 +1,11 @@
 package com.apporte.api;
 
+import com.apporte.core.model.NotificationChannel;
+import com.apporte.core.model.NotificationPage;
+import com.apporte.core.model.NotificationStatus;
+import com.apporte.core.model.TotalCount;
 import com.apporte.core.service.NotificationService;
+import com.apporte.core.service.NotificationStatsService;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import jakarta.annotation.security.RolesAllowed;
@@ -24,26 +29,49 @@ import java.util.Map;
 public class AdminNotificationController {
     
     private static final Logger LOG = LoggerFactory.getLogger(AdminNotificationController.class);
+    private static final int MAX_PAGE_SIZE = 100;
     
     private final NotificationService notificationService;
+    private final NotificationStatsService notificationStatsService;
     
-    public AdminNotificationController(NotificationService notificationService) {
+    public AdminNotificationController(NotificationService notificationService,
+                                       NotificationStatsService notificationStatsService) {
         this.notificationService = notificationService;
+        this.notificationStatsService = notificationStatsService;
     }
     
     @GET
-    @Operation(summary = "Lista todas as notificações")
+    @Operation(summary = "Lista todas as notificações", 
+               description = "Paginação por cursor: repasse o nextCursor da resposta para obter a próxima página")
     public Response listNotifications(
-            @QueryParam("page") @DefaultValue("0") int page,
+            @QueryParam("cursor") String cursor,
             @QueryParam("size") @DefaultValue("20") int size,
+            @QueryParam("includeTotal") @DefaultValue("true") boolean includeTotal,
             @QueryParam("status") String status,
             @QueryParam("channel") String channel,
             @QueryParam("eventType") String eventType,
             @QueryParam("startDate") String startDate,
             @QueryParam("endDate") String endDate) {
         
-        LOG.debug("Listing notifications - page: {}, size: {}, status: {}, channel: {}, eventType: {}",
-                 page, size, status, channel, eventType);
+        LOG.debug("Listing notifications - cursor: {}, size: {}, status: {}, channel: {}, eventType: {}",
+                 cursor, size, status, channel, eventType);
+        
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                          .entity(Map.of("error", "Size must be between 1 and " + MAX_PAGE_SIZE))
+                          .build();
+        }
+        
+        NotificationStatus statusFilter;
+        NotificationChannel channelFilter;
+        try {
+            statusFilter = NotificationStatus.fromOptionalValue(status);
+            channelFilter = NotificationChannel.fromOptionalValue(channel);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                          .entity(Map.of("error", e.getMessage()))
+                          .build();
+        }
         
         try {
             Instant start = null;
@@ -71,21 +99,29 @@ public class AdminNotificationController {
                 }
             }
             
-            var notifications = notificationService.listNotifications(
-                    page, size, status, channel, eventType, start, end);
-            
-            long count = notificationService.countNotifications(
-                    status, channel, eventType, start, end);
+            NotificationPage page;
+            try {
+                page = notificationService.listNotifications(cursor, size, statusFilter, channelFilter, eventType, start, end);
+            } catch (IllegalArgumentException e) {
+                LOG.warn("Invalid cursor: {}", cursor);
+                return Response.status(Response.Status.BAD_REQUEST)
+                              .entity(Map.of("error", "Invalid cursor"))
+                              .build();
+            }
             
             Map<String, Object> response = new HashMap<>();
-            response.put("notifications", notifications);
-            response.put("page", page);
+            response.put("notifications", page.notifications());
             response.put("size", size);
-            response.put("total", count);
-            response.put("totalPages", (int) Math.ceil((double) count / size));
+            response.put("nextCursor", page.nextCursor());
+            response.put("hasMore", page.hasMore());
+            
+            if (includeTotal) {
+                TotalCount total = notificationService.countNotifications(statusFilter, channelFilter, eventType, start, end);
+                response.put("total", total.value());
+                response.put("totalExact", total.exact());
+            }
             
-            LOG.info("Returning {} notifications (page {} of {})", 
-                    notifications.size(), page, (int) Math.ceil((double) count / size));
+            LOG.info("Returning {} notifications (more: {})", page.notifications().size(), page.hasMore());
             
             return Response.ok(response).build();
         } catch (Exception e) {
@@ -171,7 +207,7 @@ public class AdminNotificationController {
                               .build();
             }
             
-            if (!"error".equals(notification.getStatus())) {
+            if (notification.getStatus() != NotificationStatus.ERROR) {
                 LOG.warn("Notification {} is not in error state: {}", id, notification.getStatus());
                 return Response.status(Response.Status.BAD_REQUEST)
                               .entity(Map.of("error", "Notification is not in error state"))
@@ -185,7 +221,7 @@ public class AdminNotificationController {
             return Response.ok(Map.of(
                 "message", "Notification scheduled for retry",
                 "originalId", id,
-                "newStatus", "retrying"
+                "newStatus", NotificationStatus.RETRYING.value()
             )).build();
             
         } catch (Exception e) {
@@ -205,7 +241,7 @@ public class AdminNotificationController {
         LOG.debug("Getting statistics for last {} days", days);
         
         try {
-            Map<String, Object> stats = notificationService.getStatistics(days);
+            Map<String, Object> stats = notificationStatsService.getStatistics(days);
             
             LOG.info("Statistics generated for {} days: total={}, sent={}, error={}", 
                     days, stats.get("total"), stats.get("sent"), stats.get("error"));
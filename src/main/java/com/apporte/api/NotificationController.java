@@ -2,43 +2,79 @@ package com.apporte.api;
 
 import com.apporte.api.dto.*;
 import com.apporte.api.util.ResponseBuilder;
+import com.apporte.core.model.BatchJob;
+import com.apporte.core.model.BatchProgress;
 import com.apporte.core.model.Notification;
+import com.apporte.core.model.NotificationPage;
+import com.apporte.core.model.NotificationStatus;
+import com.apporte.core.service.NotificationBatchService;
+import com.apporte.core.service.NotificationDispatcher;
+import com.apporte.core.service.NotificationIngestService;
 import com.apporte.core.service.NotificationService;
+import com.apporte.infrastructure.exception.ChannelSaturatedException;
 import com.apporte.infrastructure.security.KeycloakUserContext;
 import com.apporte.infrastructure.security.UserContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.quarkus.security.Authenticated;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.annotation.security.PermitAll;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
  * API REST para gerenciamento de notificações.
  * Responsável por receber requisições e coordenar o envio de notificações.
+ * <p>
+ * Os endpoints são bloqueantes (Panache, Keycloak, SMTP) e rodam em virtual threads quando
+ * {@code quarkus.virtual-threads.enabled=true}; caso contrário, no pool de workers.
  */
 @Path("/api/notifications")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 @Authenticated
+@RunOnVirtualThread
 public class NotificationController {
     
     private static final Logger LOG = LoggerFactory.getLogger(NotificationController.class);
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int RESULTS_PAGE_SIZE = 500;
     
     private final NotificationService notificationService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationBatchService notificationBatchService;
+    private final NotificationIngestService notificationIngestService;
     private final KeycloakUserContext keycloakUserContext;
+    private final ObjectMapper objectMapper;
     
-    public NotificationController(NotificationService notificationService, KeycloakUserContext keycloakUserContext) {
+    public NotificationController(NotificationService notificationService, 
+                                  NotificationDispatcher notificationDispatcher,
+                                  NotificationBatchService notificationBatchService,
+                                  NotificationIngestService notificationIngestService,
+                                  KeycloakUserContext keycloakUserContext,
+                                  ObjectMapper objectMapper) {
         this.notificationService = Objects.requireNonNull(notificationService, "notificationService cannot be null");
+        this.notificationDispatcher = Objects.requireNonNull(notificationDispatcher, "notificationDispatcher cannot be null");
+        this.notificationBatchService = Objects.requireNonNull(notificationBatchService, "notificationBatchService cannot be null");
+        this.notificationIngestService = Objects.requireNonNull(notificationIngestService, "notificationIngestService cannot be null");
+        this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper cannot be null");
         this.keycloakUserContext = Objects.requireNonNull(keycloakUserContext, "keycloakUserContext cannot be null");
     }
     
     @GET
-    @io.quarkus.security.PermitAll
+    @PermitAll
     public Response healthCheck() {
         return ResponseBuilder.ok(Map.of(
             "message", "Notification Engine is running!",
@@ -57,6 +93,21 @@ public class NotificationController {
         String requestId = ResponseBuilder.generateRequestId();
         
         try {
+            if (notificationService.isOutboxMode()) {
+                List<Notification> queued = notificationDispatcher.accept(request);
+                
+                return ResponseBuilder.accepted(
+                    "accepted",
+                    "Workflow notification queued for delivery",
+                    Map.of(
+                        "eventType", request.eventType(),
+                        "entityId", request.entityId(),
+                        "requestId", requestId,
+                        "queued", queued.size()
+                    )
+                );
+            }
+            
             notificationService.processWorkflowNotification(request);
             
             return ResponseBuilder.accepted(
@@ -69,6 +120,10 @@ public class NotificationController {
                 )
             );
             
+        } catch (ChannelSaturatedException e) {
+            LOG.warn("Rejecting workflow notification {}: {}", request.eventType(), e.getMessage());
+            return ResponseBuilder.tooManyRequests(e.getMessage(), e.getRetryAfterSeconds());
+            
         } catch (IllegalArgumentException e) {
             LOG.warn("Invalid workflow notification request: {}", e.getMessage());
             return ResponseBuilder.badRequest(e.getMessage());
@@ -90,7 +145,7 @@ public class NotificationController {
         
         try {
             WorkflowNotificationRequest workflowRequest = convertToWorkflowRequest(request);
-            notificationService.processWorkflowNotification(workflowRequest);
+            submitWorkflowNotification(workflowRequest);
             
             return ResponseBuilder.accepted(
                 "accepted",
@@ -102,6 +157,10 @@ public class NotificationController {
                 )
             );
             
+        } catch (ChannelSaturatedException e) {
+            LOG.warn("Rejecting notification {}: {}", request.eventType(), e.getMessage());
+            return ResponseBuilder.tooManyRequests(e.getMessage(), e.getRetryAfterSeconds());
+            
         } catch (IllegalArgumentException e) {
             LOG.warn("Invalid notification request: {}", e.getMessage());
             return ResponseBuilder.badRequest(e.getMessage());
@@ -115,7 +174,8 @@ public class NotificationController {
     @POST
     @Path("/batch")
     @RolesAllowed({"notification-sender", "notification-admin", "system-admin"})
-    public Response sendBatchNotifications(@Valid BatchNotificationRequest batchRequest) {
+    public Response sendBatchNotifications(@Valid BatchNotificationRequest batchRequest,
+                                           @QueryParam("async") @DefaultValue("false") boolean async) {
         UserContext user = keycloakUserContext.getCurrentUser()
             .orElseThrow(() -> new WebApplicationException("User not authenticated", Response.Status.UNAUTHORIZED));
         LOG.info("Batch notification with {} items from user: {}", batchRequest.notifications().size(), user.email());
@@ -124,45 +184,138 @@ public class NotificationController {
             return ResponseBuilder.badRequest("Batch cannot be empty");
         }
         
-        int successCount = 0;
-        int errorCount = 0;
-        var results = new ArrayList<Map<String, Object>>();
+        List<WorkflowNotificationRequest> requests = batchRequest.notifications().stream()
+            .map(this::convertToWorkflowRequest)
+            .toList();
         
-        for (var request : batchRequest.notifications()) {
-            try {
-                WorkflowNotificationRequest workflowRequest = convertToWorkflowRequest(request);
-                notificationService.processWorkflowNotification(workflowRequest);
-                successCount++;
-                
-                results.add(Map.of(
-                    "eventType", request.eventType(),
-                    "recipientId", request.recipientId(),
-                    "status", "success"
-                ));
+        try {
+            if (async) {
+                NotificationBatchService.BatchResult result = notificationBatchService.submit(requests, user.email());
                 
-            } catch (Exception e) {
-                errorCount++;
-                LOG.warn("Error processing batch item: {}", e.getMessage());
-                results.add(Map.of(
-                    "eventType", request.eventType(),
-                    "recipientId", request.recipientId(),
-                    "status", "error",
-                    "error", e.getMessage()
-                ));
+                return ResponseBuilder.accepted(
+                    "batch_queued",
+                    String.format("Batch accepted with %d notifications", requests.size()),
+                    Map.of(
+                        "batchId", result.batchId(),
+                        "jobId", result.batchId(),
+                        "total", requests.size(),
+                        "results", toResultMaps(result)
+                    )
+                );
             }
+            
+            NotificationBatchService.BatchResult result = notificationBatchService.process(requests, user.email());
+            long errorCount = result.count(NotificationBatchService.ITEM_ERROR);
+            long successCount = requests.size() - errorCount;
+            
+            return ResponseBuilder.ok(Map.of(
+                "status", "batch_processed",
+                "message", String.format("Processed %d notifications: %d success, %d errors",
+                        requests.size(), successCount, errorCount),
+                "data", Map.of(
+                    "batchId", result.batchId(),
+                    "total", requests.size(),
+                    "success", successCount,
+                    "errors", errorCount,
+                    "results", toResultMaps(result)
+                )
+            ));
+            
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Invalid batch request: {}", e.getMessage());
+            return ResponseBuilder.badRequest(e.getMessage());
+            
+        } catch (Exception e) {
+            LOG.error("Error processing batch: {}", e.getMessage(), e);
+            return ResponseBuilder.internalServerError("Failed to process batch", e);
         }
+    }
+    
+    /**
+     * Ingest de lotes muito grandes em NDJSON: uma notificação por linha, no formato de /send.
+     * O corpo é lido em streaming e gravado em blocos; linhas inválidas são rejeitadas individualmente.
+     * O progresso da entrega pode ser acompanhado em GET /batch/{jobId}.
+     */
+    @POST
+    @Path("/ingest")
+    @Consumes(NDJSON)
+    @RolesAllowed({"notification-sender", "notification-admin", "system-admin"})
+    public Response ingestNotifications(InputStream body) {
+        UserContext user = keycloakUserContext.getCurrentUser()
+            .orElseThrow(() -> new WebApplicationException("User not authenticated", Response.Status.UNAUTHORIZED));
         
-        return ResponseBuilder.ok(Map.of(
-            "status", "batch_processed",
-            "message", String.format("Processed %d notifications: %d success, %d errors",
-                    batchRequest.notifications().size(), successCount, errorCount),
-            "data", Map.of(
-                "total", batchRequest.notifications().size(),
-                "success", successCount,
-                "errors", errorCount,
-                "results", results
-            )
-        ));
+        try {
+            NotificationIngestService.IngestResult result = notificationIngestService.ingest(body, user.email());
+            
+            return ResponseBuilder.accepted(
+                "batch_ingested",
+                String.format("Ingested %d notifications: %d accepted, %d rejected",
+                        result.accepted() + result.rejected(), result.accepted(), result.rejected()),
+                Map.of(
+                    "jobId", result.jobId(),
+                    "accepted", result.accepted(),
+                    "rejected", result.rejected(),
+                    "rejections", result.rejections()
+                )
+            );
+            
+        } catch (Exception e) {
+            LOG.error("Error ingesting NDJSON batch: {}", e.getMessage(), e);
+            return ResponseBuilder.internalServerError("Failed to ingest batch", e);
+        }
+    }
+    
+    @GET
+    @Path("/batch/{jobId}")
+    @RolesAllowed({"notification-viewer", "notification-sender", "notification-admin", "system-admin"})
+    public Response getBatchProgress(@PathParam("jobId") String jobId) {
+        try {
+            Optional<BatchProgress> progress = notificationService.getBatchProgress(jobId);
+            
+            if (progress.isEmpty()) {
+                return ResponseBuilder.notFound("Batch job not found: " + jobId);
+            }
+            
+            return ResponseBuilder.ok(buildBatchProgressResponse(progress.get()));
+            
+        } catch (Exception e) {
+            LOG.error("Error getting batch progress: {}", e.getMessage(), e);
+            return ResponseBuilder.internalServerError("Error retrieving batch job", e);
+        }
+    }
+    
+    /**
+     * Resultados do lote em NDJSON (uma notificação por linha), lidos do banco em páginas
+     * por cursor de id e escritos conforme chegam, sem montar a lista inteira em memória.
+     * Para retomar uma leitura interrompida, use {@code after} com o último id recebido.
+     */
+    @GET
+    @Path("/batch/{jobId}/results")
+    @Produces(NDJSON)
+    @RolesAllowed({"notification-viewer", "notification-sender", "notification-admin", "system-admin"})
+    public Response streamBatchResults(@PathParam("jobId") String jobId,
+                                       @QueryParam("after") @DefaultValue("0") long after) {
+        if (!notificationService.batchJobExists(jobId)) {
+            return ResponseBuilder.notFound("Batch job not found: " + jobId);
+        }
+        
+        StreamingOutput stream = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            long cursor = after;
+            List<Notification> page;
+            
+            do {
+                page = notificationService.findBatchResults(jobId, cursor, RESULTS_PAGE_SIZE);
+                for (Notification notification : page) {
+                    writer.write(objectMapper.writeValueAsString(buildBatchResultLine(notification)));
+                    writer.write('\n');
+                    cursor = notification.getId();
+                }
+                writer.flush();
+            } while (page.size() == RESULTS_PAGE_SIZE);
+        };
+        
+        return Response.ok(stream, NDJSON).build();
     }
     
     @GET
@@ -195,6 +348,7 @@ public class NotificationController {
     public Response getUserNotifications(
             @PathParam("userId") String userId,
             @QueryParam("status") String status,
+            @QueryParam("cursor") String cursor,
             @QueryParam("limit") @DefaultValue("20") int limit) {
         
         UserContext user = keycloakUserContext.getCurrentUser()
@@ -212,16 +366,27 @@ public class NotificationController {
             return ResponseBuilder.badRequest("Limit must be between 1 and 100");
         }
         
+        NotificationStatus statusFilter;
         try {
-            List<Notification> notifications = notificationService.getUserNotifications(userId, status, limit);
+            statusFilter = NotificationStatus.fromOptionalValue(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseBuilder.badRequest(e.getMessage());
+        }
+        
+        try {
+            NotificationPage page = notificationService.getUserNotifications(userId, statusFilter, cursor, limit);
             
-            return ResponseBuilder.ok(Map.of(
-                "userId", userId,
-                "status", status != null ? status : "all",
-                "notifications", notifications,
-                "count", notifications.size()
-            ));
+            Map<String, Object> response = new HashMap<>();
+            response.put("userId", userId);
+            response.put("status", status != null ? status : "all");
+            response.put("notifications", page.notifications());
+            response.put("count", page.notifications().size());
+            response.put("nextCursor", page.nextCursor());
+            response.put("hasMore", page.hasMore());
+            return ResponseBuilder.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            return ResponseBuilder.badRequest("Invalid cursor");
         } catch (Exception e) {
             LOG.error("Error getting user notifications: {}", e.getMessage(), e);
             return ResponseBuilder.internalServerError("Error retrieving notifications", e);
@@ -230,6 +395,39 @@ public class NotificationController {
     
     // ========== Métodos auxiliares privados ==========
     
+    /**
+     * Enfileira (modo outbox) ou processa imediatamente (modo inline) uma notificação.
+     */
+    private void submitWorkflowNotification(WorkflowNotificationRequest request) {
+        if (notificationService.isOutboxMode()) {
+            notificationDispatcher.accept(request);
+        } else {
+            notificationService.processWorkflowNotification(request);
+        }
+    }
+    
+    /**
+     * Resultados por item do lote, no formato da resposta REST.
+     */
+    private List<Map<String, Object>> toResultMaps(NotificationBatchService.BatchResult result) {
+        var results = new ArrayList<Map<String, Object>>();
+        
+        for (var item : result.items()) {
+            var entry = new LinkedHashMap<String, Object>();
+            entry.put("eventType", item.eventType());
+            entry.put("recipientId", item.recipientId());
+            entry.put("status", item.status());
+            entry.put("notifications", item.notifications());
+            entry.put("failed", item.failed());
+            if (item.error() != null) {
+                entry.put("error", item.error());
+            }
+            results.add(entry);
+        }
+        
+        return results;
+    }
+    
     /**
      * Converte SimpleNotificationRequest para WorkflowNotificationRequest.
      */
@@ -239,14 +437,7 @@ public class NotificationController {
         Objects.requireNonNull(request.channel(), "channel cannot be null");
         Objects.requireNonNull(request.eventType(), "eventType cannot be null");
         
-        return new WorkflowNotificationRequest(
-            request.eventType(),
-            "user",
-            request.recipientId(),
-            List.of(request.channel()),
-            List.of("manual"),
-            request.context()
-        );
+        return request.toWorkflowRequest();
     }
     
     /**
@@ -265,6 +456,38 @@ public class NotificationController {
         }
     }
     
+    private Map<String, Object> buildBatchProgressResponse(BatchProgress progress) {
+        BatchJob job = progress.job();
+        var response = new LinkedHashMap<String, Object>();
+        response.put("jobId", job.getId());
+        response.put("status", job.getStatus());
+        response.put("totalItems", job.getTotalItems());
+        response.put("totalNotifications", job.getTotalNotifications());
+        response.put("pending", progress.count(NotificationStatus.PENDING));
+        response.put("retrying", progress.count(NotificationStatus.RETRYING));
+        response.put("sent", progress.count(NotificationStatus.SENT));
+        response.put("errors", progress.count(NotificationStatus.ERROR));
+        response.put("processed", progress.processed());
+        response.put("createdAt", job.getCreatedAt());
+        response.put("completedAt", job.getCompletedAt());
+        return response;
+    }
+    
+    private Map<String, Object> buildBatchResultLine(Notification notification) {
+        var line = new LinkedHashMap<String, Object>();
+        line.put("id", notification.getId());
+        line.put("userId", notification.getUserId());
+        line.put("eventType", notification.getEventType());
+        line.put("channel", notification.getChannel());
+        line.put("status", notification.getStatus());
+        line.put("attempts", notification.getAttempts());
+        line.put("sentAt", notification.getSentAt());
+        if (notification.getErrorMessage() != null) {
+            line.put("error", notification.getErrorMessage());
+        }
+        return line;
+    }
+    
     /**
      * Constrói resposta com status da notificação.
      */
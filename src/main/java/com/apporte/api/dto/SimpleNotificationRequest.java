@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -18,6 +19,7 @@ public record SimpleNotificationRequest(
     
     @NotNull(message = "Channel cannot be null")
     @NotBlank(message = "Channel is required and cannot be empty")
+    @SupportedChannel
     String channel,
     
     @NotNull(message = "Recipient ID cannot be null")
@@ -25,4 +27,19 @@ public record SimpleNotificationRequest(
     String recipientId,
     
     Map<String, Object> context
-) {}
+) {
+    
+    /**
+     * Converte para uma requisição de workflow com destinatário "manual" (o recipientId).
+     */
+    public WorkflowNotificationRequest toWorkflowRequest() {
+        return new WorkflowNotificationRequest(
+            eventType,
+            "user",
+            recipientId,
+            List.of(channel),
+            List.of("manual"),
+            context
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package com.apporte.api.dto;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Canal de envio suportado ({@link com.apporte.core.model.NotificationChannel}, sem diferenciar maiúsculas).
+ * Validado na entrada para que um canal inválido não chegue à gravação das notificações; null é aceito
+ * (obrigatoriedade fica com {@code @NotNull}/{@code @NotBlank}).
+ */
+@Documented
+@Constraint(validatedBy = SupportedChannelValidator.class)
+@Target({ElementType.FIELD, ElementType.PARAMETER, ElementType.RECORD_COMPONENT, ElementType.TYPE_USE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SupportedChannel {
+    
+    String message() default "Unsupported channel (expected email, whatsapp, in_app or sms)";
+    
+    Class<?>[] groups() default {};
+    
+    Class<? extends Payload>[] payload() default {};
+}
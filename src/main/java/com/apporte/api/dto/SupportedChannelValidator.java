@@ -0,0 +1,13 @@
+package com.apporte.api.dto;
+
+import com.apporte.core.model.NotificationChannel;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class SupportedChannelValidator implements ConstraintValidator<SupportedChannel, String> {
+    
+    @Override
+    public boolean isValid(String value, ConstraintValidatorContext context) {
+        return value == null || NotificationChannel.isSupported(value);
+    }
+}
@@ -28,7 +28,7 @@ public record WorkflowNotificationRequest(
     
     @NotNull(message = "Channels cannot be null")
     @NotEmpty(message = "At least one channel is required")
-    List<String> channels,
+    List<@SupportedChannel String> channels,
     
     @NotNull(message = "Recipients cannot be null")
     @NotEmpty(message = "At least one recipient type is required")
@@ -45,10 +45,23 @@ public class ResponseBuilder {
         return errorResponse(Response.Status.NOT_FOUND, "NOT_FOUND", message, null);
     }
     
+    public static Response forbidden(String message) {
+        return errorResponse(Response.Status.FORBIDDEN, "FORBIDDEN", message, null);
+    }
+    
     public static Response conflict(String message) {
         return errorResponse(Response.Status.CONFLICT, "CONFLICT", message, null);
     }
     
+    /**
+     * 429 com cabeçalho Retry-After, usado quando uma fila de envio está cheia.
+     */
+    public static Response tooManyRequests(String message, long retryAfterSeconds) {
+        return Response.fromResponse(errorResponse(Response.Status.TOO_MANY_REQUESTS, "CHANNEL_SATURATED", message, null))
+                .header("Retry-After", retryAfterSeconds)
+                .build();
+    }
+    
     public static Response internalServerError(String message) {
         return errorResponse(Response.Status.INTERNAL_SERVER_ERROR, "INTERNAL_ERROR", message, null);
     }
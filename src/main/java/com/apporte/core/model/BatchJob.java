@@ -0,0 +1,126 @@
+package com.apporte.core.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Registro de um lote enviado em POST /api/notifications/batch.
+ * O progresso não é contado aqui: é agregado a partir das notificações com o mesmo {@code batch_id}.
+ */
+@Entity
+@Table(name = "batch_jobs")
+public class BatchJob extends PanacheEntityBase {
+    
+    public static final String STATUS_RECEIVING = "receiving"; // ingest NDJSON ainda recebendo linhas
+    public static final String STATUS_RUNNING = "running";
+    public static final String STATUS_COMPLETED = "completed";
+    
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+    
+    @Column(name = "status", nullable = false)
+    private String status;
+    
+    @Column(name = "total_items", nullable = false)
+    private int totalItems;
+    
+    @Column(name = "total_notifications", nullable = false)
+    private int totalNotifications;
+    
+    @Column(name = "requested_by")
+    private String requestedBy;
+    
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    
+    @Column(name = "completed_at")
+    private Instant completedAt;
+    
+    // Constructors
+    public BatchJob() {}
+    
+    public BatchJob(String id, int totalItems, int totalNotifications, String requestedBy) {
+        this.id = Objects.requireNonNull(id, "id cannot be null");
+        this.totalItems = totalItems;
+        this.totalNotifications = totalNotifications;
+        this.requestedBy = requestedBy;
+        this.status = STATUS_RUNNING;
+        this.createdAt = Instant.now();
+    }
+    
+    // Getters
+    public String getId() {
+        return id;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public int getTotalItems() {
+        return totalItems;
+    }
+    
+    public int getTotalNotifications() {
+        return totalNotifications;
+    }
+    
+    public String getRequestedBy() {
+        return requestedBy;
+    }
+    
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+    
+    // Business methods
+    public boolean isRunning() {
+        return STATUS_RUNNING.equals(status);
+    }
+    
+    public boolean isCompleted() {
+        return STATUS_COMPLETED.equals(status);
+    }
+    
+    public void markAsReceiving() {
+        this.status = STATUS_RECEIVING;
+    }
+    
+    public void markAsRunning() {
+        this.status = STATUS_RUNNING;
+    }
+    
+    /**
+     * Soma um bloco recebido aos totais do lote.
+     */
+    public void addItems(int items, int notifications) {
+        this.totalItems += items;
+        this.totalNotifications += notifications;
+    }
+    
+    public void markAsCompleted() {
+        this.status = STATUS_COMPLETED;
+        this.completedAt = Instant.now();
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchJob{" +
+                "id='" + id + '\'' +
+                ", status='" + status + '\'' +
+                ", totalItems=" + totalItems +
+                ", totalNotifications=" + totalNotifications +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -0,0 +1,30 @@
+package com.apporte.core.model;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Progresso agregado de um {@link BatchJob}: contagem das suas notificações por status.
+ */
+public record BatchProgress(BatchJob job, Map<NotificationStatus, Long> countsByStatus) {
+    
+    public BatchProgress {
+        Objects.requireNonNull(job, "job cannot be null");
+        countsByStatus = Map.copyOf(countsByStatus);
+    }
+    
+    public long count(NotificationStatus status) {
+        return countsByStatus.getOrDefault(status, 0L);
+    }
+    
+    /**
+     * Notificações ainda aguardando envio ou nova tentativa.
+     */
+    public long outstanding() {
+        return count(NotificationStatus.PENDING) + count(NotificationStatus.RETRYING);
+    }
+    
+    public long processed() {
+        return count(NotificationStatus.SENT) + count(NotificationStatus.ERROR);
+    }
+}
@@ -1,6 +1,7 @@
 package com.apporte.core.model;
 
-import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import com.apporte.core.service.NotificationStatsListener;
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
 import java.time.Instant;
 import java.util.Objects;
@@ -10,8 +11,26 @@ import java.util.Objects;
  * Mantém histórico de envios e controla status e erros.
  */
 @Entity
-@Table(name = "notifications")
-public class Notification extends PanacheEntity {
+// Índices b-tree espelhados das migrações Flyway (V3) para que o esquema gerado nos testes tenha os mesmos
+// caminhos de acesso; BRIN em created_at e o índice parcial da fila existem só no PostgreSQL.
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at DESC"),
+    @Index(name = "idx_notifications_status_created", columnList = "status, created_at"),
+    @Index(name = "idx_notifications_batch", columnList = "batch_id, id"),
+    @Index(name = "idx_notifications_event", columnList = "event_id")
+}, check = {
+    @CheckConstraint(name = "ck_notifications_status", constraint = "status between 0 and 3"),
+    @CheckConstraint(name = "ck_notifications_channel", constraint = "channel between 0 and 3")
+})
+@EntityListeners(NotificationStatsListener.class)
+public class Notification extends PanacheEntityBase {
+    
+    // Mesma sequência que o PanacheEntity usava, mas reservando 500 ids por nextval (otimizador pooled-lo):
+    // um fan-out de centenas de linhas gasta uma ida ao banco para ids e os inserts seguem em lote JDBC.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_id")
+    @SequenceGenerator(name = "notification_id", sequenceName = "Notification_SEQ", allocationSize = 500)
+    public Long id;
     
     @Column(name = "user_id", nullable = false)
     private String userId;
@@ -20,13 +39,16 @@ public class Notification extends PanacheEntity {
     private String eventType;
     
     @Column(name = "channel", nullable = false)
-    private String channel;
+    private NotificationChannel channel; // SMALLINT, ver NotificationChannelConverter
     
     @Column(name = "payload_json", columnDefinition = "jsonb")
-    private String payloadJson;
+    private String payloadJson; // formato antigo; linhas novas usam payload
+    
+    @Column(name = "payload", columnDefinition = "bytea")
+    private byte[] payload; // ver NotificationPayloadCodec
     
     @Column(name = "status", nullable = false)
-    private String status; // pending, sent, error, retrying
+    private NotificationStatus status; // SMALLINT, ver NotificationStatusConverter
     
     @Column(name = "error_message")
     private String errorMessage;
@@ -37,16 +59,34 @@ public class Notification extends PanacheEntity {
     @Column(name = "sent_at")
     private Instant sentAt;
     
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+    
+    @Column(name = "claimed_by", length = 128)
+    private String claimedBy; // nó do dispatcher que detém o lease
+    
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt; // também usado como "não antes de" para retentativas
+    
+    @Column(name = "batch_id", length = 36)
+    private String batchId; // lote de origem (POST /batch), null para envios avulsos
+    
+    @Column(name = "event_id", length = 64)
+    private String eventId; // NotificationEvent compartilhado pelo fan-out; null em payloads autocontidos
+    
+    @Transient
+    private NotificationStatus persistedStatus; // status gravado no banco, para o rollup de estatísticas detectar transições
+    
     // Constructors
     public Notification() {
-        this.status = "pending";
+        this.status = NotificationStatus.PENDING;
     }
     
-    public Notification(String userId, String eventType, String channel) {
+    public Notification(String userId, String eventType, NotificationChannel channel) {
         this.userId = Objects.requireNonNull(userId, "userId cannot be null");
         this.eventType = Objects.requireNonNull(eventType, "eventType cannot be null");
         this.channel = Objects.requireNonNull(channel, "channel cannot be null");
-        this.status = "pending";
+        this.status = NotificationStatus.PENDING;
         this.createdAt = Instant.now();
     }
     
@@ -63,7 +103,7 @@ public class Notification extends PanacheEntity {
         return eventType;
     }
     
-    public String getChannel() {
+    public NotificationChannel getChannel() {
         return channel;
     }
     
@@ -71,7 +111,11 @@ public class Notification extends PanacheEntity {
         return payloadJson;
     }
     
-    public String getStatus() {
+    public byte[] getPayload() {
+        return payload;
+    }
+    
+    public NotificationStatus getStatus() {
         return status;
     }
     
@@ -87,6 +131,26 @@ public class Notification extends PanacheEntity {
         return sentAt;
     }
     
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+    
+    public Instant getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+    
+    public String getBatchId() {
+        return batchId;
+    }
+    
+    public String getEventId() {
+        return eventId;
+    }
+    
     // Setters
     public void setUserId(String userId) {
         this.userId = Objects.requireNonNull(userId, "userId cannot be null");
@@ -96,7 +160,7 @@ public class Notification extends PanacheEntity {
         this.eventType = Objects.requireNonNull(eventType, "eventType cannot be null");
     }
     
-    public void setChannel(String channel) {
+    public void setChannel(NotificationChannel channel) {
         this.channel = Objects.requireNonNull(channel, "channel cannot be null");
     }
     
@@ -104,7 +168,22 @@ public class Notification extends PanacheEntity {
         this.payloadJson = payloadJson;
     }
     
-    public void setStatus(String status) {
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+    
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+    
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+    
+    /**
+     * Define o status sem validar a transição (carga de dados); o fluxo de envio usa os {@code markAs*}.
+     */
+    public void setStatus(NotificationStatus status) {
         this.status = Objects.requireNonNull(status, "status cannot be null");
     }
     
@@ -121,21 +200,72 @@ public class Notification extends PanacheEntity {
     }
     
     public void markAsSent() {
-        this.status = "sent";
+        transitionTo(NotificationStatus.SENT);
         this.sentAt = Instant.now();
         this.errorMessage = null;
+        releaseClaim();
     }
     
     public void markAsError(String errorMessage) {
-        this.status = "error";
+        transitionTo(NotificationStatus.ERROR);
         this.errorMessage = errorMessage;
+        releaseClaim();
     }
     
     public void markAsRetrying() {
-        this.status = "retrying";
+        transitionTo(NotificationStatus.RETRYING);
         this.errorMessage = null;
     }
     
+    /**
+     * Marca para nova tentativa pelo dispatcher, não antes de {@code notBefore}.
+     */
+    public void markForRetry(String errorMessage, Instant notBefore) {
+        transitionTo(NotificationStatus.RETRYING);
+        this.errorMessage = errorMessage;
+        this.claimedBy = null;
+        this.leaseExpiresAt = notBefore;
+    }
+    
+    /**
+     * @throws IllegalStateException se a transição não é permitida (ver {@link NotificationStatus#canTransitionTo})
+     */
+    private void transitionTo(NotificationStatus target) {
+        if (!status.canTransitionTo(target)) {
+            throw new IllegalStateException("Notification " + id + " cannot go from " + status + " to " + target);
+        }
+        this.status = target;
+    }
+    
+    /**
+     * Reivindica a notificação para um nó do dispatcher até {@code leaseExpiresAt}.
+     */
+    public void claim(String nodeId, Instant leaseExpiresAt) {
+        this.claimedBy = Objects.requireNonNull(nodeId, "nodeId cannot be null");
+        this.leaseExpiresAt = Objects.requireNonNull(leaseExpiresAt, "leaseExpiresAt cannot be null");
+        this.attempts++;
+    }
+    
+    public void releaseClaim() {
+        this.claimedBy = null;
+        this.leaseExpiresAt = null;
+    }
+    
+    /**
+     * Status como está gravado no banco (null antes do primeiro insert).
+     */
+    public NotificationStatus persistedStatus() {
+        return persistedStatus;
+    }
+    
+    public void statusPersisted() {
+        this.persistedStatus = status;
+    }
+    
+    public boolean isClaimedBy(String nodeId) {
+        return nodeId != null && nodeId.equals(claimedBy);
+    }
+    
     @PrePersist
     void prePersist() {
         if (this.createdAt == null) {
@@ -153,6 +283,8 @@ public class Notification extends PanacheEntity {
                 ", status='" + status + '\'' +
                 ", createdAt=" + createdAt +
                 ", sentAt=" + sentAt +
+                ", attempts=" + attempts +
+                ", claimedBy='" + claimedBy + '\'' +
                 '}';
     }
 }
\ No newline at end of file
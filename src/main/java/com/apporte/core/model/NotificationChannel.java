@@ -0,0 +1,80 @@
+package com.apporte.core.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Canal de entrega de uma {@link Notification}. No banco vai como SMALLINT ({@link #code()}, restrito por
+ * CHECK); nas requisições, na API e nas filas de entrega, pelo nome em minúsculas ({@link #value()}).
+ */
+public enum NotificationChannel {
+    EMAIL(0, "email"),
+    WHATSAPP(1, "whatsapp"),
+    IN_APP(2, "in_app"),
+    SMS(3, "sms");
+    
+    private final short code;
+    private final String value;
+    
+    NotificationChannel(int code, String value) {
+        this.code = (short) code;
+        this.value = value;
+    }
+    
+    public short code() {
+        return code;
+    }
+    
+    @JsonValue
+    public String value() {
+        return value;
+    }
+    
+    public static NotificationChannel fromCode(short code) {
+        for (NotificationChannel channel : values()) {
+            if (channel.code == code) {
+                return channel;
+            }
+        }
+        throw new IllegalArgumentException("Unknown notification channel code: " + code);
+    }
+    
+    /**
+     * Canal pelo nome recebido na requisição (sem diferenciar maiúsculas).
+     *
+     * @throws IllegalArgumentException se o canal não for suportado
+     */
+    @JsonCreator
+    public static NotificationChannel fromValue(String value) {
+        for (NotificationChannel channel : values()) {
+            if (channel.value.equalsIgnoreCase(value)) {
+                return channel;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported channel: " + value);
+    }
+    
+    /**
+     * Se {@link #fromValue(String)} aceita o nome.
+     */
+    public static boolean isSupported(String value) {
+        for (NotificationChannel channel : values()) {
+            if (channel.value.equalsIgnoreCase(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Como {@link #fromValue(String)}, mas null ou vazio significa "sem filtro".
+     */
+    public static NotificationChannel fromOptionalValue(String value) {
+        return value == null || value.isBlank() ? null : fromValue(value);
+    }
+    
+    @Override
+    public String toString() {
+        return value;
+    }
+}
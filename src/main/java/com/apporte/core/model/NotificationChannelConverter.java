@@ -0,0 +1,21 @@
+package com.apporte.core.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Grava {@link NotificationChannel} pelo código fixo em vez do ordinal.
+ */
+@Converter(autoApply = true)
+public class NotificationChannelConverter implements AttributeConverter<NotificationChannel, Short> {
+    
+    @Override
+    public Short convertToDatabaseColumn(NotificationChannel channel) {
+        return channel != null ? channel.code() : null;
+    }
+    
+    @Override
+    public NotificationChannel convertToEntityAttribute(Short code) {
+        return code != null ? NotificationChannel.fromCode(code) : null;
+    }
+}
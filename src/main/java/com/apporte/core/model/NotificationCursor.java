@@ -0,0 +1,51 @@
+package com.apporte.core.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Posição em uma listagem de notificações ordenada por (createdAt desc, id desc).
+ * Trafega como token opaco (base64url): o cliente apenas devolve o {@code nextCursor} recebido.
+ */
+public record NotificationCursor(Instant createdAt, long id) {
+    
+    private static final char SEPARATOR = '|';
+    
+    public NotificationCursor {
+        Objects.requireNonNull(createdAt, "createdAt cannot be null");
+    }
+    
+    /**
+     * Cursor que aponta para logo depois da notificação informada.
+     */
+    public static NotificationCursor after(Notification notification) {
+        return new NotificationCursor(notification.getCreatedAt(), notification.getId());
+    }
+    
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @throws IllegalArgumentException se o token não foi gerado por {@link #encode()}
+     */
+    public static NotificationCursor decode(String token) {
+        Objects.requireNonNull(token, "token cannot be null");
+        
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new NotificationCursor(Instant.parse(raw.substring(0, separator)),
+                                          Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.apporte.core.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Envelope do evento (tipo, entidade e contexto) gravado uma vez e referenciado por todas as
+ * notificações do fan-out. A chave é o hash do conteúdo, então eventos idênticos compartilham a linha;
+ * {@code lastUsedAt} protege linhas reaproveitadas da limpeza de eventos sem notificações.
+ */
+@Entity
+@Table(name = "notification_events")
+public class NotificationEvent extends PanacheEntityBase {
+    
+    @Id
+    @Column(name = "id", length = 64)
+    private String id; // SHA-256 (hex) do envelope canônico
+    
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+    
+    @Column(name = "entity_type")
+    private String entityType;
+    
+    @Column(name = "entity_id")
+    private String entityId;
+    
+    @Column(name = "payload", columnDefinition = "bytea", nullable = false)
+    private byte[] payload; // NotificationPayload.Event codificado pelo NotificationPayloadCodec
+    
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+    
+    @Column(name = "last_used_at", nullable = false)
+    private Instant lastUsedAt;
+    
+    // Constructors
+    public NotificationEvent() {}
+    
+    public NotificationEvent(String id, String eventType, String entityType, String entityId, byte[] payload) {
+        this.id = Objects.requireNonNull(id, "id cannot be null");
+        this.eventType = Objects.requireNonNull(eventType, "eventType cannot be null");
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.payload = Objects.requireNonNull(payload, "payload cannot be null");
+        this.createdAt = Instant.now();
+        this.lastUsedAt = this.createdAt;
+    }
+    
+    // Getters
+    public String getId() {
+        return id;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public String getEntityType() {
+        return entityType;
+    }
+    
+    public String getEntityId() {
+        return entityId;
+    }
+    
+    public byte[] getPayload() {
+        return payload;
+    }
+    
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    
+    public Instant getLastUsedAt() {
+        return lastUsedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "NotificationEvent{" +
+                "id='" + id + '\'' +
+                ", eventType='" + eventType + '\'' +
+                ", entityType='" + entityType + '\'' +
+                ", entityId='" + entityId + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,29 @@
+package com.apporte.core.model;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem por cursor; {@code nextCursor} é null na última página.
+ */
+public record NotificationPage(List<Notification> notifications, String nextCursor) {
+    
+    public NotificationPage {
+        notifications = List.copyOf(notifications);
+    }
+    
+    /**
+     * Monta a página a partir de uma consulta que buscou {@code size + 1} linhas:
+     * a linha extra só indica que existe uma próxima página.
+     */
+    public static NotificationPage of(List<Notification> fetched, int size) {
+        if (fetched.size() <= size) {
+            return new NotificationPage(fetched, null);
+        }
+        List<Notification> page = fetched.subList(0, size);
+        return new NotificationPage(page, NotificationCursor.after(page.get(size - 1)).encode());
+    }
+    
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,63 @@
+package com.apporte.core.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Dados gravados com cada notificação para reenvio: o destinatário resolvido e, em payloads
+ * autocontidos, o evento de origem.
+ * Os nomes dos campos são os do payload JSON antigo, então linhas de {@code payload_json} são lidas
+ * pelo mesmo tipo.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record NotificationPayload(Recipient recipient, Event event, int retryAttempts, Instant createdAt) {
+    
+    public static NotificationPayload of(RecipientResolution recipient, String eventType, String entityType,
+                                         String entityId, Map<String, Object> context, Instant now) {
+        return new NotificationPayload(
+            new Recipient(recipient.getUserId(), recipient.getEmail(), recipient.getName(),
+                          recipient.getRecipientType(), recipient.getPhone(), recipient.getMetadata()),
+            new Event(eventType, entityType, entityId, context, now),
+            0,
+            now
+        );
+    }
+    
+    /**
+     * Só a parte do destinatário; o evento fica no {@link NotificationEvent} referenciado pela notificação.
+     */
+    public static NotificationPayload forRecipient(RecipientResolution recipient, Instant now) {
+        return new NotificationPayload(
+            new Recipient(recipient.getUserId(), recipient.getEmail(), recipient.getName(),
+                          recipient.getRecipientType(), recipient.getPhone(), recipient.getMetadata()),
+            null,
+            0,
+            now
+        );
+    }
+    
+    /**
+     * Cópia sem metadata do destinatário nem contexto do evento (valores livres que podem não serializar).
+     */
+    public NotificationPayload withoutExtras() {
+        return new NotificationPayload(
+            recipient != null ? new Recipient(recipient.userId(), recipient.email(), recipient.name(),
+                                              recipient.recipientType(), recipient.phone(), null) : null,
+            event != null ? new Event(event.type(), event.entityType(), event.entityId(), null, event.timestamp()) : null,
+            retryAttempts,
+            createdAt
+        );
+    }
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Recipient(String userId, String email, String name, String recipientType,
+                            String phone, Map<String, Object> metadata) {
+    }
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Event(String type, String entityType, String entityId, Map<String, Object> context,
+                        Instant timestamp) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.apporte.core.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Linha do rollup de estatísticas: quantas notificações criadas no intervalo
+ * {@code bucketStart} (hora ou dia) estão em cada (canal, tipo de evento, status).
+ * As linhas são deltas somáveis; a compactação periódica funde as de mesma chave.
+ */
+@Entity
+@Table(name = "notification_stats_rollup", indexes = {
+    @Index(name = "idx_stats_rollup_bucket", columnList = "bucket_start")
+})
+public class NotificationStatsBucket extends PanacheEntityBase {
+    
+    public static final String GRANULARITY_HOUR = "hour";
+    public static final String GRANULARITY_DAY = "day";
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_stats_rollup_id")
+    @SequenceGenerator(name = "notification_stats_rollup_id", sequenceName = "notification_stats_rollup_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+    
+    @Column(name = "granularity", nullable = false, length = 8)
+    private String granularity;
+    
+    @Column(name = "channel", nullable = false)
+    private String channel;
+    
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+    
+    @Column(name = "status", nullable = false)
+    private String status;
+    
+    @Column(name = "notification_count", nullable = false)
+    private long count;
+    
+    public NotificationStatsBucket() {
+    }
+    
+    public NotificationStatsBucket(NotificationStatsKey key, long count) {
+        Objects.requireNonNull(key, "key cannot be null");
+        this.bucketStart = key.bucketStart();
+        this.granularity = key.granularity();
+        this.channel = key.channel();
+        this.eventType = key.eventType();
+        this.status = key.status();
+        this.count = count;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public NotificationStatsKey getKey() {
+        return new NotificationStatsKey(bucketStart, granularity, channel, eventType, status);
+    }
+    
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,37 @@
+package com.apporte.core.model;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * Chave do rollup de estatísticas: intervalo de criação, canal, tipo de evento e status.
+ */
+public record NotificationStatsKey(Instant bucketStart, String granularity, String channel, 
+                                   String eventType, String status) {
+    
+    public NotificationStatsKey {
+        Objects.requireNonNull(bucketStart, "bucketStart cannot be null");
+        Objects.requireNonNull(granularity, "granularity cannot be null");
+        Objects.requireNonNull(channel, "channel cannot be null");
+        Objects.requireNonNull(eventType, "eventType cannot be null");
+        Objects.requireNonNull(status, "status cannot be null");
+    }
+    
+    /**
+     * Chave horária da notificação (pela hora de criação) no status informado.
+     */
+    public static NotificationStatsKey hourly(Notification notification, String status) {
+        return new NotificationStatsKey(notification.getCreatedAt().truncatedTo(ChronoUnit.HOURS),
+                                        NotificationStatsBucket.GRANULARITY_HOUR,
+                                        notification.getChannel().value(), notification.getEventType(), status);
+    }
+    
+    /**
+     * A mesma chave agregada no dia (UTC).
+     */
+    public NotificationStatsKey toDaily() {
+        return new NotificationStatsKey(bucketStart.truncatedTo(ChronoUnit.DAYS), NotificationStatsBucket.GRANULARITY_DAY,
+                                        channel, eventType, status);
+    }
+}
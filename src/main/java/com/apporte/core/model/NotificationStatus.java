@@ -0,0 +1,83 @@
+package com.apporte.core.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Status de uma {@link Notification}. No banco vai como SMALLINT ({@link #code()}, restrito por CHECK);
+ * na API e nas estatísticas, pelo nome em minúsculas ({@link #value()}).
+ * As transições permitidas estão em {@link #canTransitionTo(NotificationStatus)}.
+ */
+public enum NotificationStatus {
+    PENDING(0, "pending"),
+    SENT(1, "sent"),
+    ERROR(2, "error"),
+    RETRYING(3, "retrying");
+    
+    private final short code;
+    private final String value;
+    
+    NotificationStatus(int code, String value) {
+        this.code = (short) code;
+        this.value = value;
+    }
+    
+    public short code() {
+        return code;
+    }
+    
+    @JsonValue
+    public String value() {
+        return value;
+    }
+    
+    /**
+     * pending e retrying saem para sent, error ou nova tentativa; error só volta por reenvio manual;
+     * sent é final.
+     */
+    public boolean canTransitionTo(NotificationStatus target) {
+        return switch (this) {
+            case PENDING, RETRYING -> target != PENDING;
+            case ERROR -> target == RETRYING;
+            case SENT -> false;
+        };
+    }
+    
+    /**
+     * Aguardando envio ou nova tentativa pelo dispatcher.
+     */
+    public boolean isDispatchable() {
+        return this == PENDING || this == RETRYING;
+    }
+    
+    public static NotificationStatus fromCode(short code) {
+        for (NotificationStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown notification status code: " + code);
+    }
+    
+    @JsonCreator
+    public static NotificationStatus fromValue(String value) {
+        for (NotificationStatus status : values()) {
+            if (status.value.equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown notification status: " + value);
+    }
+    
+    /**
+     * Como {@link #fromValue(String)}, mas null ou vazio significa "sem filtro".
+     */
+    public static NotificationStatus fromOptionalValue(String value) {
+        return value == null || value.isBlank() ? null : fromValue(value);
+    }
+    
+    @Override
+    public String toString() {
+        return value;
+    }
+}
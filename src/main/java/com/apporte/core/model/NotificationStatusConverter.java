@@ -0,0 +1,22 @@
+package com.apporte.core.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Grava {@link NotificationStatus} pelo código fixo em vez do ordinal, para a ordem das constantes
+ * poder mudar sem migrar dados.
+ */
+@Converter(autoApply = true)
+public class NotificationStatusConverter implements AttributeConverter<NotificationStatus, Short> {
+    
+    @Override
+    public Short convertToDatabaseColumn(NotificationStatus status) {
+        return status != null ? status.code() : null;
+    }
+    
+    @Override
+    public NotificationStatus convertToEntityAttribute(Short code) {
+        return code != null ? NotificationStatus.fromCode(code) : null;
+    }
+}
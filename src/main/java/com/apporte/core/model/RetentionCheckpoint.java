@@ -0,0 +1,107 @@
+package com.apporte.core.model;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Progresso de uma execução da retenção de notificações, gravado a cada bloco apagado.
+ * Uma execução interrompida (restart, janela esgotada) continua de {@code nextId} com o mesmo corte;
+ * o registro é removido quando a faixa até {@code lastId} termina.
+ */
+@Entity
+@Table(name = "retention_checkpoints")
+public class RetentionCheckpoint extends PanacheEntityBase {
+    
+    @Id
+    @Column(name = "id", length = 64)
+    private String id;
+    
+    @Column(name = "cutoff", nullable = false)
+    private Instant cutoff;
+    
+    @Column(name = "next_id", nullable = false)
+    private long nextId;
+    
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+    
+    @Column(name = "deleted_rows", nullable = false)
+    private long deletedRows;
+    
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+    
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+    
+    // Constructors
+    public RetentionCheckpoint() {}
+    
+    public RetentionCheckpoint(String id, Instant cutoff, long nextId, long lastId) {
+        this.id = Objects.requireNonNull(id, "id cannot be null");
+        this.cutoff = Objects.requireNonNull(cutoff, "cutoff cannot be null");
+        this.nextId = nextId;
+        this.lastId = lastId;
+        this.startedAt = Instant.now();
+        this.updatedAt = this.startedAt;
+    }
+    
+    // Getters
+    public String getId() {
+        return id;
+    }
+    
+    public Instant getCutoff() {
+        return cutoff;
+    }
+    
+    public long getNextId() {
+        return nextId;
+    }
+    
+    public long getLastId() {
+        return lastId;
+    }
+    
+    public long getDeletedRows() {
+        return deletedRows;
+    }
+    
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+    
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    // Business methods
+    public boolean isFinished() {
+        return nextId > lastId;
+    }
+    
+    /**
+     * Avança a faixa após um bloco que apagou {@code deleted} linhas.
+     */
+    public void advance(long nextId, long deleted) {
+        this.nextId = nextId;
+        this.deletedRows += deleted;
+        this.updatedAt = Instant.now();
+    }
+    
+    @Override
+    public String toString() {
+        return "RetentionCheckpoint{" +
+                "id='" + id + '\'' +
+                ", cutoff=" + cutoff +
+                ", nextId=" + nextId +
+                ", lastId=" + lastId +
+                ", deletedRows=" + deletedRows +
+                '}';
+    }
+}
@@ -0,0 +1,16 @@
+package com.apporte.core.model;
+
+/**
+ * Total de uma listagem. {@code exact} é false quando o valor é uma estimativa
+ * (estatísticas do PostgreSQL) ou quando a contagem parou no limite configurado.
+ */
+public record TotalCount(long value, boolean exact) {
+    
+    public static TotalCount exact(long value) {
+        return new TotalCount(value, true);
+    }
+    
+    public static TotalCount approximate(long value) {
+        return new TotalCount(value, false);
+    }
+}
@@ -1,21 +1,33 @@
 package com.apporte.core.model;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Table;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Entidade que representa um usuário em cache sincronizado com Keycloak.
  * Mantém informações básicas do usuário para resolução de destinatários de notificações.
  */
 @Entity
-@Table(name = "users_cache")
+@Table(name = "users_cache", indexes = @Index(name = "idx_users_cache_last_sync", columnList = "last_sync"))
 public class User extends PanacheEntityBase {
     
+    private static final ObjectWriter ROLES_WRITER = JsonMapper.builder().build().writer();
+    
     @Id
     private String id;
     
@@ -29,7 +41,14 @@ public class User extends PanacheEntityBase {
     private String phone;
     
     @Column(name = "roles_json", columnDefinition = "TEXT")
-    private String rolesJson;
+    private String rolesJson; // cópia para leitura; consultas por role usam user_roles
+    
+    // Uma linha por (usuário, role): busca por role é seek em idx_user_roles_role, não LIKE em roles_json
+    @ElementCollection
+    @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"),
+                     indexes = @Index(name = "idx_user_roles_role", columnList = "role, user_id"))
+    @Column(name = "role", nullable = false)
+    private Set<String> roles = new LinkedHashSet<>();
     
     @Column(name = "last_sync")
     private Instant lastSync;
@@ -69,6 +88,10 @@ public class User extends PanacheEntityBase {
         return rolesJson;
     }
     
+    public Set<String> getRoles() {
+        return Set.copyOf(roles);
+    }
+    
     public Instant getLastSync() {
         return lastSync;
     }
@@ -94,8 +117,15 @@ public class User extends PanacheEntityBase {
         this.phone = phone;
     }
     
-    public void setRolesJson(String rolesJson) {
-        this.rolesJson = rolesJson;
+    /**
+     * Substitui as roles do usuário, mantendo {@code user_roles} e {@code roles_json} em sincronia.
+     */
+    public void setRoles(Collection<String> roles) {
+        this.roles.clear();
+        if (roles != null) {
+            roles.stream().filter(role -> role != null && !role.isBlank()).forEach(this.roles::add);
+        }
+        this.rolesJson = this.roles.isEmpty() ? null : toJson(this.roles);
     }
     
     public void setLastSync(Instant lastSync) {
@@ -110,6 +140,14 @@ public class User extends PanacheEntityBase {
         this.lastSync = Instant.now();
     }
     
+    private static String toJson(Set<String> roles) {
+        try {
+            return ROLES_WRITER.writeValueAsString(roles);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize roles", e);
+        }
+    }
+    
     @Override
     public String toString() {
         return "User{" +
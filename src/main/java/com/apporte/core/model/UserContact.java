@@ -0,0 +1,12 @@
+package com.apporte.core.model;
+
+/**
+ * Dados de contato de um {@link User}, imutáveis, para guardar em cache entre resoluções de destinatários
+ * (a entidade fica presa à sessão e é mutável).
+ */
+public record UserContact(String id, String email, String name, String phone) {
+    
+    public static UserContact from(User user) {
+        return new UserContact(user.getId(), user.getEmail(), user.getName(), user.getPhone());
+    }
+}
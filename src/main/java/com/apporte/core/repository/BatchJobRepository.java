@@ -0,0 +1,9 @@
+package com.apporte.core.repository;
+
+import com.apporte.core.model.BatchJob;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class BatchJobRepository implements PanacheRepositoryBase<BatchJob, String> {
+}
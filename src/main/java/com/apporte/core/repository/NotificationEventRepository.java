@@ -0,0 +1,43 @@
+package com.apporte.core.repository;
+
+import com.apporte.core.model.NotificationEvent;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.Instant;
+
+@ApplicationScoped
+public class NotificationEventRepository implements PanacheRepositoryBase<NotificationEvent, String> {
+    
+    /**
+     * Grava o evento se a chave ainda não existe; se já existe, só renova {@code lastUsedAt}.
+     * Seguro entre transações concorrentes com o mesmo conteúdo (ON CONFLICT DO NOTHING).
+     */
+    public void saveIfAbsent(NotificationEvent event) {
+        Instant now = Instant.now();
+        if (update("lastUsedAt = ?1 where id = ?2", now, event.getId()) > 0) {
+            return;
+        }
+        
+        // HQL com ON CONFLICT: o Hibernate traduz para o dialeto (MERGE no H2)
+        getEntityManager()
+                .createQuery("insert into NotificationEvent "
+                             + "(id, eventType, entityType, entityId, payload, createdAt, lastUsedAt) "
+                             + "values (?1, ?2, ?3, ?4, ?5, ?6, ?6) on conflict (id) do nothing")
+                .setParameter(1, event.getId())
+                .setParameter(2, event.getEventType())
+                .setParameter(3, event.getEntityType())
+                .setParameter(4, event.getEntityId())
+                .setParameter(5, event.getPayload())
+                .setParameter(6, now)
+                .executeUpdate();
+    }
+    
+    /**
+     * Remove eventos sem notificações que não são usados desde {@code cutoff}.
+     */
+    public long deleteUnreferencedBefore(Instant cutoff) {
+        return delete("from NotificationEvent e where e.lastUsedAt < ?1 "
+                      + "and not exists (select 1 from Notification n where n.eventId = e.id)", cutoff);
+    }
+}
@@ -1,11 +1,350 @@
 package com.apporte.core.repository;
 
 import com.apporte.core.model.Notification;
+import com.apporte.core.model.NotificationChannel;
+import com.apporte.core.model.NotificationCursor;
+import com.apporte.core.model.NotificationStatus;
+import com.apporte.infrastructure.persistence.ReadReplicaRouting;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.TypedQuery;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @ApplicationScoped
 public class NotificationRepository implements PanacheRepository<Notification> {
-    // Métodos customizados podem ser adicionados aqui
     // O Panache já fornece: persist(), findById(), listAll(), etc.
-}
\ No newline at end of file
+    
+    private static final List<NotificationStatus> DISPATCHABLE_STATUSES = List.of(NotificationStatus.PENDING, NotificationStatus.RETRYING);
+    
+    // Valor de lock timeout que o Hibernate traduz para SKIP LOCKED (LockOptions.SKIP_LOCKED)
+    private static final int SKIP_LOCKED = -2;
+    
+    /**
+     * Partição com as linhas anteriores ao particionamento (migração V5), de MINVALUE até o mês da migração.
+     */
+    public static final String LEGACY_PARTITION = "notifications_legacy";
+    
+    @Inject
+    ReadReplicaRouting readReplicaRouting;
+    
+    /**
+     * Persiste um lote de notificações na transação corrente com um único flush.
+     * Com o sequence pooled-lo da entidade e {@code hibernate.order_inserts}, os INSERTs saem em lotes
+     * JDBC de {@code quarkus.hibernate-orm.jdbc.statement-batch-size}: um fan-out de centenas de
+     * destinatários custa poucas idas ao banco em vez de uma por linha.
+     */
+    public void persistAll(List<Notification> notifications) {
+        if (notifications == null || notifications.isEmpty()) {
+            return;
+        }
+        persist(notifications);
+        flush();
+    }
+    
+    /**
+     * Seleciona notificações prontas para envio (pending/retrying sem lease válido) com
+     * {@code SELECT ... FOR UPDATE SKIP LOCKED}, de modo que nós concorrentes nunca
+     * recebam a mesma linha. Deve ser chamado dentro de uma transação.
+     */
+    public List<Notification> findDispatchableForUpdate(Instant now, int limit) {
+        return find("status in :statuses and (leaseExpiresAt is null or leaseExpiresAt < :now)",
+                    Sort.ascending("id"),
+                    Parameters.with("statuses", DISPATCHABLE_STATUSES).and("now", now))
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .withHint("jakarta.persistence.lock.timeout", SKIP_LOCKED)
+                .page(0, limit)
+                .list();
+    }
+    
+    /**
+     * Como {@link #findDispatchableForUpdate(Instant, int)}, restrito às notificações de um lote.
+     */
+    public List<Notification> findDispatchableInBatchForUpdate(String batchId, Instant now, int limit) {
+        return find("batchId = :batchId and status in :statuses and (leaseExpiresAt is null or leaseExpiresAt < :now)",
+                    Sort.ascending("id"),
+                    Parameters.with("batchId", batchId).and("statuses", DISPATCHABLE_STATUSES).and("now", now))
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .withHint("jakarta.persistence.lock.timeout", SKIP_LOCKED)
+                .page(0, limit)
+                .list();
+    }
+    
+    /**
+     * Renova o lease das notificações que ainda estão em envio neste nó.
+     */
+    public int extendLeases(String nodeId, Collection<Long> ids, Instant leaseExpiresAt) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        return update("leaseExpiresAt = :lease where claimedBy = :node and id in :ids",
+                      Parameters.with("lease", leaseExpiresAt).and("node", nodeId).and("ids", ids));
+    }
+    
+    /**
+     * Libera o lease sem contar a tentativa, para notificações que não chegaram a ser enviadas.
+     */
+    public int releaseClaims(String nodeId, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        return update("claimedBy = null, leaseExpiresAt = null, attempts = attempts - 1 where claimedBy = :node and id in :ids",
+                      Parameters.with("node", nodeId).and("ids", ids));
+    }
+    
+    /**
+     * Contagem de notificações de um lote por status, em uma única consulta agregada.
+     */
+    public Map<NotificationStatus, Long> countByStatusForBatch(String batchId) {
+        List<Object[]> rows = getEntityManager()
+                .createQuery("select n.status, count(n) from Notification n where n.batchId = :batchId group by n.status",
+                             Object[].class)
+                .setParameter("batchId", batchId)
+                .getResultList();
+        
+        Map<NotificationStatus, Long> counts = new EnumMap<>(NotificationStatus.class);
+        for (Object[] row : rows) {
+            counts.put((NotificationStatus) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+    
+    /**
+     * Contagem por status e canal das notificações que atendem {@code filter}, em uma única consulta agregada.
+     * As chaves são os nomes de {@link NotificationStatus#value()} e {@link NotificationChannel#value()},
+     * como nos contadores e no rollup de estatísticas.
+     */
+    public Map<String, Map<String, Long>> countByStatusAndChannel(String filter, Object... params) {
+        var query = getEntityManager()
+                .createQuery("select status, channel, count(*) from Notification where " + filter 
+                             + " group by status, channel", Object[].class);
+        for (int i = 0; i < params.length; i++) {
+            query.setParameter(i + 1, params[i]);
+        }
+        
+        Map<String, Map<String, Long>> counts = new HashMap<>();
+        for (Object[] row : query.getResultList()) {
+            counts.computeIfAbsent(((NotificationStatus) row[0]).value(), ignored -> new HashMap<>())
+                    .put(((NotificationChannel) row[1]).value(), (Long) row[2]);
+        }
+        return counts;
+    }
+    
+    /**
+     * Notificações que ainda só têm o payload em texto ({@code payload_json}), após {@code afterId}, em ordem de id.
+     */
+    public List<Notification> findLegacyPayloadPage(long afterId, int limit) {
+        return find("payloadJson is not null and payload is null and id > ?1", Sort.ascending("id"), afterId)
+                .page(0, limit)
+                .list();
+    }
+    
+    /**
+     * Página de notificações de um lote após o cursor {@code afterId}, em ordem de id.
+     */
+    public List<Notification> findBatchPage(String batchId, long afterId, int limit) {
+        return find("batchId = ?1 and id > ?2", Sort.ascending("id"), batchId, afterId)
+                .page(0, limit)
+                .list();
+    }
+    
+    /**
+     * Página por keyset em ordem (createdAt desc, id desc): em vez de OFFSET, filtra as linhas
+     * posteriores ao {@code cursor}, o que mantém o custo constante em qualquer profundidade
+     * quando {@code filter} casa com um índice terminado em created_at.
+     *
+     * @param filter predicado HQL sobre Notification (sem o cursor); {@code params} com os valores nomeados dele
+     */
+    public List<Notification> findPageAfter(String filter, Map<String, Object> params, 
+                                            NotificationCursor cursor, int limit) {
+        String query = filter;
+        Map<String, Object> queryParams = params;
+        
+        if (cursor != null) {
+            query = "(" + filter + ") and (createdAt < :cursorCreatedAt or (createdAt = :cursorCreatedAt and id < :cursorId))";
+            queryParams = new HashMap<>(params);
+            queryParams.put("cursorCreatedAt", cursor.createdAt());
+            queryParams.put("cursorId", cursor.id());
+        }
+        
+        TypedQuery<Notification> page = readEntityManager()
+                .createQuery("from Notification where " + query + " order by createdAt desc, id desc", Notification.class)
+                .setMaxResults(limit);
+        queryParams.forEach(page::setParameter);
+        return page.getResultList();
+    }
+    
+    /**
+     * Busca por id para leitura; dentro de um método {@code @ReadReplica} pode vir da réplica (entidade destacada).
+     */
+    public Notification findForRead(Long id) {
+        return readEntityManager().find(Notification.class, id);
+    }
+    
+    /**
+     * Conta as linhas do filtro parando em {@code cap}: o banco lê no máximo {@code cap} entradas.
+     */
+    public long countUpTo(String filter, Map<String, Object> params, int cap) {
+        var query = readEntityManager()
+                .createQuery("select count(*) from (select n.id as id from Notification n where " + filter 
+                             + " order by n.createdAt desc fetch first :cap rows only)", Long.class)
+                .setParameter("cap", cap);
+        params.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+    
+    /**
+     * Número aproximado de linhas da tabela segundo as estatísticas do PostgreSQL (atualizadas
+     * pelo autovacuum/ANALYZE), sem varrer a tabela. Negativo se a tabela ainda não foi analisada.
+     */
+    public long estimateRowCount() {
+        // Em tabela particionada o pai não tem linhas próprias: soma a estimativa das partições
+        Number estimate = (Number) readEntityManager()
+                .createNativeQuery("select case when p.relkind = 'p' then "
+                                   + "(select coalesce(sum(greatest(c.reltuples, 0)), 0) from pg_inherits i "
+                                   + "join pg_class c on c.oid = i.inhrelid where i.inhparent = p.oid) "
+                                   + "else p.reltuples end from pg_class p where p.oid = 'notifications'::regclass")
+                .getSingleResult();
+        return estimate.longValue();
+    }
+    
+    /**
+     * Faixa de ids que a retenção precisa percorrer: do menor id da tabela ao maior criado antes do corte.
+     * Vazio se nada foi criado antes do corte.
+     */
+    public Optional<IdRange> findIdRangeCreatedBefore(Instant cutoff) {
+        Object[] range = getEntityManager()
+                .createQuery("select (select min(o.id) from Notification o), max(n.id) from Notification n "
+                             + "where n.createdAt < :cutoff", Object[].class)
+                .setParameter("cutoff", cutoff)
+                .getSingleResult();
+        if (range[0] == null || range[1] == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new IdRange((Long) range[0], (Long) range[1]));
+    }
+    
+    /**
+     * Maior atraso de replay entre as réplicas conectadas ao primário (zero sem réplicas). Sem
+     * {@link #canReadReplicationLag()} as colunas de atraso vêm nulas e o resultado também é zero.
+     */
+    public Duration replicationLag() {
+        Number seconds = (Number) getEntityManager()
+                .createNativeQuery("select coalesce(max(extract(epoch from replay_lag)), 0) from pg_stat_replication")
+                .getSingleResult();
+        return Duration.ofMillis((long) (seconds.doubleValue() * 1000));
+    }
+    
+    /**
+     * Indica se o papel da conexão enxerga as colunas de atraso de {@code pg_stat_replication}
+     * (superusuário ou membro de {@code pg_read_all_stats}, que {@code pg_monitor} inclui).
+     */
+    public boolean canReadReplicationLag() {
+        return (Boolean) getEntityManager()
+                .createNativeQuery("select pg_has_role(current_user, 'pg_read_all_stats', 'USAGE')")
+                .getSingleResult();
+    }
+    
+    /**
+     * Indica se {@code notifications} é uma tabela particionada (PostgreSQL, após a migração V5).
+     */
+    public boolean isPartitioned() {
+        Number partitioned = (Number) getEntityManager()
+                .createNativeQuery("select count(*) from pg_class where oid = to_regclass('notifications') and relkind = 'p'")
+                .getSingleResult();
+        return partitioned.longValue() > 0;
+    }
+    
+    /**
+     * Tenta o advisory lock da manutenção de partições, liberado no fim da transação corrente.
+     */
+    public boolean tryPartitionMaintenanceLock() {
+        return (Boolean) getEntityManager()
+                .createNativeQuery("select pg_try_advisory_xact_lock(hashtext('notifications_partition_maintenance'))")
+                .getSingleResult();
+    }
+    
+    /**
+     * Cria as partições mensais até {@code monthsAhead} meses à frente; retorna quantas foram criadas.
+     */
+    public int ensurePartitions(int monthsAhead) {
+        Number created = (Number) getEntityManager()
+                .createNativeQuery("select ensure_notification_partitions(:monthsAhead)")
+                .setParameter("monthsAhead", monthsAhead)
+                .getSingleResult();
+        return created.intValue();
+    }
+    
+    /**
+     * Partições anexadas com o limite superior (exclusivo) do intervalo, em ordem cronológica.
+     */
+    public Map<String, Instant> findPartitionUpperBounds() {
+        List<Object[]> rows = getEntityManager()
+                .createNativeQuery("select c.relname, (regexp_match(pg_get_expr(c.relpartbound, c.oid), "
+                                   + "'TO \\(''([^'']+)''\\)'))[1]::timestamptz as upper_bound "
+                                   + "from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+                                   + "where i.inhparent = 'notifications'::regclass order by upper_bound", Object[].class)
+                .getResultList();
+        
+        Map<String, Instant> bounds = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                bounds.put((String) row[0], toInstant(row[1]));
+            }
+        }
+        return bounds;
+    }
+    
+    /**
+     * Desanexa a partição e a move para {@code archiveSchema} ou, com schema null, a remove.
+     */
+    public void retirePartition(String partition, String archiveSchema) {
+        requireIdentifier(partition);
+        getEntityManager().createNativeQuery("alter table notifications detach partition " + partition).executeUpdate();
+        
+        if (archiveSchema == null) {
+            getEntityManager().createNativeQuery("drop table " + partition).executeUpdate();
+        } else {
+            requireIdentifier(archiveSchema);
+            getEntityManager().createNativeQuery("alter table " + partition + " set schema " + archiveSchema).executeUpdate();
+        }
+    }
+    
+    private static Instant toInstant(Object value) {
+        if (value instanceof Instant instant) {
+            return instant;
+        }
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toInstant();
+        }
+        return ((Timestamp) value).toInstant();
+    }
+    
+    private static void requireIdentifier(String identifier) {
+        if (identifier == null || !identifier.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid SQL identifier: " + identifier);
+        }
+    }
+    
+    private EntityManager readEntityManager() {
+        return readReplicaRouting.entityManager(getEntityManager());
+    }
+    
+    public record IdRange(long firstId, long lastId) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.apporte.core.repository;
+
+import com.apporte.core.model.NotificationStatsBucket;
+import com.apporte.core.model.NotificationStatsKey;
+import com.apporte.infrastructure.persistence.ReadReplicaRouting;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@ApplicationScoped
+public class NotificationStatsRepository implements PanacheRepository<NotificationStatsBucket> {
+    
+    // Valor de lock timeout que o Hibernate traduz para SKIP LOCKED (LockOptions.SKIP_LOCKED)
+    private static final int SKIP_LOCKED = -2;
+    
+    @Inject
+    ReadReplicaRouting readReplicaRouting;
+    
+    /**
+     * Soma do rollup por chave a partir de {@code since}. Linhas diárias entram se o dia
+     * contém {@code since}, então janelas além da retenção horária têm resolução de dia.
+     */
+    public Map<NotificationStatsKey, Long> sumSince(Instant since) {
+        List<Object[]> rows = readReplicaRouting.entityManager(getEntityManager())
+                .createQuery("select b.bucketStart, b.granularity, b.channel, b.eventType, b.status, sum(b.count) "
+                             + "from NotificationStatsBucket b "
+                             + "where (b.granularity = 'hour' and b.bucketStart >= :since) "
+                             + "or (b.granularity = 'day' and b.bucketStart >= :sinceDay) "
+                             + "group by b.bucketStart, b.granularity, b.channel, b.eventType, b.status", Object[].class)
+                .setParameter("since", since.truncatedTo(ChronoUnit.HOURS))
+                .setParameter("sinceDay", since.truncatedTo(ChronoUnit.DAYS))
+                .getResultList();
+        
+        Map<NotificationStatsKey, Long> sums = new HashMap<>();
+        for (Object[] row : rows) {
+            NotificationStatsKey key = new NotificationStatsKey((Instant) row[0], (String) row[1], 
+                                                                (String) row[2], (String) row[3], (String) row[4]);
+            sums.put(key, ((Number) row[5]).longValue());
+        }
+        return sums;
+    }
+    
+    /**
+     * Linhas a compactar: chaves com mais de uma linha e linhas horárias anteriores a {@code hourlyCutoff}.
+     * As chaves repetidas saem de uma única agregação da tabela, não de uma comparação linha a linha.
+     * Usa {@code FOR UPDATE SKIP LOCKED} para que nós concorrentes compactem conjuntos disjuntos.
+     */
+    public List<NotificationStatsBucket> findCompactableForUpdate(Instant hourlyCutoff, int limit) {
+        return find("from NotificationStatsBucket b where (b.granularity = 'hour' and b.bucketStart < :cutoff) "
+                    + "or (b.bucketStart, b.granularity, b.channel, b.eventType, b.status) in "
+                    + "(select o.bucketStart, o.granularity, o.channel, o.eventType, o.status "
+                    + "from NotificationStatsBucket o group by o.bucketStart, o.granularity, o.channel, o.eventType, o.status "
+                    + "having count(*) > 1)",
+                    Parameters.with("cutoff", hourlyCutoff))
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .withHint("jakarta.persistence.lock.timeout", SKIP_LOCKED)
+                .page(0, limit)
+                .list();
+    }
+    
+    public long deleteByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        return delete("id in ?1", ids);
+    }
+}
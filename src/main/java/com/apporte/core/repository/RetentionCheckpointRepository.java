@@ -0,0 +1,25 @@
+package com.apporte.core.repository;
+
+import com.apporte.core.model.RetentionCheckpoint;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+
+import java.util.Optional;
+
+@ApplicationScoped
+public class RetentionCheckpointRepository implements PanacheRepositoryBase<RetentionCheckpoint, String> {
+    
+    // Valor de lock timeout que o Hibernate traduz para SKIP LOCKED (LockOptions.SKIP_LOCKED)
+    private static final int SKIP_LOCKED = -2;
+    
+    /**
+     * Checkpoint bloqueado para esta transação; vazio se não existe ou se outro nó está com ele.
+     */
+    public Optional<RetentionCheckpoint> findForUpdateSkipLocked(String id) {
+        return find("id", id)
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .withHint("jakarta.persistence.lock.timeout", SKIP_LOCKED)
+                .firstResultOptional();
+    }
+}
@@ -3,38 +3,88 @@ package com.apporte.core.repository;
 import com.apporte.core.model.User;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
 @ApplicationScoped
 public class UserRepository implements PanacheRepository<User> {
     
+    // Tamanho máximo de cada lista IN: mantém o número de parâmetros e a variedade de planos limitados
+    static final int IN_LIST_CHUNK_SIZE = 500;
+    
+    public static final List<String> ADMIN_ROLES = List.of("admin", "notification-admin", "supervisor");
+    
     public Optional<User> findByKeycloakId(String keycloakId) {
         return find("id", keycloakId).firstResultOptional();
     }
     
+    /**
+     * Usuários com os ids informados, em consultas {@code IN} de até {@value #IN_LIST_CHUNK_SIZE} ids.
+     * Ids repetidos ou inexistentes são ignorados; a ordem do resultado não é garantida.
+     */
+    public List<User> findAllByKeycloakIds(Collection<String> keycloakIds) {
+        return listInChunks("id in ?1", keycloakIds);
+    }
+    
     public Optional<User> findByEmail(String email) {
         return find("email", email).firstResultOptional();
     }
     
+    /**
+     * Usuários com os emails informados (comparação exata), em consultas {@code IN} como
+     * {@link #findAllByKeycloakIds(Collection)}.
+     */
+    public List<User> findAllByEmails(Collection<String> emails) {
+        return listInChunks("email in ?1", emails);
+    }
+    
+    /**
+     * Todos os usuários com as roles já carregadas (uma consulta), para montar o diretório em memória.
+     */
+    public List<User> findAllWithRoles() {
+        return list("select distinct u from User u left join fetch u.roles");
+    }
+    
+    /**
+     * Usuários sincronizados a partir de {@code since} (inclusive), com as roles, via idx_users_cache_last_sync.
+     */
+    public List<User> findSyncedSince(Instant since) {
+        return list("select distinct u from User u left join fetch u.roles where u.lastSync >= ?1", since);
+    }
+    
+    private List<User> listInChunks(String query, Collection<String> values) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        distinct.removeIf(value -> value == null || value.isBlank());
+        if (distinct.isEmpty()) {
+            return List.of();
+        }
+        
+        List<User> users = new ArrayList<>(distinct.size());
+        for (int from = 0; from < distinct.size(); from += IN_LIST_CHUNK_SIZE) {
+            users.addAll(list(query, distinct.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, distinct.size()))));
+        }
+        return users;
+    }
+    
     public List<User> findUsersByRole(String role) {
-        // Correção: usar query JPQL correta
-        return find("rolesJson like ?1", "%\"" + role + "\"%").list();
+        return findUsersByRoles(List.of(role));
     }
     
     public List<User> findAdmins() {
-        // Correção: query mais simples
-        return find("""
-            rolesJson like ?1 or rolesJson like ?2 or rolesJson like ?3
-            """, "%\"admin\"%", "%\"notification-admin\"%", "%\"supervisor\"%")
-            .list();
-    }
-    
-    // Método alternativo usando PanacheQuery
-    public List<User> findAdminsAlternative() {
-        return list("FROM User u WHERE " +
-                   "u.rolesJson LIKE '%\"admin\"%' OR " +
-                   "u.rolesJson LIKE '%\"notification-admin\"%' OR " +
-                   "u.rolesJson LIKE '%\"supervisor\"%'");
+        return findUsersByRoles(ADMIN_ROLES);
+    }
+    
+    /**
+     * Usuários com pelo menos uma das roles, por seek no índice de {@code user_roles}.
+     */
+    public List<User> findUsersByRoles(Collection<String> roles) {
+        if (roles.isEmpty()) {
+            return List.of();
+        }
+        return list("id in (select u.id from User u join u.roles r where r in ?1)", roles);
     }
 }
\ No newline at end of file
@@ -0,0 +1,303 @@
+package com.apporte.core.service;
+
+import com.apporte.infrastructure.exception.ChannelSaturatedException;
+import com.apporte.infrastructure.exception.NotificationSendException;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pools de workers isolados por canal (email, whatsapp, sms, in_app).
+ * Cada canal tem fila e número de threads limitados, configuráveis em
+ * {@code notification.channels.<canal>.pool-size} e {@code notification.channels.<canal>.queue-capacity};
+ * uma sessão do Chrome travada ocupa apenas o pool do WhatsApp.
+ * <p>
+ * Com {@code notification.virtual-threads.enabled=true} cada envio roda em uma virtual thread própria;
+ * {@code pool-size} passa a limitar envios simultâneos do canal (por semáforo) em vez de threads de plataforma,
+ * e pode ser elevado para milhares sem aumentar o pool do sistema operacional.
+ */
+@ApplicationScoped
+public class ChannelWorkerPools {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(ChannelWorkerPools.class);
+    
+    private final Config config;
+    private final int defaultPoolSize;
+    private final int defaultQueueCapacity;
+    private final long retryAfterSeconds;
+    private final boolean virtualThreads;
+    private final Map<String, ChannelLane> pools = new ConcurrentHashMap<>();
+    
+    public ChannelWorkerPools(Config config,
+                              @ConfigProperty(name = "notification.channels.default.pool-size", defaultValue = "4") int defaultPoolSize,
+                              @ConfigProperty(name = "notification.channels.default.queue-capacity", defaultValue = "500") int defaultQueueCapacity,
+                              @ConfigProperty(name = "notification.channels.retry-after-seconds", defaultValue = "5") long retryAfterSeconds,
+                              @ConfigProperty(name = "notification.virtual-threads.enabled", defaultValue = "false") boolean virtualThreads) {
+        this.config = Objects.requireNonNull(config, "config cannot be null");
+        this.defaultPoolSize = defaultPoolSize;
+        this.defaultQueueCapacity = defaultQueueCapacity;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.virtualThreads = virtualThreads;
+    }
+    
+    /**
+     * Enfileira uma tarefa no pool do canal.
+     *
+     * @throws ChannelSaturatedException se a fila do canal estiver cheia
+     */
+    public void submit(String channel, Runnable task) {
+        Objects.requireNonNull(task, "task cannot be null");
+        
+        ChannelLane lane = poolFor(channel);
+        try {
+            lane.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (lane.isShutdown()) {
+                throw new NotificationSendException(channel, null, "Delivery pool for channel '" + channel + "' is shut down", e);
+            }
+            LOG.warn("Delivery queue for channel {} is full ({} queued)", channel, lane.queueDepth());
+            throw new ChannelSaturatedException(channel, retryAfterSeconds);
+        }
+    }
+    
+    /**
+     * Verifica antecipadamente se todos os canais ainda aceitam trabalho.
+     *
+     * @throws ChannelSaturatedException para o primeiro canal sem espaço na fila
+     */
+    public void ensureCapacity(Collection<String> channels) {
+        for (String channel : channels) {
+            if (!poolFor(channel).hasCapacity()) {
+                throw new ChannelSaturatedException(normalize(channel), retryAfterSeconds);
+            }
+        }
+    }
+    
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+    
+    public int getQueueDepth(String channel) {
+        return poolFor(channel).queueDepth();
+    }
+    
+    public int getActiveCount(String channel) {
+        return poolFor(channel).activeCount();
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        pools.forEach((channel, pool) -> {
+            pool.shutdown();
+            try {
+                if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                    LOG.warn("Delivery pool for channel {} did not terminate, {} tasks dropped", 
+                             channel, pool.shutdownNow());
+                }
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+    
+    private ChannelLane poolFor(String channel) {
+        return pools.computeIfAbsent(normalize(channel), this::createPool);
+    }
+    
+    private ChannelLane createPool(String channel) {
+        int poolSize = config.getOptionalValue("notification.channels." + channel + ".pool-size", Integer.class)
+                .orElse(defaultPoolSize);
+        int queueCapacity = config.getOptionalValue("notification.channels." + channel + ".queue-capacity", Integer.class)
+                .orElse(defaultQueueCapacity);
+        
+        if (virtualThreads) {
+            LOG.info("Created virtual-thread delivery lane for channel {}: {} concurrent sends, queue capacity {}", 
+                     channel, poolSize, queueCapacity);
+            return new VirtualThreadLane(channel, poolSize, queueCapacity);
+        }
+        
+        LOG.info("Created delivery pool for channel {}: {} workers, queue capacity {}", channel, poolSize, queueCapacity);
+        return new PlatformThreadLane(channel, poolSize, queueCapacity);
+    }
+    
+    private static String normalize(String channel) {
+        return Objects.requireNonNull(channel, "channel cannot be null").trim().toLowerCase();
+    }
+    
+    /**
+     * Executor de um canal; rejeita com {@link RejectedExecutionException} quando não há espaço.
+     */
+    private interface ChannelLane {
+        void execute(Runnable task);
+        boolean hasCapacity();
+        int queueDepth();
+        int activeCount();
+        boolean isShutdown();
+        void shutdown();
+        boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+        /** @return número de tarefas descartadas */
+        int shutdownNow();
+    }
+    
+    private static final class PlatformThreadLane implements ChannelLane {
+        
+        private final ThreadPoolExecutor pool;
+        
+        PlatformThreadLane(String channel, int poolSize, int queueCapacity) {
+            AtomicInteger threadCounter = new AtomicInteger();
+            this.pool = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "notification-" + channel + "-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+            );
+            this.pool.allowCoreThreadTimeOut(true);
+        }
+        
+        @Override
+        public void execute(Runnable task) {
+            pool.execute(task);
+        }
+        
+        @Override
+        public boolean hasCapacity() {
+            return pool.getQueue().remainingCapacity() > 0;
+        }
+        
+        @Override
+        public int queueDepth() {
+            return pool.getQueue().size();
+        }
+        
+        @Override
+        public int activeCount() {
+            return pool.getActiveCount();
+        }
+        
+        @Override
+        public boolean isShutdown() {
+            return pool.isShutdown();
+        }
+        
+        @Override
+        public void shutdown() {
+            pool.shutdown();
+        }
+        
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return pool.awaitTermination(timeout, unit);
+        }
+        
+        @Override
+        public int shutdownNow() {
+            return pool.shutdownNow().size();
+        }
+    }
+    
+    /**
+     * Uma virtual thread por envio. {@code admission} limita tarefas aceitas (em execução + aguardando)
+     * e {@code running} limita envios simultâneos; as que aguardam ficam estacionadas sem ocupar carrier thread.
+     */
+    private static final class VirtualThreadLane implements ChannelLane {
+        
+        private final ExecutorService executor;
+        private final Semaphore admission;
+        private final Semaphore running;
+        private final int capacity;
+        private final int concurrency;
+        
+        VirtualThreadLane(String channel, int concurrency, int queueCapacity) {
+            this.executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("notification-" + channel + "-vt-", 1).factory());
+            this.concurrency = concurrency;
+            this.capacity = concurrency + queueCapacity;
+            this.admission = new Semaphore(capacity);
+            this.running = new Semaphore(concurrency, true);
+        }
+        
+        @Override
+        public void execute(Runnable task) {
+            if (!admission.tryAcquire()) {
+                throw new RejectedExecutionException("Channel lane is full");
+            }
+            
+            try {
+                executor.execute(() -> {
+                    try {
+                        running.acquire();
+                        try {
+                            task.run();
+                        } finally {
+                            running.release();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        admission.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                admission.release();
+                throw e;
+            }
+        }
+        
+        @Override
+        public boolean hasCapacity() {
+            return admission.availablePermits() > 0;
+        }
+        
+        @Override
+        public int queueDepth() {
+            return Math.max(0, capacity - admission.availablePermits() - activeCount());
+        }
+        
+        @Override
+        public int activeCount() {
+            return concurrency - running.availablePermits();
+        }
+        
+        @Override
+        public boolean isShutdown() {
+            return executor.isShutdown();
+        }
+        
+        @Override
+        public void shutdown() {
+            executor.shutdown();
+        }
+        
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return executor.awaitTermination(timeout, unit);
+        }
+        
+        @Override
+        public int shutdownNow() {
+            return executor.shutdownNow().size();
+        }
+    }
+}
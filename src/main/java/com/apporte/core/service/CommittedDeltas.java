@@ -0,0 +1,59 @@
+package com.apporte.core.service;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Acumula deltas por chave durante a transação corrente e os entrega a {@code onCommit}
+ * só depois do commit; em rollback, são descartados. Fora de transação, entrega na hora.
+ */
+final class CommittedDeltas<K> {
+    
+    private final TransactionSynchronizationRegistry transactionRegistry;
+    private final Consumer<Map<K, Long>> onCommit;
+    private final Object resourceKey = new Object();
+    
+    CommittedDeltas(TransactionSynchronizationRegistry transactionRegistry, Consumer<Map<K, Long>> onCommit) {
+        this.transactionRegistry = Objects.requireNonNull(transactionRegistry, "transactionRegistry cannot be null");
+        this.onCommit = Objects.requireNonNull(onCommit, "onCommit cannot be null");
+    }
+    
+    void add(K key, long delta) {
+        if (transactionRegistry.getTransactionStatus() == Status.STATUS_NO_TRANSACTION) {
+            onCommit.accept(Map.of(key, delta));
+            return;
+        }
+        
+        currentTransactionDeltas().merge(key, delta, Long::sum);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<K, Long> currentTransactionDeltas() {
+        Map<K, Long> deltas = (Map<K, Long>) transactionRegistry.getResource(resourceKey);
+        if (deltas != null) {
+            return deltas;
+        }
+        
+        Map<K, Long> created = new HashMap<>();
+        transactionRegistry.putResource(resourceKey, created);
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    onCommit.accept(created);
+                }
+            }
+        });
+        return created;
+    }
+}
@@ -1,22 +1,35 @@
 package com.apporte.core.service;
 
+import com.apporte.infrastructure.client.KeycloakAdminClient;
+import com.apporte.infrastructure.client.KeycloakTokenClient;
 import com.apporte.infrastructure.client.dto.KeycloakTokenResponse;
 import com.apporte.infrastructure.client.dto.KeycloakUserResponse;
+import io.quarkus.rest.client.reactive.QuarkusRestClientBuilder;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.ws.rs.client.Client;
-import jakarta.ws.rs.client.ClientBuilder;
-import jakarta.ws.rs.client.Entity;
-import jakarta.ws.rs.core.Form;
-import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.client.api.QuarkusRestClientProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Acesso à API admin do Keycloak.
+ * <p>
+ * Os clientes REST (admin e token) são criados uma vez e reaproveitados: conexões ficam abertas
+ * (keep-alive) num pool de até {@code app.keycloak.admin.connection-pool-size}, com HTTP/2 quando o
+ * servidor aceita ({@code app.keycloak.admin.http2}), e cada chamada respeita
+ * {@code app.keycloak.admin.connect-timeout} e {@code app.keycloak.admin.read-timeout}.
+ */
 @ApplicationScoped
 public class KeycloakService {
     
@@ -26,19 +39,30 @@ public class KeycloakService {
     private final String adminUsername;
     private final String adminPassword;
     private final String clientId;
+    private final KeycloakAdminClient adminClient;
+    private final KeycloakTokenClient tokenClient;
     
-    private KeycloakTokenResponse cachedToken;
-    private long tokenExpiry;
+    // Lido e gravado por threads de envio e de atualização em segundo plano
+    private volatile KeycloakTokenResponse cachedToken;
+    private volatile long tokenExpiry;
     
     public KeycloakService(
             @ConfigProperty(name = "app.keycloak.admin.server-url") String keycloakAdminUrl,
             @ConfigProperty(name = "app.keycloak.admin.username") String adminUsername,
             @ConfigProperty(name = "app.keycloak.admin.password") String adminPassword,
-            @ConfigProperty(name = "app.keycloak.admin.client-id", defaultValue = "admin-cli") String clientId) {
+            @ConfigProperty(name = "app.keycloak.admin.client-id", defaultValue = "admin-cli") String clientId,
+            @ConfigProperty(name = "app.keycloak.admin.connection-pool-size", defaultValue = "20") int connectionPoolSize,
+            @ConfigProperty(name = "app.keycloak.admin.connect-timeout", defaultValue = "2s") Duration connectTimeout,
+            @ConfigProperty(name = "app.keycloak.admin.read-timeout", defaultValue = "5s") Duration readTimeout,
+            @ConfigProperty(name = "app.keycloak.admin.http2", defaultValue = "true") boolean http2) {
         this.keycloakAdminUrl = keycloakAdminUrl;
         this.adminUsername = adminUsername;
         this.adminPassword = adminPassword;
         this.clientId = clientId;
+        
+        String tokenUrl = keycloakAdminUrl.replace("/admin/", "/protocol/openid-connect/token");
+        this.adminClient = client(KeycloakAdminClient.class, keycloakAdminUrl, connectionPoolSize, connectTimeout, readTimeout, http2);
+        this.tokenClient = client(KeycloakTokenClient.class, tokenUrl, connectionPoolSize, connectTimeout, readTimeout, http2);
     }
     
     public Optional<KeycloakUserResponse> getUserById(String userId) {
@@ -49,12 +73,7 @@ public class KeycloakService {
             return Optional.empty();
         }
         
-        try (Client client = ClientBuilder.newClient()) {
-            Response response = client.target(keycloakAdminUrl + "/users/" + userId)
-                    .request(MediaType.APPLICATION_JSON)
-                    .header("Authorization", "Bearer " + token)
-                    .get();
-            
+        try (Response response = adminClient.getUser(userId, "Bearer " + token)) {
             if (response.getStatus() == 200) {
                 KeycloakUserResponse user = response.readEntity(KeycloakUserResponse.class);
                 return Optional.ofNullable(user);
@@ -100,18 +119,7 @@ public class KeycloakService {
             return cachedToken.accessToken();
         }
         
-        try (Client client = ClientBuilder.newClient()) {
-            Form form = new Form()
-                    .param("client_id", clientId)
-                    .param("username", adminUsername)
-                    .param("password", adminPassword)
-                    .param("grant_type", "password");
-            
-            String tokenUrl = keycloakAdminUrl.replace("/admin/", "/protocol/openid-connect/token");
-            Response response = client.target(tokenUrl)
-                    .request(MediaType.APPLICATION_FORM_URLENCODED)
-                    .post(Entity.form(form));
-            
+        try (Response response = tokenClient.token(clientId, adminUsername, adminPassword, "password")) {
             if (response.getStatus() == 200) {
                 KeycloakTokenResponse tokenResponse = response.readEntity(KeycloakTokenResponse.class);
                 
@@ -139,6 +147,35 @@ public class KeycloakService {
         return null;
     }
     
+    @PreDestroy
+    void close() {
+        closeQuietly(adminClient);
+        closeQuietly(tokenClient);
+    }
+    
+    private static <T> T client(Class<T> type, String url, int connectionPoolSize, Duration connectTimeout,
+                                Duration readTimeout, boolean http2) {
+        return QuarkusRestClientBuilder.newBuilder()
+                .baseUri(URI.create(url))
+                .connectTimeout(connectTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .property(QuarkusRestClientProperties.CONNECTION_POOL_SIZE, connectionPoolSize)
+                .property(QuarkusRestClientProperties.KEEP_ALIVE_ENABLED, true)
+                .property(QuarkusRestClientProperties.HTTP2, http2)
+                .property(QuarkusRestClientProperties.ALPN, http2)
+                // Status de erro chegam como Response, tratados pelo chamador
+                .disableDefaultMapper(true)
+                .build(type);
+    }
+    
+    private static void closeQuietly(Closeable client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            LOG.debug("Error closing Keycloak client: {}", e.getMessage());
+        }
+    }
+    
     // Método para limpar cache (útil para testes ou quando o token é revogado)
     public void clearTokenCache() {
         cachedToken = null;
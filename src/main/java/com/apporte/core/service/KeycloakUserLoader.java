@@ -0,0 +1,157 @@
+package com.apporte.core.service;
+
+import com.apporte.infrastructure.client.dto.KeycloakUserResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Busca de usuários no Keycloak com uma chamada por id de cada vez (single-flight): pedidos concorrentes
+ * pelo mesmo id esperam a chamada em andamento em vez de repeti-la.
+ * <p>
+ * Ids não encontrados e falhas ficam no {@code keycloak-user-negative-cache} (TTL curto) e não são
+ * consultados de novo até expirarem. {@link #refreshAsync} atualiza usuários desatualizados em segundo
+ * plano, em até {@code notification.keycloak.refresh-concurrency} chamadas simultâneas; com a fila cheia
+ * a atualização é descartada e tentada na próxima resolução.
+ */
+@ApplicationScoped
+public class KeycloakUserLoader {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(KeycloakUserLoader.class);
+    
+    private static final int REFRESH_QUEUE_CAPACITY = 1000;
+    
+    private final KeycloakService keycloakService;
+    private final CaffeineCache negativeCache;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<KeycloakUserResponse>>> inFlight = new ConcurrentHashMap<>();
+    
+    private final Counter fetched = lookups("fetched");
+    private final Counter coalesced = lookups("coalesced");
+    private final Counter negative = lookups("negative");
+    
+    public KeycloakUserLoader(KeycloakService keycloakService,
+                              @CacheName("keycloak-user-negative-cache") Cache negativeCache,
+                              @ConfigProperty(name = "notification.keycloak.refresh-concurrency", defaultValue = "4") int refreshConcurrency) {
+        this.keycloakService = Objects.requireNonNull(keycloakService, "keycloakService cannot be null");
+        this.negativeCache = Objects.requireNonNull(negativeCache, "negativeCache cannot be null").as(CaffeineCache.class);
+        
+        if (refreshConcurrency <= 0) {
+            throw new IllegalArgumentException("notification.keycloak.refresh-concurrency must be positive: " + refreshConcurrency);
+        }
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(refreshConcurrency, refreshConcurrency, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(REFRESH_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "keycloak-refresh-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+    }
+    
+    /**
+     * Usuário do Keycloak, esperando a chamada em andamento para o mesmo id se houver uma.
+     * Vazio se o id não existe, se a chamada falhou ou se um dos dois aconteceu há pouco (cache negativo).
+     */
+    public Optional<KeycloakUserResponse> load(String userId) {
+        Objects.requireNonNull(userId, "userId cannot be null");
+        if (isNegative(userId)) {
+            return Optional.empty();
+        }
+        
+        CompletableFuture<Optional<KeycloakUserResponse>> flight = new CompletableFuture<>();
+        CompletableFuture<Optional<KeycloakUserResponse>> existing = inFlight.putIfAbsent(userId, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.join();
+        }
+        
+        fetch(userId, flight);
+        return flight.join();
+    }
+    
+    /**
+     * Busca o usuário em segundo plano e entrega o resultado a {@code onLoaded} (na thread da busca).
+     *
+     * @return false se já há uma busca em andamento para o id, se ele está no cache negativo ou se a
+     *         fila de atualizações está cheia; nesses casos {@code onLoaded} não é chamado
+     */
+    public boolean refreshAsync(String userId, Consumer<Optional<KeycloakUserResponse>> onLoaded) {
+        Objects.requireNonNull(userId, "userId cannot be null");
+        Objects.requireNonNull(onLoaded, "onLoaded cannot be null");
+        if (isNegative(userId)) {
+            return false;
+        }
+        
+        CompletableFuture<Optional<KeycloakUserResponse>> flight = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(userId, flight) != null) {
+            coalesced.increment();
+            return false;
+        }
+        
+        try {
+            refreshExecutor.execute(() -> {
+                fetch(userId, flight);
+                onLoaded.accept(flight.join());
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Keycloak refresh queue is full, skipping refresh of user {}", userId);
+            inFlight.remove(userId, flight);
+            flight.complete(Optional.empty());
+            return false;
+        }
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+    
+    private void fetch(String userId, CompletableFuture<Optional<KeycloakUserResponse>> flight) {
+        Optional<KeycloakUserResponse> user = Optional.empty();
+        try {
+            fetched.increment();
+            user = keycloakService.getUserById(userId);
+        } catch (RuntimeException e) {
+            LOG.warn("Error fetching user {} from Keycloak: {}", userId, e.getMessage());
+        } finally {
+            if (user.isEmpty()) {
+                negativeCache.put(userId, CompletableFuture.completedFuture(Boolean.TRUE));
+            }
+            // Sai do mapa antes de completar: quem chegar depois já vê o cache negativo ou inicia outra busca
+            inFlight.remove(userId, flight);
+            flight.complete(user);
+        }
+    }
+    
+    private boolean isNegative(String userId) {
+        if (negativeCache.getIfPresent(userId) != null) {
+            negative.increment();
+            return true;
+        }
+        return false;
+    }
+    
+    private static Counter lookups(String outcome) {
+        return Metrics.globalRegistry.counter("notification.keycloak.user.lookups", "outcome", outcome);
+    }
+}
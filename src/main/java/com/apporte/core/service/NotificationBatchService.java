@@ -0,0 +1,344 @@
+package com.apporte.core.service;
+
+import com.apporte.api.dto.WorkflowNotificationRequest;
+import com.apporte.core.model.Notification;
+import com.apporte.infrastructure.exception.ChannelSaturatedException;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processamento de lotes de notificações (POST /api/notifications/batch).
+ * Resolve destinatários do lote inteiro de uma vez, grava todas as linhas em uma única transação
+ * e distribui a entrega em paralelo pelos pools de canal, com limite de concorrência por lote
+ * ({@code notification.batch.concurrency}). Itens rejeitados na gravação voltam como erro no resultado,
+ * sem afetar os demais; com a fila de um canal cheia o lote espera vaga em vez de falhar a notificação.
+ * No modo inline as linhas ficam reivindicadas por este nó, com o lease renovado pelo heartbeat do
+ * {@link NotificationDispatcher} durante a entrega; se o nó cair, o polling do dispatcher as recupera.
+ */
+@ApplicationScoped
+public class NotificationBatchService {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationBatchService.class);
+    
+    private static final long MIN_SATURATION_BACKOFF_MILLIS = 10;
+    private static final long SHUTDOWN_GRACE_SECONDS = 10;
+    
+    public static final String ITEM_SUCCESS = "success";
+    public static final String ITEM_QUEUED = "queued";
+    public static final String ITEM_ERROR = "error";
+    
+    private final NotificationService notificationService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final ChannelWorkerPools channelWorkerPools;
+    private final int concurrency;
+    private final ExecutorService asyncRunner;
+    
+    private volatile boolean stopping;
+    
+    public NotificationBatchService(NotificationService notificationService,
+                                    NotificationDispatcher notificationDispatcher,
+                                    ChannelWorkerPools channelWorkerPools,
+                                    @ConfigProperty(name = "notification.batch.concurrency", defaultValue = "16") int concurrency) {
+        this.notificationService = Objects.requireNonNull(notificationService, "notificationService cannot be null");
+        this.notificationDispatcher = Objects.requireNonNull(notificationDispatcher, "notificationDispatcher cannot be null");
+        this.channelWorkerPools = Objects.requireNonNull(channelWorkerPools, "channelWorkerPools cannot be null");
+        
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("notification.batch.concurrency must be positive: " + concurrency);
+        }
+        this.concurrency = concurrency;
+        
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.asyncRunner = channelWorkerPools.isVirtualThreads()
+            ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("notification-batch-", 1).factory())
+            : Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "notification-batch-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+    
+    /**
+     * Processa o lote e aguarda a entrega (modo inline) ou o envio aos pools (modo outbox).
+     */
+    public BatchResult process(List<WorkflowNotificationRequest> requests, String requestedBy) {
+        String batchId = UUID.randomUUID().toString();
+        List<NotificationService.EnqueuedItem> enqueued = enqueue(requests, batchId, requestedBy);
+        
+        if (notificationService.isOutboxMode()) {
+            notificationDispatcher.dispatchClaimed(flatten(enqueued));
+            return toResult(batchId, requests, enqueued, null);
+        }
+        
+        notificationDispatcher.trackInFlight(ids(flatten(enqueued)));
+        List<List<CompletableFuture<String>>> outcomes = deliverInline(notificationsOf(enqueued));
+        notificationService.completeBatchIfFinished(batchId);
+        return toResult(batchId, requests, enqueued, outcomes);
+    }
+    
+    /**
+     * Grava o lote e devolve imediatamente; a entrega continua em segundo plano.
+     * O progresso pode ser acompanhado pelo {@code batchId} retornado (GET /batch/{jobId}).
+     */
+    public BatchResult submit(List<WorkflowNotificationRequest> requests, String requestedBy) {
+        String batchId = UUID.randomUUID().toString();
+        List<NotificationService.EnqueuedItem> enqueued = enqueue(requests, batchId, requestedBy);
+        
+        if (notificationService.isOutboxMode()) {
+            notificationDispatcher.dispatchClaimed(flatten(enqueued));
+        } else {
+            notificationDispatcher.trackInFlight(ids(flatten(enqueued)));
+            asyncRunner.execute(() -> {
+                deliverInline(notificationsOf(enqueued));
+                notificationService.completeBatchIfFinished(batchId);
+                LOG.info("Batch {} delivery finished", batchId);
+            });
+        }
+        
+        return toResult(batchId, requests, enqueued, null);
+    }
+    
+    /**
+     * Entrega em segundo plano as notificações pendentes de um lote já gravado (ex.: ingest NDJSON),
+     * lendo do banco uma página por vez em vez de manter o lote em memória.
+     * No modo outbox não faz nada: o dispatcher já drena as linhas pendentes.
+     */
+    public void drainAsync(String batchId, int pageSize) {
+        if (notificationService.isOutboxMode()) {
+            return;
+        }
+        
+        asyncRunner.execute(() -> {
+            List<Notification> claimed;
+            while (!stopping && !(claimed = notificationService.claimBatchPage(batchId, notificationDispatcher.getNodeId(),
+                                                                              pageSize, notificationDispatcher.getLease())).isEmpty()) {
+                notificationDispatcher.trackInFlight(ids(claimed));
+                deliverInline(List.of(claimed));
+            }
+            notificationService.completeBatchIfFinished(batchId);
+            LOG.info("Batch {} delivery finished", batchId);
+        });
+    }
+    
+    /**
+     * Para de enviar: o que ainda não foi aos pools é liberado para o polling do dispatcher (deste ou de
+     * outro nó) e os envios em andamento têm até {@value #SHUTDOWN_GRACE_SECONDS}s para terminar; o que
+     * sobrar volta a ser elegível quando o lease expirar.
+     */
+    @PreDestroy
+    void shutdown() {
+        stopping = true;
+        asyncRunner.shutdown();
+        try {
+            if (!asyncRunner.awaitTermination(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("Batch deliveries still running after {}s; their claims will be recovered when the lease expires",
+                         SHUTDOWN_GRACE_SECONDS);
+                asyncRunner.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            asyncRunner.shutdownNow();
+        }
+    }
+    
+    private List<NotificationService.EnqueuedItem> enqueue(List<WorkflowNotificationRequest> requests, String batchId, String requestedBy) {
+        Objects.requireNonNull(requests, "requests cannot be null");
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch cannot be empty");
+        }
+        
+        LOG.info("Processing batch {} with {} requests", batchId, requests.size());
+        return notificationService.enqueueBatch(requests, batchId, requestedBy,
+                notificationDispatcher.getNodeId(), notificationDispatcher.getLease());
+    }
+    
+    /**
+     * Modo inline: envia pelos pools de canal, no máximo {@code concurrency} envios do lote ao mesmo tempo.
+     * Fila de canal cheia é pressão passageira: o lote espera vaga ({@link #submitWhenAccepted}) em vez de
+     * marcar a notificação como erro.
+     *
+     * @return por requisição, futuros com a mensagem de erro de cada notificação (null = enviada)
+     */
+    private List<List<CompletableFuture<String>>> deliverInline(List<List<Notification>> enqueued) {
+        Semaphore permits = new Semaphore(concurrency);
+        List<List<CompletableFuture<String>>> outcomes = new ArrayList<>(enqueued.size());
+        
+        for (List<Notification> notifications : enqueued) {
+            List<CompletableFuture<String>> itemOutcomes = new ArrayList<>(notifications.size());
+            
+            for (Notification notification : notifications) {
+                CompletableFuture<String> outcome = new CompletableFuture<>();
+                itemOutcomes.add(outcome);
+                
+                if (stopping) {
+                    outcome.complete(release(notification));
+                    continue;
+                }
+                
+                permits.acquireUninterruptibly();
+                try {
+                    submitWhenAccepted(notification.getChannel().value(), () -> {
+                        try {
+                            outcome.complete(deliver(notification));
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    permits.release();
+                    outcome.complete(release(notification));
+                } catch (RuntimeException e) {
+                    permits.release();
+                    outcome.complete(record(notification, e.getMessage()));
+                }
+            }
+            
+            outcomes.add(itemOutcomes);
+        }
+        
+        outcomes.forEach(itemOutcomes -> itemOutcomes.forEach(CompletableFuture::join));
+        return outcomes;
+    }
+    
+    /**
+     * Envia ao pool do canal, esperando com backoff exponencial (até o Retry-After do canal) enquanto a
+     * fila estiver cheia.
+     *
+     * @throws InterruptedException se a espera for interrompida (ex.: desligamento)
+     */
+    private void submitWhenAccepted(String channel, Runnable task) throws InterruptedException {
+        long backoffMillis = MIN_SATURATION_BACKOFF_MILLIS;
+        while (true) {
+            try {
+                channelWorkerPools.submit(channel, task);
+                return;
+            } catch (ChannelSaturatedException e) {
+                LOG.debug("Delivery queue for channel {} is full; batch waits {} ms", channel, backoffMillis);
+                Thread.sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2,
+                                         Math.max(MIN_SATURATION_BACKOFF_MILLIS, e.getRetryAfterSeconds() * 1000));
+            }
+        }
+    }
+    
+    /**
+     * Devolve a notificação não enviada para 'pending' (libera o claim) em vez de registrar erro.
+     */
+    private String release(Notification notification) {
+        String message = "Delivery interrupted before notification was sent";
+        try {
+            notificationService.releaseClaims(notificationDispatcher.getNodeId(), List.of(notification.getId()));
+        } catch (Exception e) {
+            LOG.error("Failed to release claim of notification {}: {}", notification.getId(), e.getMessage(), e);
+        } finally {
+            notificationDispatcher.untrackInFlight(notification.getId());
+        }
+        return message;
+    }
+    
+    private String deliver(Notification notification) {
+        String errorMessage = null;
+        try {
+            notificationService.deliverNotification(notification);
+        } catch (Exception e) {
+            errorMessage = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            LOG.warn("Batch notification {} failed via {}: {}",
+                     notification.getId(), notification.getChannel(), errorMessage);
+        }
+        return record(notification, errorMessage);
+    }
+    
+    private String record(Notification notification, String errorMessage) {
+        try {
+            notificationService.recordDeliveryResult(notification.getId(), notificationDispatcher.getNodeId(),
+                                                     errorMessage, null);
+        } catch (Exception e) {
+            LOG.error("Failed to record delivery result for notification {}: {}",
+                      notification.getId(), e.getMessage(), e);
+        } finally {
+            notificationDispatcher.untrackInFlight(notification.getId());
+        }
+        return errorMessage;
+    }
+    
+    private BatchResult toResult(String batchId, List<WorkflowNotificationRequest> requests,
+                                 List<NotificationService.EnqueuedItem> enqueued, List<List<CompletableFuture<String>>> outcomes) {
+        List<ItemResult> items = new ArrayList<>(requests.size());
+        
+        for (int i = 0; i < requests.size(); i++) {
+            WorkflowNotificationRequest request = requests.get(i);
+            NotificationService.EnqueuedItem item = enqueued.get(i);
+            int notifications = item.notifications().size();
+            
+            if (item.isFailed()) {
+                items.add(new ItemResult(request.eventType(), request.entityId(), ITEM_ERROR, 0, 0, item.error()));
+                continue;
+            }
+            
+            if (outcomes == null) {
+                items.add(new ItemResult(request.eventType(), request.entityId(), ITEM_QUEUED, notifications, 0, null));
+                continue;
+            }
+            
+            int failed = 0;
+            String firstError = null;
+            for (CompletableFuture<String> outcome : outcomes.get(i)) {
+                String error = outcome.join();
+                if (error != null) {
+                    failed++;
+                    firstError = firstError != null ? firstError : error;
+                }
+            }
+            
+            String status = notifications > 0 && failed == notifications ? ITEM_ERROR : ITEM_SUCCESS;
+            items.add(new ItemResult(request.eventType(), request.entityId(),
+                                     status, notifications, failed, firstError));
+        }
+        
+        return new BatchResult(batchId, items);
+    }
+    
+    private static List<List<Notification>> notificationsOf(List<NotificationService.EnqueuedItem> enqueued) {
+        return enqueued.stream().map(NotificationService.EnqueuedItem::notifications).toList();
+    }
+    
+    private static List<Long> ids(List<Notification> notifications) {
+        return notifications.stream().map(Notification::getId).toList();
+    }
+    
+    private static List<Notification> flatten(List<NotificationService.EnqueuedItem> enqueued) {
+        List<Notification> all = new ArrayList<>();
+        enqueued.forEach(item -> all.addAll(item.notifications()));
+        return all;
+    }
+    
+    /**
+     * Resultado de um item do lote: {@code error} quando o item foi rejeitado na gravação (sem notificações)
+     * ou todas as suas notificações falharam; falhas parciais ficam registradas em {@code failed} e {@code error}.
+     */
+    public record ItemResult(String eventType, String recipientId, String status,
+                             int notifications, int failed, String error) {
+    }
+    
+    public record BatchResult(String batchId, List<ItemResult> items) {
+        
+        public long count(String status) {
+            return items.stream().filter(item -> item.status().equals(status)).count();
+        }
+    }
+}
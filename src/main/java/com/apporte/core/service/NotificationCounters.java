@@ -0,0 +1,206 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.Notification;
+import com.apporte.core.repository.NotificationRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores em memória de {@code notifications} por (status, canal) e uma janela deslizante de
+ * transições por minuto, para o health check e estatísticas rápidas sem consultar a tabela.
+ * <p>
+ * Semeados uma vez na partida com um GROUP BY e mantidos pelas transições confirmadas
+ * ({@link NotificationStatsListener}). A reconciliação opcional
+ * ({@code notification.counters.reconcile-interval}) corrige desvios, como deletes em massa
+ * feitos fora do serviço ou transições de outros nós.
+ */
+@ApplicationScoped
+public class NotificationCounters {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationCounters.class);
+    
+    /** Pseudo-status da janela deslizante: notificações criadas. */
+    public static final String CREATED = "created";
+    
+    private final NotificationRepository notificationRepository;
+    private final int windowMinutes;
+    private final ConcurrentHashMap<CounterKey, LongAdder> totals = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<MinuteBucket> ring;
+    private final CommittedDeltas<CounterKey> committedDeltas;
+    
+    public NotificationCounters(NotificationRepository notificationRepository,
+                                TransactionSynchronizationRegistry transactionRegistry,
+                                @ConfigProperty(name = "notification.counters.window-minutes", defaultValue = "60") int windowMinutes) {
+        this.notificationRepository = Objects.requireNonNull(notificationRepository, "notificationRepository cannot be null");
+        
+        if (windowMinutes <= 0) {
+            throw new IllegalArgumentException("notification.counters.window-minutes must be positive: " + windowMinutes);
+        }
+        this.windowMinutes = windowMinutes;
+        this.ring = new AtomicReferenceArray<>(windowMinutes);
+        this.committedDeltas = new CommittedDeltas<>(transactionRegistry, this::onCommit);
+    }
+    
+    void onStart(@Observes StartupEvent event) {
+        reconcile();
+    }
+    
+    /**
+     * Registra a mudança de status de uma notificação ({@code from} null para uma notificação nova).
+     */
+    public void recordTransition(Notification notification, String from, String to) {
+        if (from == null) {
+            committedDeltas.add(new CounterKey(CREATED, notification.getChannel().value()), 1L);
+        } else {
+            committedDeltas.add(new CounterKey(from, notification.getChannel().value()), -1L);
+        }
+        committedDeltas.add(new CounterKey(to, notification.getChannel().value()), 1L);
+    }
+    
+    /**
+     * Registra a remoção de {@code count} notificações no status e canal informados.
+     */
+    public void recordRemoval(String status, String channel, long count) {
+        committedDeltas.add(new CounterKey(status, channel), -count);
+    }
+    
+    public long total() {
+        long total = 0;
+        for (Map.Entry<CounterKey, LongAdder> entry : totals.entrySet()) {
+            total += entry.getValue().sum();
+        }
+        return total;
+    }
+    
+    public long countByStatus(String status) {
+        long count = 0;
+        for (Map.Entry<CounterKey, LongAdder> entry : totals.entrySet()) {
+            if (entry.getKey().status().equals(status)) {
+                count += entry.getValue().sum();
+            }
+        }
+        return count;
+    }
+    
+    public Map<String, Long> countByChannel() {
+        Map<String, Long> byChannel = new HashMap<>();
+        totals.forEach((key, adder) -> byChannel.merge(key.channel(), adder.sum(), Long::sum));
+        byChannel.values().removeIf(count -> count <= 0);
+        return byChannel;
+    }
+    
+    /**
+     * Transições para {@code status} (ou {@link #CREATED}) nos últimos {@link #getWindowMinutes()} minutos.
+     */
+    public long recent(String status) {
+        long oldest = currentMinute() - windowMinutes;
+        long count = 0;
+        for (int i = 0; i < ring.length(); i++) {
+            MinuteBucket bucket = ring.get(i);
+            if (bucket != null && bucket.minute > oldest) {
+                LongAdder adder = bucket.byStatus.get(status);
+                count += adder != null ? adder.sum() : 0;
+            }
+        }
+        return count;
+    }
+    
+    public int getWindowMinutes() {
+        return windowMinutes;
+    }
+    
+    /**
+     * Recalcula os totais a partir do banco (um GROUP BY) e corrige a diferença.
+     */
+    @Scheduled(every = "${notification.counters.reconcile-interval:off}", 
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void reconcile() {
+        Map<String, Map<String, Long>> actual;
+        try {
+            actual = QuarkusTransaction.requiringNew().call(() -> notificationRepository.countByStatusAndChannel("1=1"));
+        } catch (Exception e) {
+            LOG.warn("Could not load notification counters from the database: {}", e.getMessage());
+            return;
+        }
+        
+        Set<CounterKey> keys = new HashSet<>(totals.keySet());
+        actual.forEach((status, byChannel) -> byChannel.keySet().forEach(channel -> keys.add(new CounterKey(status, channel))));
+        
+        long drift = 0;
+        for (CounterKey key : keys) {
+            long expected = actual.getOrDefault(key.status(), Map.of()).getOrDefault(key.channel(), 0L);
+            LongAdder adder = totals.computeIfAbsent(key, ignored -> new LongAdder());
+            long difference = expected - adder.sum();
+            if (difference != 0) {
+                adder.add(difference);
+                drift += Math.abs(difference);
+            }
+        }
+        
+        if (drift > 0) {
+            LOG.info("Notification counters reconciled with the database (drift of {})", drift);
+        }
+    }
+    
+    private void onCommit(Map<CounterKey, Long> deltas) {
+        MinuteBucket bucket = bucketFor(currentMinute());
+        
+        deltas.forEach((key, delta) -> {
+            if (!CREATED.equals(key.status())) {
+                totals.computeIfAbsent(key, ignored -> new LongAdder()).add(delta);
+            }
+            if (delta > 0) {
+                bucket.byStatus.computeIfAbsent(key.status(), ignored -> new LongAdder()).add(delta);
+            }
+        });
+    }
+    
+    private MinuteBucket bucketFor(long minute) {
+        int index = (int) (minute % ring.length());
+        while (true) {
+            MinuteBucket current = ring.get(index);
+            if (current != null && current.minute == minute) {
+                return current;
+            }
+            
+            MinuteBucket fresh = new MinuteBucket(minute);
+            if (ring.compareAndSet(index, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+    
+    private static long currentMinute() {
+        return Instant.now().getEpochSecond() / 60;
+    }
+    
+    private record CounterKey(String status, String channel) {
+    }
+    
+    private static final class MinuteBucket {
+        
+        private final long minute;
+        private final ConcurrentHashMap<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+        
+        private MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.apporte.core.service;
+
+import com.apporte.api.dto.WorkflowNotificationRequest;
+import com.apporte.core.model.Notification;
+import com.apporte.infrastructure.exception.ChannelSaturatedException;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dispatcher do modo outbox, seguro para múltiplas réplicas.
+ * Cada nó reivindica lotes de notificações pending/retrying com FOR UPDATE SKIP LOCKED e
+ * um lease renovado por heartbeat; linhas de um nó que caiu voltam a ser elegíveis
+ * quando o lease expira. A entrega em si roda nos pools isolados de {@link ChannelWorkerPools}.
+ * No modo inline o polling também roda, recuperando linhas de lotes cujo nó caiu ou que foram
+ * liberadas, e as novas tentativas agendadas.
+ */
+@ApplicationScoped
+public class NotificationDispatcher {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationDispatcher.class);
+    
+    private final NotificationService notificationService;
+    private final ChannelWorkerPools channelWorkerPools;
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final String nodeId;
+    
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Set<String> touchedBatches = ConcurrentHashMap.newKeySet();
+    
+    public NotificationDispatcher(NotificationService notificationService,
+                                  ChannelWorkerPools channelWorkerPools,
+                                  @ConfigProperty(name = "notification.outbox.batch-size", defaultValue = "100") int batchSize,
+                                  @ConfigProperty(name = "notification.outbox.lease", defaultValue = "2m") Duration lease,
+                                  @ConfigProperty(name = "notification.outbox.max-attempts", defaultValue = "5") int maxAttempts,
+                                  @ConfigProperty(name = "notification.outbox.retry-backoff", defaultValue = "30s") Duration retryBackoff,
+                                  @ConfigProperty(name = "notification.outbox.node-id") Optional<String> nodeId) {
+        this.notificationService = Objects.requireNonNull(notificationService, "notificationService cannot be null");
+        this.channelWorkerPools = Objects.requireNonNull(channelWorkerPools, "channelWorkerPools cannot be null");
+        this.batchSize = batchSize;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.nodeId = nodeId.filter(id -> !id.isBlank()).orElseGet(NotificationDispatcher::defaultNodeId);
+        
+        LOG.info("Notification dispatcher node id: {}", this.nodeId);
+    }
+    
+    /**
+     * Caminho rápido do modo outbox: verifica capacidade dos canais, grava as notificações já
+     * reivindicadas por este nó e as envia direto aos pools, sem esperar o próximo ciclo de polling.
+     *
+     * @throws ChannelSaturatedException se algum canal da requisição estiver com a fila cheia
+     */
+    public List<Notification> accept(WorkflowNotificationRequest request) {
+        channelWorkerPools.ensureCapacity(request.channels());
+        
+        List<Notification> queued = notificationService.enqueueWorkflowNotification(request, nodeId, lease);
+        submitAll(queued);
+        return queued;
+    }
+    
+    /**
+     * Envia aos pools notificações já gravadas e reivindicadas por este nó (ex.: um lote inteiro).
+     * As que não couberem nas filas voltam para o polling.
+     */
+    public void dispatchClaimed(List<Notification> claimed) {
+        submitAll(claimed);
+    }
+    
+    /**
+     * Inclui no heartbeat notificações reivindicadas por este nó e entregues fora do dispatcher
+     * (lotes do modo inline), para que o lease não expire durante a entrega.
+     */
+    public void trackInFlight(Collection<Long> notificationIds) {
+        inFlight.addAll(notificationIds);
+    }
+    
+    public void untrackInFlight(Long notificationId) {
+        inFlight.remove(notificationId);
+    }
+    
+    /**
+     * Reivindica notificações pending/retrying sem lease válido. Roda nos dois modos: no inline não há
+     * linhas novas sem dono, só as de um nó que caiu, as liberadas e as que aguardam nova tentativa.
+     */
+    @Scheduled(every = "${notification.outbox.poll-interval:5s}", 
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void pollOutbox() {
+        completeTouchedBatches();
+        
+        List<Notification> claimed = notificationService.claimDispatchBatch(nodeId, batchSize, lease);
+        if (claimed.isEmpty()) {
+            return;
+        }
+        
+        LOG.debug("Node {} claimed {} notifications", nodeId, claimed.size());
+        submitAll(claimed);
+    }
+    
+    /**
+     * Conclui os lotes com resultados gravados desde o ciclo anterior: uma verificação por lote
+     * e ciclo, em vez de uma agregação sobre o lote a cada notificação.
+     */
+    private void completeTouchedBatches() {
+        for (String batchId : List.copyOf(touchedBatches)) {
+            touchedBatches.remove(batchId);
+            try {
+                notificationService.completeBatchIfFinished(batchId);
+            } catch (Exception e) {
+                LOG.warn("Could not check completion of batch {}: {}", batchId, e.getMessage());
+                touchedBatches.add(batchId);
+            }
+        }
+    }
+    
+    @Scheduled(every = "${notification.outbox.heartbeat-interval:30s}", 
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void heartbeat() {
+        if (inFlight.isEmpty()) {
+            return;
+        }
+        
+        int renewed = notificationService.extendLeases(nodeId, Set.copyOf(inFlight), lease);
+        LOG.debug("Node {} renewed lease of {} in-flight notifications", nodeId, renewed);
+    }
+    
+    /**
+     * Envia notificações reivindicadas aos pools dos seus canais. As que não couberem na fila
+     * têm o lease liberado imediatamente para o próximo ciclo (deste ou de outro nó).
+     */
+    private void submitAll(List<Notification> claimed) {
+        List<Long> rejected = new ArrayList<>();
+        
+        for (Notification notification : claimed) {
+            inFlight.add(notification.getId());
+            try {
+                channelWorkerPools.submit(notification.getChannel().value(), () -> deliver(notification));
+            } catch (ChannelSaturatedException e) {
+                inFlight.remove(notification.getId());
+                rejected.add(notification.getId());
+            }
+        }
+        
+        if (!rejected.isEmpty()) {
+            LOG.warn("Releasing {} claimed notifications: delivery queues are full", rejected.size());
+            notificationService.releaseClaims(nodeId, rejected);
+        }
+    }
+    
+    /**
+     * Entrega uma notificação já reivindicada por este nó e grava o resultado.
+     */
+    void deliver(Notification notification) {
+        Long notificationId = notification.getId();
+        
+        String errorMessage = null;
+        try {
+            notificationService.deliverNotification(notification);
+            LOG.info("Notification {} delivered via {}", notificationId, notification.getChannel());
+        } catch (Exception e) {
+            errorMessage = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            LOG.error("Attempt {} of {} failed for notification {} via {}: {}", 
+                      notification.getAttempts(), maxAttempts, notificationId, notification.getChannel(), errorMessage);
+        }
+        
+        try {
+            notificationService.recordDeliveryResult(notificationId, nodeId, errorMessage, 
+                                                     errorMessage != null ? nextAttemptAt(notification) : null);
+            if (notification.getBatchId() != null) {
+                touchedBatches.add(notification.getBatchId());
+            }
+        } catch (Exception e) {
+            LOG.error("Failed to record delivery result for notification {}: {}", notificationId, e.getMessage(), e);
+        } finally {
+            inFlight.remove(notificationId);
+        }
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    public Duration getLease() {
+        return lease;
+    }
+    
+    /**
+     * Backoff linear por tentativa; null quando as tentativas se esgotaram.
+     */
+    private Instant nextAttemptAt(Notification notification) {
+        if (notification.getAttempts() >= maxAttempts) {
+            return null;
+        }
+        return Instant.now().plus(retryBackoff.multipliedBy(notification.getAttempts()));
+    }
+    
+    private static String defaultNodeId() {
+        String hostname = System.getenv("HOSTNAME");
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return (hostname != null && !hostname.isBlank() ? hostname : "node") + "-" + suffix;
+    }
+}
@@ -0,0 +1,253 @@
+package com.apporte.core.service;
+
+import com.apporte.api.dto.SimpleNotificationRequest;
+import com.apporte.api.dto.WorkflowNotificationRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Ingest de lotes muito grandes em NDJSON (um {@link SimpleNotificationRequest} por linha).
+ * Cada linha é lida e validada isoladamente e as válidas são gravadas em blocos de
+ * {@code notification.ingest.chunk-size}; a memória usada não depende do tamanho do upload,
+ * e de uma linha só se guardam até {@code notification.ingest.max-line-length} bytes.
+ * Linhas inválidas são contadas e rejeitadas sem interromper o restante.
+ */
+@ApplicationScoped
+public class NotificationIngestService {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationIngestService.class);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    
+    private final NotificationService notificationService;
+    private final NotificationBatchService notificationBatchService;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final int chunkSize;
+    private final int maxLineLength;
+    private final int maxRejectionSamples;
+    
+    public NotificationIngestService(NotificationService notificationService,
+                                     NotificationBatchService notificationBatchService,
+                                     Validator validator,
+                                     ObjectMapper objectMapper,
+                                     @ConfigProperty(name = "notification.ingest.chunk-size", defaultValue = "500") int chunkSize,
+                                     @ConfigProperty(name = "notification.ingest.max-line-length", defaultValue = "65536") int maxLineLength,
+                                     @ConfigProperty(name = "notification.ingest.max-rejection-samples", defaultValue = "100") int maxRejectionSamples) {
+        this.notificationService = Objects.requireNonNull(notificationService, "notificationService cannot be null");
+        this.notificationBatchService = Objects.requireNonNull(notificationBatchService, "notificationBatchService cannot be null");
+        this.validator = Objects.requireNonNull(validator, "validator cannot be null");
+        this.requestReader = Objects.requireNonNull(objectMapper, "objectMapper cannot be null")
+                .readerFor(SimpleNotificationRequest.class);
+        this.chunkSize = chunkSize;
+        this.maxLineLength = maxLineLength;
+        this.maxRejectionSamples = maxRejectionSamples;
+    }
+    
+    /**
+     * Lê o corpo NDJSON até o fim, gravando as notificações em blocos sob um único batch job.
+     * A entrega começa em segundo plano (modo inline) ou fica com o dispatcher (modo outbox).
+     */
+    public IngestResult ingest(InputStream body, String requestedBy) throws IOException {
+        Objects.requireNonNull(body, "body cannot be null");
+        
+        String jobId = UUID.randomUUID().toString();
+        notificationService.openBatchJob(jobId, requestedBy);
+        LOG.info("Starting NDJSON ingest {} requested by {}", jobId, requestedBy);
+        
+        List<WorkflowNotificationRequest> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        Tally tally = new Tally(maxRejectionSamples);
+        long lineNumber = 0;
+        
+        try (body) {
+            BoundedLineReader reader = new BoundedLineReader(body, maxLineLength);
+            while (reader.next()) {
+                lineNumber++;
+                if (reader.isBlank()) {
+                    continue;
+                }
+                
+                try {
+                    chunk.add(parseLine(reader));
+                    chunkLines.add(lineNumber);
+                } catch (IllegalArgumentException e) {
+                    tally.reject(lineNumber, e.getMessage());
+                    continue;
+                }
+                
+                if (chunk.size() >= chunkSize) {
+                    flush(jobId, requestedBy, chunk, chunkLines, tally);
+                }
+            }
+            
+            flush(jobId, requestedBy, chunk, chunkLines, tally);
+        } finally {
+            notificationService.closeBatchJob(jobId);
+        }
+        
+        notificationBatchService.drainAsync(jobId, chunkSize);
+        
+        LOG.info("NDJSON ingest {} finished: {} accepted, {} rejected", jobId, tally.accepted, tally.rejected);
+        return new IngestResult(jobId, tally.accepted, tally.rejected, tally.rejections);
+    }
+    
+    private WorkflowNotificationRequest parseLine(BoundedLineReader line) throws IOException {
+        if (line.overflow) {
+            throw new IllegalArgumentException("Line exceeds " + maxLineLength + " bytes");
+        }
+        
+        SimpleNotificationRequest request;
+        try {
+            request = requestReader.readValue(line.bytes, 0, line.length);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        
+        if (request == null) {
+            throw new IllegalArgumentException("Empty notification");
+        }
+        
+        Set<ConstraintViolation<SimpleNotificationRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        
+        return request.toWorkflowRequest();
+    }
+    
+    /**
+     * Grava o bloco; itens recusados na gravação contam como linhas rejeitadas.
+     */
+    private void flush(String jobId, String requestedBy, List<WorkflowNotificationRequest> chunk,
+                       List<Long> chunkLines, Tally tally) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        
+        List<NotificationService.EnqueuedItem> items = notificationService.enqueueBatch(chunk, jobId, requestedBy, null, null);
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).isFailed()) {
+                tally.reject(chunkLines.get(i), items.get(i).error());
+            } else {
+                tally.accepted++;
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+    
+    /**
+     * Leitor de linhas NDJSON em bytes que guarda no máximo {@code maxLineLength} bytes por linha;
+     * o restante de uma linha longa é consumido do stream e descartado, marcando {@code overflow}.
+     */
+    private static final class BoundedLineReader {
+        
+        private final InputStream in;
+        private final byte[] buffer = new byte[READ_BUFFER_SIZE];
+        private final byte[] bytes;
+        private int position;
+        private int limit;
+        private int length;
+        private boolean overflow;
+        
+        BoundedLineReader(InputStream in, int maxLineLength) {
+            this.in = in;
+            this.bytes = new byte[maxLineLength];
+        }
+        
+        /**
+         * Avança para a próxima linha; {@code false} no fim do stream.
+         */
+        boolean next() throws IOException {
+            length = 0;
+            overflow = false;
+            boolean read = false;
+            
+            while (true) {
+                if (position == limit) {
+                    int count = in.read(buffer);
+                    if (count < 0) {
+                        return read;
+                    }
+                    position = 0;
+                    limit = count;
+                }
+                
+                while (position < limit) {
+                    read = true;
+                    byte b = buffer[position++];
+                    if (b == '\n') {
+                        if (!overflow && length > 0 && bytes[length - 1] == '\r') {
+                            length--;
+                        }
+                        return true;
+                    }
+                    if (length < bytes.length) {
+                        bytes[length++] = b;
+                    } else {
+                        overflow = true;
+                    }
+                }
+            }
+        }
+        
+        boolean isBlank() {
+            if (overflow) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != ' ' && bytes[i] != '\t' && bytes[i] != '\r') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    
+    private static final class Tally {
+        
+        private final int maxRejectionSamples;
+        private final List<Rejection> rejections = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+        
+        Tally(int maxRejectionSamples) {
+            this.maxRejectionSamples = maxRejectionSamples;
+        }
+        
+        void reject(long line, String reason) {
+            rejected++;
+            if (rejections.size() < maxRejectionSamples) {
+                rejections.add(new Rejection(line, reason));
+            }
+        }
+    }
+    
+    public record Rejection(long line, String reason) {
+    }
+    
+    /**
+     * Resumo do ingest; {@code rejections} traz no máximo {@code notification.ingest.max-rejection-samples} exemplos.
+     */
+    public record IngestResult(String jobId, long accepted, long rejected, List<Rejection> rejections) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.apporte.core.service;
+
+import com.apporte.core.repository.NotificationEventRepository;
+import com.apporte.core.repository.NotificationRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Manutenção das partições mensais de {@code notifications} (PostgreSQL, migração V5).
+ * Cria partições com {@code notification.partitions.months-ahead} meses de antecedência e aplica a
+ * retenção desanexando partições inteiras cujo intervalo terminou antes de
+ * {@code notification.partitions.retention-months}: a partição vai para o schema de arquivo ou é
+ * removida, sem DELETE linha a linha. Sem arquivo, os envelopes de {@code notification_events} que
+ * ficaram sem notificações também são removidos; com arquivo eles ficam, pois as linhas arquivadas
+ * ainda os referenciam.
+ * <p>
+ * Fora do PostgreSQL, ou com a tabela ainda não particionada, não faz nada. Entre vários nós só um
+ * executa por vez (advisory lock).
+ */
+@ApplicationScoped
+public class NotificationPartitionMaintenance {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationPartitionMaintenance.class);
+    
+    private final NotificationRepository notificationRepository;
+    private final NotificationEventRepository notificationEventRepository;
+    private final NotificationCounters notificationCounters;
+    private final boolean postgres;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final String archiveSchema;
+    
+    public NotificationPartitionMaintenance(NotificationRepository notificationRepository,
+                                            NotificationEventRepository notificationEventRepository,
+                                            NotificationCounters notificationCounters,
+                                            @ConfigProperty(name = "quarkus.datasource.db-kind", defaultValue = "postgresql") String dbKind,
+                                            @ConfigProperty(name = "notification.partitions.months-ahead", defaultValue = "3") int monthsAhead,
+                                            @ConfigProperty(name = "notification.partitions.retention-months", defaultValue = "12") int retentionMonths,
+                                            @ConfigProperty(name = "notification.partitions.archive", defaultValue = "true") boolean archive,
+                                            @ConfigProperty(name = "notification.partitions.archive-schema", defaultValue = "notifications_archive") String archiveSchema) {
+        this.notificationRepository = Objects.requireNonNull(notificationRepository, "notificationRepository cannot be null");
+        this.notificationEventRepository = Objects.requireNonNull(notificationEventRepository, "notificationEventRepository cannot be null");
+        this.notificationCounters = Objects.requireNonNull(notificationCounters, "notificationCounters cannot be null");
+        this.postgres = Objects.requireNonNull(dbKind, "dbKind cannot be null").toLowerCase().startsWith("postgres");
+        
+        if (monthsAhead < 1) {
+            throw new IllegalArgumentException("notification.partitions.months-ahead must be at least 1: " + monthsAhead);
+        }
+        if (retentionMonths < 1) {
+            throw new IllegalArgumentException("notification.partitions.retention-months must be at least 1: " + retentionMonths);
+        }
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archiveSchema = archive ? Objects.requireNonNull(archiveSchema, "archiveSchema cannot be null") : null;
+    }
+    
+    void onStart(@Observes StartupEvent event) {
+        maintain();
+    }
+    
+    @Scheduled(cron = "${notification.partitions.maintenance-cron:0 30 3 * * ?}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledMaintain() {
+        maintain();
+    }
+    
+    /**
+     * Cria as partições futuras e retira as expiradas; retorna os nomes das partições retiradas.
+     */
+    public List<String> maintain() {
+        if (!postgres) {
+            return List.of();
+        }
+        
+        List<String> retired;
+        try {
+            retired = QuarkusTransaction.requiringNew().call(this::maintainPartitions);
+        } catch (Exception e) {
+            LOG.error("Notification partition maintenance failed: {}", e.getMessage(), e);
+            return List.of();
+        }
+        
+        if (!retired.isEmpty()) {
+            // Linhas saíram da tabela sem passar pelo listener
+            notificationCounters.reconcile();
+        }
+        return retired;
+    }
+    
+    /**
+     * Início (UTC) do primeiro mês mantido: partições que terminam até aqui são retiradas.
+     */
+    Instant retentionCutoff(Instant now) {
+        return YearMonth.from(now.atZone(ZoneOffset.UTC))
+                .minusMonths(retentionMonths - 1L)
+                .atDay(1)
+                .atStartOfDay(ZoneOffset.UTC)
+                .toInstant();
+    }
+    
+    private List<String> maintainPartitions() {
+        if (!notificationRepository.isPartitioned()) {
+            LOG.debug("Table notifications is not partitioned; skipping partition maintenance");
+            return List.of();
+        }
+        if (!notificationRepository.tryPartitionMaintenanceLock()) {
+            LOG.debug("Partition maintenance already running on another node");
+            return List.of();
+        }
+        
+        int created = notificationRepository.ensurePartitions(monthsAhead);
+        if (created > 0) {
+            LOG.info("Created {} notification partitions ({} months ahead)", created, monthsAhead);
+        }
+        
+        Instant cutoff = retentionCutoff(Instant.now());
+        List<String> retired = new ArrayList<>();
+        for (Map.Entry<String, Instant> partition : notificationRepository.findPartitionUpperBounds().entrySet()) {
+            if (partition.getValue().isAfter(cutoff)) {
+                break;
+            }
+            notificationRepository.retirePartition(partition.getKey(), archiveSchema);
+            retired.add(partition.getKey());
+            LOG.info("Notification partition {} (until {}) {}", partition.getKey(), partition.getValue(),
+                     archiveSchema != null ? "moved to " + archiveSchema : "dropped");
+        }
+        
+        if (!retired.isEmpty() && archiveSchema == null) {
+            long events = notificationEventRepository.deleteUnreferencedBefore(cutoff);
+            LOG.info("Deleted {} shared notification events no longer referenced", events);
+        }
+        return retired;
+    }
+}
@@ -0,0 +1,225 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.NotificationPayload;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Codificação do payload de {@code Notification} para a coluna binária {@code payload}.
+ * <p>
+ * O primeiro byte identifica o formato (JSON ou Smile, o JSON binário do Jackson) e se o corpo está
+ * comprimido (deflate); assim linhas gravadas com configurações diferentes continuam legíveis.
+ * O formato gravado vem de {@code notification.payload.format}, e corpos a partir de
+ * {@code notification.payload.compression-threshold} bytes são comprimidos quando isso reduz o tamanho.
+ * Linhas antigas, só com {@code payload_json}, são lidas por {@link #decodeLegacyJson(String)}.
+ * <p>
+ * Leitores e escritores são criados uma vez, a partir do ObjectMapper do Quarkus, para o tipo
+ * {@link NotificationPayload}; com {@code notification.payload.blackbird} o acesso aos campos usa o
+ * módulo Blackbird (bytecode via LambdaMetafactory em vez de reflexão).
+ * <p>
+ * O mesmo formato vale para o envelope de evento compartilhado ({@code notification_events}), cuja
+ * chave é dada por {@link #eventKey(NotificationPayload.Event)}.
+ */
+@ApplicationScoped
+public class NotificationPayloadCodec {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationPayloadCodec.class);
+    
+    private static final int COMPRESSED_FLAG = 0x80;
+    
+    public enum Format {
+        JSON(1),
+        SMILE(2);
+        
+        private final int id;
+        
+        Format(int id) {
+            this.id = id;
+        }
+        
+        static Format fromHeader(int header) {
+            int id = header & ~COMPRESSED_FLAG;
+            for (Format format : values()) {
+                if (format.id == id) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown payload format: " + id);
+        }
+    }
+    
+    private final ObjectWriter jsonPayloadWriter;
+    private final ObjectReader jsonPayloadReader;
+    private final ObjectWriter smilePayloadWriter;
+    private final ObjectReader smilePayloadReader;
+    private final ObjectWriter jsonEventWriter;
+    private final ObjectReader jsonEventReader;
+    private final ObjectWriter smileEventWriter;
+    private final ObjectReader smileEventReader;
+    private final ObjectWriter canonicalEventWriter;
+    private final Format format;
+    private final int compressionThreshold;
+    
+    public NotificationPayloadCodec(ObjectMapper objectMapper,
+                                    @ConfigProperty(name = "notification.payload.format", defaultValue = "smile") String format,
+                                    @ConfigProperty(name = "notification.payload.compression-threshold", defaultValue = "512") int compressionThreshold,
+                                    @ConfigProperty(name = "notification.payload.blackbird", defaultValue = "false") boolean blackbird) {
+        ObjectMapper jsonMapper = Objects.requireNonNull(objectMapper, "objectMapper cannot be null").copy();
+        if (blackbird) {
+            jsonMapper.registerModule(new BlackbirdModule());
+        }
+        ObjectMapper smileMapper = jsonMapper.copyWith(new SmileFactory());
+        
+        this.jsonPayloadWriter = writerFor(jsonMapper, NotificationPayload.class);
+        this.jsonPayloadReader = readerFor(jsonMapper, NotificationPayload.class);
+        this.smilePayloadWriter = writerFor(smileMapper, NotificationPayload.class);
+        this.smilePayloadReader = readerFor(smileMapper, NotificationPayload.class);
+        this.jsonEventWriter = writerFor(jsonMapper, NotificationPayload.Event.class);
+        this.jsonEventReader = readerFor(jsonMapper, NotificationPayload.Event.class);
+        this.smileEventWriter = writerFor(smileMapper, NotificationPayload.Event.class);
+        this.smileEventReader = readerFor(smileMapper, NotificationPayload.Event.class);
+        // Chave de conteúdo: JSON com mapas em ordem de chave, independente do formato gravado
+        this.canonicalEventWriter = jsonEventWriter.with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.format = Format.valueOf(Objects.requireNonNull(format, "format cannot be null").trim().toUpperCase());
+        this.compressionThreshold = compressionThreshold; // 0 ou negativo = nunca comprime
+    }
+    
+    public Format getFormat() {
+        return format;
+    }
+    
+    public byte[] encode(NotificationPayload payload) throws IOException {
+        Objects.requireNonNull(payload, "payload cannot be null");
+        return write(payload, jsonPayloadWriter, smilePayloadWriter);
+    }
+    
+    public NotificationPayload decode(byte[] data) throws IOException {
+        return read(data, jsonPayloadReader, smilePayloadReader);
+    }
+    
+    /**
+     * Codifica o envelope compartilhado de {@code notification_events}.
+     */
+    public byte[] encodeEvent(NotificationPayload.Event event) throws IOException {
+        Objects.requireNonNull(event, "event cannot be null");
+        return write(event, jsonEventWriter, smileEventWriter);
+    }
+    
+    public NotificationPayload.Event decodeEvent(byte[] data) throws IOException {
+        return read(data, jsonEventReader, smileEventReader);
+    }
+    
+    /**
+     * Chave de conteúdo do envelope: SHA-256 (hex) do JSON canônico. Envelopes iguais têm a mesma chave
+     * qualquer que seja a ordem de inserção dos mapas de contexto.
+     */
+    public String eventKey(NotificationPayload.Event event) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonicalEventWriter.writeValueAsBytes(event)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Lê o texto de {@code payload_json} das linhas gravadas antes da coluna binária.
+     */
+    public NotificationPayload decodeLegacyJson(String json) throws IOException {
+        if (json == null || json.isEmpty()) {
+            throw new IllegalArgumentException("JSON payload is null or empty");
+        }
+        
+        // Se o JSON começar e terminar com aspas, removê-las
+        String actualJson = json;
+        if (json.startsWith("\"") && json.endsWith("\"")) {
+            LOG.warn("JSON payload has outer quotes, removing them");
+            actualJson = json.substring(1, json.length() - 1);
+            // Unescape escaped quotes
+            actualJson = actualJson.replace("\\\"", "\"");
+        }
+        
+        return jsonPayloadReader.readValue(actualJson);
+    }
+    
+    private byte[] write(Object value, ObjectWriter jsonWriter, ObjectWriter smileWriter) throws IOException {
+        byte[] body = (format == Format.SMILE ? smileWriter : jsonWriter).writeValueAsBytes(value);
+        if (compressionThreshold > 0 && body.length >= compressionThreshold) {
+            byte[] compressed = withHeader(format.id | COMPRESSED_FLAG, deflate(body));
+            if (compressed.length <= body.length) {
+                return compressed;
+            }
+        }
+        return withHeader(format.id, body);
+    }
+    
+    private static <T> T read(byte[] data, ObjectReader jsonReader, ObjectReader smileReader) throws IOException {
+        if (data == null || data.length < 2) {
+            throw new IllegalArgumentException("Payload is null or empty");
+        }
+        
+        int header = data[0] & 0xFF;
+        ObjectReader reader = Format.fromHeader(header) == Format.SMILE ? smileReader : jsonReader;
+        if ((header & COMPRESSED_FLAG) == 0) {
+            return reader.readValue(data, 1, data.length - 1);
+        }
+        
+        Inflater inflater = new Inflater(true);
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(data, 1, data.length - 1), inflater)) {
+            return reader.readValue(in);
+        } finally {
+            inflater.end();
+        }
+    }
+    
+    private static ObjectWriter writerFor(ObjectMapper mapper, Class<?> type) {
+        return mapper.writerFor(type)
+                .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+    
+    private static ObjectReader readerFor(ObjectMapper mapper, Class<?> type) {
+        return mapper.readerFor(type)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+    
+    private static byte[] withHeader(int header, byte[] body) {
+        byte[] data = new byte[body.length + 1];
+        data[0] = (byte) header;
+        System.arraycopy(body, 0, data, 1, body.length);
+        return data;
+    }
+    
+    private static byte[] deflate(byte[] body) throws IOException {
+        // Deflate cru (sem cabeçalho zlib): o formato já está no nosso byte de cabeçalho
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 16);
+        try (DeflaterOutputStream deflating = new DeflaterOutputStream(out, deflater)) {
+            deflating.write(body);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+}
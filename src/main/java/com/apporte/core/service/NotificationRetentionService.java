@@ -0,0 +1,276 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.NotificationStatus;
+import com.apporte.core.model.RetentionCheckpoint;
+import com.apporte.core.repository.NotificationEventRepository;
+import com.apporte.core.repository.NotificationRepository;
+import com.apporte.core.repository.RetentionCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.persistence.PersistenceException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retenção de notificações enviadas/com erro mais antigas que {@code notification.retention.days-to-keep}.
+ * <p>
+ * Apaga em faixas de {@code notification.retention.chunk-size} ids, cada faixa em uma transação curta,
+ * e grava o progresso em {@link RetentionCheckpoint}: uma execução interrompida continua do último
+ * bloco confirmado, e nós concorrentes não disputam o mesmo bloco (SKIP LOCKED no checkpoint).
+ * Entre blocos respeita o orçamento de linhas por segundo e, no PostgreSQL, espera as réplicas quando
+ * o atraso passa de {@code notification.retention.max-replication-lag}.
+ * <p>
+ * Ao terminar uma execução remove os envelopes de {@code notification_events} que ficaram sem notificações.
+ * <p>
+ * Com {@code notifications} particionada, as partições mensais são retiradas inteiras por
+ * {@link NotificationPartitionMaintenance}; esta retenção continua só para as linhas da partição
+ * {@code notifications_legacy} (histórico anterior à V5), com o corte limitado ao fim dela, até que a
+ * própria partição seja retirada.
+ */
+@ApplicationScoped
+public class NotificationRetentionService {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationRetentionService.class);
+    
+    static final String CHECKPOINT_ID = "notifications";
+    private static final Duration MAX_LAG_PAUSE = Duration.ofSeconds(30);
+    private static final String RETAINED_FILTER = "id >= ?1 and id < ?2 and createdAt < ?3 and status in ?4";
+    private static final List<NotificationStatus> RETAINED_STATUSES = List.of(NotificationStatus.SENT, NotificationStatus.ERROR);
+    
+    private final NotificationRepository notificationRepository;
+    private final RetentionCheckpointRepository checkpointRepository;
+    private final NotificationEventRepository notificationEventRepository;
+    private final NotificationCounters notificationCounters;
+    private final boolean postgres;
+    private final int daysToKeep;
+    private final int chunkSize;
+    private final int maxRowsPerSecond;
+    private final Duration maxReplicationLag;
+    private final Duration maxRunDuration;
+    
+    private final Counter deletedCounter;
+    private final Counter chunkCounter;
+    private final AtomicLong remainingIds = new AtomicLong();
+    private final AtomicLong replicationLagMillis = new AtomicLong();
+    private final AtomicLong throttledMillis = new AtomicLong();
+    
+    private volatile boolean stopping;
+    
+    public NotificationRetentionService(NotificationRepository notificationRepository,
+                                        RetentionCheckpointRepository checkpointRepository,
+                                        NotificationEventRepository notificationEventRepository,
+                                        NotificationCounters notificationCounters,
+                                        @ConfigProperty(name = "quarkus.datasource.db-kind", defaultValue = "postgresql") String dbKind,
+                                        @ConfigProperty(name = "notification.retention.days-to-keep", defaultValue = "90") int daysToKeep,
+                                        @ConfigProperty(name = "notification.retention.chunk-size", defaultValue = "5000") int chunkSize,
+                                        @ConfigProperty(name = "notification.retention.max-rows-per-second", defaultValue = "5000") int maxRowsPerSecond,
+                                        @ConfigProperty(name = "notification.retention.max-replication-lag", defaultValue = "10s") Duration maxReplicationLag,
+                                        @ConfigProperty(name = "notification.retention.max-run-duration", defaultValue = "2h") Duration maxRunDuration) {
+        this.notificationRepository = Objects.requireNonNull(notificationRepository, "notificationRepository cannot be null");
+        this.checkpointRepository = Objects.requireNonNull(checkpointRepository, "checkpointRepository cannot be null");
+        this.notificationEventRepository = Objects.requireNonNull(notificationEventRepository, "notificationEventRepository cannot be null");
+        this.notificationCounters = Objects.requireNonNull(notificationCounters, "notificationCounters cannot be null");
+        this.postgres = Objects.requireNonNull(dbKind, "dbKind cannot be null").toLowerCase().startsWith("postgres");
+        
+        if (daysToKeep <= 0) {
+            throw new IllegalArgumentException("notification.retention.days-to-keep must be positive: " + daysToKeep);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("notification.retention.chunk-size must be positive: " + chunkSize);
+        }
+        this.daysToKeep = daysToKeep;
+        this.chunkSize = chunkSize;
+        this.maxRowsPerSecond = maxRowsPerSecond; // 0 = sem limite
+        this.maxReplicationLag = Objects.requireNonNull(maxReplicationLag, "maxReplicationLag cannot be null");
+        this.maxRunDuration = Objects.requireNonNull(maxRunDuration, "maxRunDuration cannot be null");
+        
+        this.deletedCounter = Metrics.globalRegistry.counter("notification.retention.deleted");
+        this.chunkCounter = Metrics.globalRegistry.counter("notification.retention.chunks");
+        Metrics.globalRegistry.gauge("notification.retention.remaining.ids", remainingIds);
+        Metrics.globalRegistry.gauge("notification.retention.replication.lag.ms", replicationLagMillis);
+        Metrics.globalRegistry.gauge("notification.retention.throttled.ms", throttledMillis);
+    }
+    
+    void onStart(@Observes StartupEvent event) {
+        if (!postgres) {
+            return;
+        }
+        try {
+            if (!QuarkusTransaction.requiringNew().call(notificationRepository::canReadReplicationLag)) {
+                // pg_stat_replication esconde replay_lag desse papel: replicationLag() seria sempre zero
+                LOG.warn("Database role cannot read replay_lag from pg_stat_replication (grant pg_monitor); "
+                         + "retention will not pause for replication lag");
+            }
+        } catch (PersistenceException e) {
+            LOG.warn("Could not check access to pg_stat_replication: {}", e.getMessage());
+        }
+    }
+    
+    void onStop(@Observes ShutdownEvent event) {
+        stopping = true;
+    }
+    
+    @Scheduled(cron = "${notification.retention.cron:0 0 4 * * ?}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRun() {
+        run();
+    }
+    
+    /**
+     * Executa (ou retoma) a retenção até terminar a faixa, esgotar {@code max-run-duration} ou o
+     * serviço parar. Retorna as linhas apagadas nesta chamada.
+     */
+    public long run() {
+        Instant maxCutoff;
+        if (postgres && QuarkusTransaction.requiringNew().call(notificationRepository::isPartitioned)) {
+            maxCutoff = QuarkusTransaction.requiringNew().call(notificationRepository::findPartitionUpperBounds)
+                    .get(NotificationRepository.LEGACY_PARTITION);
+            if (maxCutoff == null) {
+                LOG.debug("Table notifications is partitioned; retention is handled by partition maintenance");
+                return 0;
+            }
+            // Corte até o fim da legacy: os deletes só alcançam essa partição (pruning por created_at)
+        } else {
+            maxCutoff = null;
+        }
+        
+        Optional<RetentionCheckpoint> checkpoint;
+        try {
+            checkpoint = QuarkusTransaction.requiringNew().call(() -> openRun(maxCutoff));
+        } catch (PersistenceException e) {
+            // Outro nó abriu a execução ao mesmo tempo (PK do checkpoint)
+            LOG.debug("Retention run already opened by another node: {}", e.getMessage());
+            return 0;
+        }
+        if (checkpoint.isEmpty()) {
+            return 0;
+        }
+        
+        LOG.info("Retention run started: cutoff {}, ids {}..{}", checkpoint.get().getCutoff(),
+                 checkpoint.get().getNextId(), checkpoint.get().getLastId());
+        
+        Instant deadline = Instant.now().plus(maxRunDuration);
+        long deleted = 0;
+        while (!stopping && Instant.now().isBefore(deadline)) {
+            long started = System.nanoTime();
+            Optional<ChunkResult> chunk = QuarkusTransaction.requiringNew().call(this::deleteNextChunk);
+            if (chunk.isEmpty()) {
+                break; // checkpoint removido ou com outro nó
+            }
+            
+            deleted += chunk.get().deleted();
+            deletedCounter.increment(chunk.get().deleted());
+            chunkCounter.increment();
+            remainingIds.set(chunk.get().remainingIds());
+            if (chunk.get().finished()) {
+                Instant cutoff = checkpoint.get().getCutoff();
+                long events = QuarkusTransaction.requiringNew()
+                        .call(() -> notificationEventRepository.deleteUnreferencedBefore(cutoff));
+                LOG.info("Retention run finished: {} notifications and {} shared events deleted", deleted, events);
+                return deleted;
+            }
+            
+            if (!throttle(chunk.get().deleted(), Duration.ofNanos(System.nanoTime() - started))) {
+                break;
+            }
+        }
+        
+        LOG.info("Retention run paused after {} notifications deleted; it resumes on the next run", deleted);
+        return deleted;
+    }
+    
+    /**
+     * Retoma o checkpoint existente ou abre um novo com o corte de agora, limitado a {@code maxCutoff} se houver.
+     */
+    private Optional<RetentionCheckpoint> openRun(Instant maxCutoff) {
+        Optional<RetentionCheckpoint> existing = checkpointRepository.findByIdOptional(CHECKPOINT_ID);
+        if (existing.isPresent()) {
+            return existing;
+        }
+        
+        Instant retentionCutoff = Instant.now().minus(Duration.ofDays(daysToKeep));
+        Instant cutoff = maxCutoff != null && maxCutoff.isBefore(retentionCutoff) ? maxCutoff : retentionCutoff;
+        return notificationRepository.findIdRangeCreatedBefore(cutoff).map(range -> {
+            RetentionCheckpoint checkpoint = new RetentionCheckpoint(CHECKPOINT_ID, cutoff, range.firstId(), range.lastId());
+            checkpointRepository.persist(checkpoint);
+            checkpointRepository.flush();
+            return checkpoint;
+        });
+    }
+    
+    private Optional<ChunkResult> deleteNextChunk() {
+        Optional<RetentionCheckpoint> locked = checkpointRepository.findForUpdateSkipLocked(CHECKPOINT_ID);
+        if (locked.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        RetentionCheckpoint checkpoint = locked.get();
+        long from = checkpoint.getNextId();
+        long to = Math.min(from + chunkSize, checkpoint.getLastId() + 1);
+        Object[] params = {from, to, checkpoint.getCutoff(), RETAINED_STATUSES};
+        
+        // O delete em massa não passa pelo listener: desconta dos contadores em memória pelo agregado
+        notificationRepository.countByStatusAndChannel(RETAINED_FILTER, params).forEach((status, byChannel) ->
+                byChannel.forEach((channel, count) -> notificationCounters.recordRemoval(status, channel, count)));
+        long deleted = notificationRepository.delete(RETAINED_FILTER, params);
+        
+        checkpoint.advance(to, deleted);
+        boolean finished = checkpoint.isFinished();
+        if (finished) {
+            checkpointRepository.delete(checkpoint);
+        }
+        return Optional.of(new ChunkResult(deleted, Math.max(0, checkpoint.getLastId() + 1 - to), finished));
+    }
+    
+    /**
+     * Pausa entre blocos: o suficiente para manter {@code max-rows-per-second} e, se as réplicas
+     * estiverem atrasadas, até o atraso voltar ao limite. Retorna false se a espera foi interrompida.
+     */
+    private boolean throttle(long deleted, Duration elapsed) {
+        try {
+            if (maxRowsPerSecond > 0 && deleted > 0) {
+                long budgetMillis = deleted * 1000 / maxRowsPerSecond;
+                long sleepMillis = budgetMillis - elapsed.toMillis();
+                if (sleepMillis > 0) {
+                    throttledMillis.addAndGet(sleepMillis);
+                    Thread.sleep(sleepMillis);
+                }
+            }
+            
+            if (!postgres) {
+                return true;
+            }
+            Duration lag;
+            while (!stopping && (lag = QuarkusTransaction.requiringNew().call(notificationRepository::replicationLag))
+                    .compareTo(maxReplicationLag) > 0) {
+                replicationLagMillis.set(lag.toMillis());
+                LOG.debug("Replication lag {} above {}; pausing retention", lag, maxReplicationLag);
+                long pauseMillis = Math.min(lag.toMillis(), MAX_LAG_PAUSE.toMillis());
+                throttledMillis.addAndGet(pauseMillis);
+                Thread.sleep(pauseMillis);
+            }
+            replicationLagMillis.set(0);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private record ChunkResult(long deleted, long remainingIds, boolean finished) {
+    }
+}
@@ -1,21 +1,42 @@
 package com.apporte.core.service;
 
 import com.apporte.api.dto.WorkflowNotificationRequest;
+import com.apporte.core.model.BatchJob;
+import com.apporte.core.model.BatchProgress;
 import com.apporte.core.model.Notification;
+import com.apporte.core.model.NotificationChannel;
+import com.apporte.core.model.NotificationCursor;
+import com.apporte.core.model.NotificationEvent;
+import com.apporte.core.model.NotificationPage;
+import com.apporte.core.model.NotificationPayload;
+import com.apporte.core.model.NotificationStatus;
 import com.apporte.core.model.RecipientResolution;
+import com.apporte.core.model.TotalCount;
+import com.apporte.core.repository.BatchJobRepository;
+import com.apporte.core.repository.NotificationEventRepository;
 import com.apporte.core.repository.NotificationRepository;
+import com.apporte.infrastructure.exception.ChannelSaturatedException;
 import com.apporte.infrastructure.exception.NotificationSendException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.apporte.infrastructure.persistence.ReadReplica;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.faulttolerance.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 /**
  * Serviço responsável por processar notificações de workflow.
@@ -26,25 +47,314 @@ public class NotificationService {
     
     private static final Logger LOG = LoggerFactory.getLogger(NotificationService.class);
     
+    public static final String DISPATCH_MODE_INLINE = "inline";
+    public static final String DISPATCH_MODE_OUTBOX = "outbox";
+    
     private final RecipientResolverService recipientResolver;
     private final EmailService emailService;
     private final WhatsAppService whatsappService;
     private final NotificationRepository notificationRepository;
-    private final ObjectMapper objectMapper;
+    private final BatchJobRepository batchJobRepository;
+    private final ChannelWorkerPools channelWorkerPools;
+    private final NotificationCounters notificationCounters;
+    private final NotificationPayloadCodec payloadCodec;
+    private final NotificationEventRepository notificationEventRepository;
+    private final Validator validator;
+    private final String dispatchMode;
+    private final int countCap;
+    private final String dbKind;
+    private final int legacyBackfillBatchSize;
+    
+    private volatile long legacyPayloadCursor;
     
     public NotificationService(RecipientResolverService recipientResolver, 
                              EmailService emailService,
                              WhatsAppService whatsappService,
-                             NotificationRepository notificationRepository) {
+                             NotificationRepository notificationRepository,
+                             BatchJobRepository batchJobRepository,
+                             ChannelWorkerPools channelWorkerPools,
+                             NotificationCounters notificationCounters,
+                             NotificationPayloadCodec payloadCodec,
+                             NotificationEventRepository notificationEventRepository,
+                             Validator validator,
+                             @ConfigProperty(name = "notification.dispatch.mode", defaultValue = DISPATCH_MODE_INLINE) String dispatchMode,
+                             @ConfigProperty(name = "notification.listing.count-cap", defaultValue = "10000") int countCap,
+                             @ConfigProperty(name = "quarkus.datasource.db-kind", defaultValue = "postgresql") String dbKind,
+                             @ConfigProperty(name = "notification.payload.backfill-batch-size", defaultValue = "500") int legacyBackfillBatchSize) {
         this.recipientResolver = Objects.requireNonNull(recipientResolver, "recipientResolver cannot be null");
         this.emailService = Objects.requireNonNull(emailService, "emailService cannot be null");
         this.whatsappService = Objects.requireNonNull(whatsappService, "whatsappService cannot be null");
         this.notificationRepository = Objects.requireNonNull(notificationRepository, "notificationRepository cannot be null");
-        this.objectMapper = new ObjectMapper();
+        this.batchJobRepository = Objects.requireNonNull(batchJobRepository, "batchJobRepository cannot be null");
+        this.channelWorkerPools = Objects.requireNonNull(channelWorkerPools, "channelWorkerPools cannot be null");
+        this.notificationCounters = Objects.requireNonNull(notificationCounters, "notificationCounters cannot be null");
+        this.payloadCodec = Objects.requireNonNull(payloadCodec, "payloadCodec cannot be null");
+        this.notificationEventRepository = Objects.requireNonNull(notificationEventRepository, "notificationEventRepository cannot be null");
+        this.validator = Objects.requireNonNull(validator, "validator cannot be null");
+        this.dispatchMode = Objects.requireNonNull(dispatchMode, "dispatchMode cannot be null").trim().toLowerCase();
+        this.countCap = countCap;
+        this.dbKind = Objects.requireNonNull(dbKind, "dbKind cannot be null");
+        this.legacyBackfillBatchSize = legacyBackfillBatchSize;
+        
+        if (!DISPATCH_MODE_INLINE.equals(this.dispatchMode) && !DISPATCH_MODE_OUTBOX.equals(this.dispatchMode)) {
+            throw new IllegalArgumentException("Unsupported notification.dispatch.mode: " + dispatchMode);
+        }
+    }
+    
+    /**
+     * Indica se o serviço opera em modo outbox: a requisição apenas persiste
+     * notificações pendentes e o {@link NotificationDispatcher} faz a entrega.
+     */
+    public boolean isOutboxMode() {
+        return DISPATCH_MODE_OUTBOX.equals(dispatchMode);
+    }
+    
+    /**
+     * Modo outbox: resolve destinatários e grava as notificações como 'pending'
+     * em uma única transação curta, sem tocar nos canais de envio.
+     *
+     * @return notificações enfileiradas
+     */
+    @Transactional
+    public List<Notification> enqueueWorkflowNotification(WorkflowNotificationRequest request) {
+        return enqueueWorkflowNotification(request, null, null);
+    }
+    
+    /**
+     * Como {@link #enqueueWorkflowNotification(WorkflowNotificationRequest)}, mas as linhas já nascem
+     * reivindicadas por {@code claimNodeId}, para que o próprio nó as entregue sem polling.
+     */
+    @Transactional
+    public List<Notification> enqueueWorkflowNotification(WorkflowNotificationRequest request, 
+                                                          String claimNodeId, Duration lease) {
+        Objects.requireNonNull(request, "request cannot be null");
+        
+        LOG.info("Enqueuing workflow notification: {} for entity: {}", request.eventType(), request.entityId());
+        
+        List<RecipientResolution> resolvedRecipients = recipientResolver.resolveRecipients(request);
+        List<Notification> notifications = new ArrayList<>();
+        Instant leaseExpiresAt = claimNodeId != null ? Instant.now().plus(lease) : null;
+        String eventId = storeEvent(request, resolvedRecipients);
+        List<String> channels = supportedChannels(request);
+        
+        for (RecipientResolution recipient : resolvedRecipients) {
+            if (!recipient.isValid()) {
+                LOG.warn("Skipping invalid recipient: {}", recipient);
+                continue;
+            }
+            
+            for (String channel : channels) {
+                Notification notification = createNotification(recipient, request, channel, eventId);
+                if (claimNodeId != null) {
+                    notification.claim(claimNodeId, leaseExpiresAt);
+                }
+                notifications.add(notification);
+            }
+        }
+        
+        notificationRepository.persistAll(notifications);
+        
+        LOG.info("Workflow notification {} enqueued: {} notifications pending", request.eventType(), notifications.size());
+        return notifications;
+    }
+    
+    /**
+     * Grava todas as notificações de um lote em uma única transação: destinatários resolvidos em bloco
+     * e um único flush, que o Hibernate agrupa em inserts JDBC em lote.
+     * Cada item é validado e tem suas linhas montadas isoladamente antes do flush: um item inválido (ou cujo
+     * payload não pode ser montado) volta com o motivo em {@link EnqueuedItem#error()} e não grava nada,
+     * sem afetar os demais.
+     * Com {@code claimNodeId} as linhas já nascem reivindicadas por esse nó, que fica responsável pela entrega;
+     * sem ele ficam 'pending' para o dispatcher. O {@link BatchJob} do lote é criado (ou, em um ingest
+     * recebido em blocos, atualizado) na mesma transação.
+     *
+     * @return resultado de cada requisição, na mesma ordem da entrada
+     */
+    @Transactional
+    public List<EnqueuedItem> enqueueBatch(List<WorkflowNotificationRequest> requests, String batchId,
+                                           String requestedBy, String claimNodeId, Duration lease) {
+        Objects.requireNonNull(requests, "requests cannot be null");
+        Objects.requireNonNull(batchId, "batchId cannot be null");
+        
+        List<List<RecipientResolution>> resolved = recipientResolver.resolveRecipientsBulk(requests);
+        List<EnqueuedItem> perRequest = new ArrayList<>(requests.size());
+        List<Notification> all = new ArrayList<>();
+        Instant leaseExpiresAt = claimNodeId != null ? Instant.now().plus(lease) : null;
+        
+        for (int i = 0; i < requests.size(); i++) {
+            WorkflowNotificationRequest request = requests.get(i);
+            String error = validate(request);
+            List<Notification> notifications = new ArrayList<>();
+            
+            if (error == null) {
+                try {
+                    String eventId = storeEvent(request, resolved.get(i));
+                    List<String> channels = supportedChannels(request);
+                    
+                    for (RecipientResolution recipient : resolved.get(i)) {
+                        if (!recipient.isValid()) {
+                            LOG.warn("Skipping invalid recipient: {}", recipient);
+                            continue;
+                        }
+                        
+                        for (String channel : channels) {
+                            Notification notification = createNotification(recipient, request, channel, eventId);
+                            notification.setBatchId(batchId);
+                            if (claimNodeId != null) {
+                                notification.claim(claimNodeId, leaseExpiresAt);
+                            }
+                            notifications.add(notification);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                }
+            }
+            
+            if (error != null) {
+                LOG.warn("Rejecting batch {} item {} ({}): {}", batchId, i, request.eventType(), error);
+                perRequest.add(EnqueuedItem.failed(error));
+                continue;
+            }
+            
+            perRequest.add(new EnqueuedItem(notifications, null));
+            all.addAll(notifications);
+        }
+        
+        notificationRepository.persistAll(all);
+        
+        BatchJob job = batchJobRepository.findById(batchId);
+        if (job != null) {
+            job.addItems(requests.size(), all.size());
+        } else {
+            job = new BatchJob(batchId, requests.size(), all.size(), requestedBy);
+            if (all.isEmpty()) {
+                job.markAsCompleted();
+            }
+            batchJobRepository.persist(job);
+        }
+        
+        LOG.info("Batch {} enqueued: {} requests, {} notifications", batchId, requests.size(), all.size());
+        return perRequest;
+    }
+    
+    /**
+     * Violações de validação do item (as mesmas do {@code @Valid} dos endpoints), ou null se for válido.
+     * Os itens de /batch não são validados um a um pelo endpoint.
+     */
+    private String validate(WorkflowNotificationRequest request) {
+        Set<ConstraintViolation<WorkflowNotificationRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+    
+    /**
+     * Item de {@link #enqueueBatch}: as notificações gravadas ou, se o item foi rejeitado, o motivo
+     * (e nenhuma notificação).
+     */
+    public record EnqueuedItem(List<Notification> notifications, String error) {
+        
+        static EnqueuedItem failed(String error) {
+            return new EnqueuedItem(List.of(), error);
+        }
+        
+        public boolean isFailed() {
+            return error != null;
+        }
+    }
+    
+    /**
+     * Entrega uma notificação já persistida, reconstruindo destinatário e evento a partir do payload.
+     * Não abre transação: o resultado deve ser gravado com {@link #recordDeliveryResult(Long, String, String, Instant)}.
+     *
+     * @throws NotificationSendException se o envio falhar
+     */
+    public void deliverNotification(Notification notification) {
+        Objects.requireNonNull(notification, "notification cannot be null");
+        
+        try {
+            sendFromPayload(notification);
+        } catch (NotificationSendException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new NotificationSendException(notification.getChannel().value(), notification.getUserId(),
+                    "Failed to deliver notification " + notification.getId() + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Reivindica um lote de notificações para o nó informado (FOR UPDATE SKIP LOCKED + lease).
+     * A transação é curta: apenas marca as linhas, o envio acontece depois.
+     */
+    @Transactional
+    public List<Notification> claimDispatchBatch(String nodeId, int limit, Duration lease) {
+        Objects.requireNonNull(nodeId, "nodeId cannot be null");
+        Objects.requireNonNull(lease, "lease cannot be null");
+        
+        Instant now = Instant.now();
+        List<Notification> claimed = notificationRepository.findDispatchableForUpdate(now, limit);
+        
+        for (Notification notification : claimed) {
+            notification.claim(nodeId, now.plus(lease));
+        }
+        
+        return claimed;
     }
     
+    /**
+     * Heartbeat: prorroga o lease das notificações ainda em envio neste nó.
+     */
     @Transactional
-    @Retry(maxRetries = 3, delay = 1000)
+    public int extendLeases(String nodeId, Collection<Long> notificationIds, Duration lease) {
+        return notificationRepository.extendLeases(nodeId, notificationIds, Instant.now().plus(lease));
+    }
+    
+    /**
+     * Devolve notificações reivindicadas que não chegaram a ser enviadas (ex.: fila do canal cheia).
+     */
+    @Transactional
+    public int releaseClaims(String nodeId, Collection<Long> notificationIds) {
+        return notificationRepository.releaseClaims(nodeId, notificationIds);
+    }
+    
+    /**
+     * Grava o resultado de uma entrega feita fora de transação e libera o lease.
+     *
+     * @param errorMessage null quando o envio teve sucesso
+     * @param retryAt momento da próxima tentativa em caso de erro; null encerra com status 'error'
+     */
+    @Transactional
+    public void recordDeliveryResult(Long notificationId, String nodeId, String errorMessage, Instant retryAt) {
+        Objects.requireNonNull(notificationId, "notificationId cannot be null");
+        
+        Notification notification = notificationRepository.findById(notificationId);
+        if (notification == null) {
+            LOG.warn("Notification {} disappeared before its delivery result was recorded", notificationId);
+            return;
+        }
+        
+        if (!notification.isClaimedBy(nodeId)) {
+            LOG.warn("Lease for notification {} was lost by node {} (now held by {}), discarding result", 
+                     notificationId, nodeId, notification.getClaimedBy());
+            return;
+        }
+        
+        if (errorMessage == null) {
+            notification.markAsSent();
+        } else if (retryAt != null) {
+            notification.markForRetry(errorMessage, retryAt);
+        } else {
+            notification.markAsError(errorMessage);
+        }
+    }
+    
+    @Transactional
+    @Retry(maxRetries = 3, delay = 1000, abortOn = ChannelSaturatedException.class)
     @Timeout(5000)
     public void processWorkflowNotification(WorkflowNotificationRequest request) {
         Objects.requireNonNull(request, "request cannot be null");
@@ -55,27 +365,40 @@ public class NotificationService {
             List<RecipientResolution> resolvedRecipients = recipientResolver.resolveRecipients(request);
             LOG.debug("Resolved {} recipients for notification", resolvedRecipients.size());
             
-            for (RecipientResolution recipient : resolvedRecipients) {
-                if (!recipient.isValid()) {
-                    LOG.warn("Skipping invalid recipient: {}", recipient);
-                    continue;
-                }
-                
-                for (String channel : request.channels()) {
-                    sendNotificationForChannel(recipient, request, channel);
+            String eventId = storeEvent(request, resolvedRecipients);
+            
+            if (channelWorkerPools.isVirtualThreads()) {
+                sendConcurrently(resolvedRecipients, request, eventId);
+            } else {
+                List<String> channels = supportedChannels(request);
+                List<Notification> notifications = new ArrayList<>();
+                for (RecipientResolution recipient : resolvedRecipients) {
+                    if (!recipient.isValid()) {
+                        LOG.warn("Skipping invalid recipient: {}", recipient);
+                        continue;
+                    }
+                    
+                    for (String channel : channels) {
+                        notifications.add(sendNotificationForChannel(recipient, request, channel, eventId));
+                    }
                 }
+                notificationRepository.persistAll(notifications);
+                LOG.debug("Persisted {} notifications", notifications.size());
             }
             
             LOG.info("Workflow notification {} processed successfully", request.eventType());
             
+        } catch (ChannelSaturatedException e) {
+            throw e;
         } catch (Exception e) {
             LOG.error("Error processing workflow notification {}: {}", request.eventType(), e.getMessage(), e);
             throw new RuntimeException("Failed to process notification: " + e.getMessage(), e);
         }
     }
     
-    private void sendNotificationForChannel(RecipientResolution recipient, WorkflowNotificationRequest request, String channel) {
-        Notification notification = createNotification(recipient, request, channel);
+    private Notification sendNotificationForChannel(RecipientResolution recipient, WorkflowNotificationRequest request, 
+                                                    String channel, String eventId) {
+        Notification notification = createNotification(recipient, request, channel, eventId);
         
         try {
             sendNotification(notification, recipient, request);
@@ -87,10 +410,67 @@ public class NotificationService {
             notification.markAsError(e.getMessage());
             LOG.error("Failed to send {} notification to {}: {}", 
                       channel, recipient.getEmail(), e.getMessage(), e);
-        } finally {
-            notificationRepository.persist(notification);
-            LOG.debug("Notification persisted: {}", notification.getId());
         }
+        
+        return notification;
+    }
+    
+    /**
+     * Modo virtual threads: cada envio (destinatário x canal) roda em uma virtual thread da lane do canal,
+     * respeitando o limite de concorrência dele. Os resultados são gravados de uma vez na thread da requisição,
+     * dentro da transação corrente.
+     */
+    private void sendConcurrently(List<RecipientResolution> recipients, WorkflowNotificationRequest request, 
+                                  String eventId) throws InterruptedException {
+        List<String> channels = supportedChannels(request);
+        channelWorkerPools.ensureCapacity(channels);
+        
+        List<ChannelSend> sends = new ArrayList<>();
+        for (RecipientResolution recipient : recipients) {
+            if (!recipient.isValid()) {
+                LOG.warn("Skipping invalid recipient: {}", recipient);
+                continue;
+            }
+            
+            for (String channel : channels) {
+                Notification notification = createNotification(recipient, request, channel, eventId);
+                CompletableFuture<Void> result = new CompletableFuture<>();
+                try {
+                    channelWorkerPools.submit(channel, () -> {
+                        try {
+                            sendNotification(notification, recipient, request);
+                            result.complete(null);
+                        } catch (Exception e) {
+                            result.completeExceptionally(e);
+                        }
+                    });
+                } catch (ChannelSaturatedException e) {
+                    result.completeExceptionally(e);
+                }
+                sends.add(new ChannelSend(notification, recipient, result));
+            }
+        }
+        
+        for (ChannelSend send : sends) {
+            Notification notification = send.notification();
+            try {
+                send.result().get();
+                notification.markAsSent();
+                LOG.info("Notification sent successfully: {} to {} via {}", 
+                         notification.getEventType(), send.recipient().getEmail(), notification.getChannel());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                notification.markAsError(cause.getMessage());
+                LOG.error("Failed to send {} notification to {}: {}", 
+                          notification.getChannel(), send.recipient().getEmail(), cause.getMessage(), cause);
+            }
+        }
+        
+        notificationRepository.persistAll(sends.stream().map(ChannelSend::notification).toList());
+        LOG.debug("Persisted {} notifications", sends.size());
+    }
+    
+    private record ChannelSend(Notification notification, RecipientResolution recipient, CompletableFuture<Void> result) {
     }
     
     @Transactional
@@ -99,37 +479,18 @@ public class NotificationService {
         
         LOG.info("Retrying notification ID: {}", notification.getId());
         
+        // A instância recebida pode ter vindo da réplica: o estado e a transição valem pelo primário
+        Notification current = notificationRepository.findById(notification.getId());
+        if (current == null) {
+            throw new IllegalArgumentException("Notification not found: " + notification.getId());
+        }
+        notification = current;
+        notification.markAsRetrying();
+        
         try {
-            notification.markAsRetrying();
-            notification = notificationRepository.getEntityManager().merge(notification);
-            
-            Map<String, Object> payload = parseJson(notification.getPayloadJson());
-            
-            if (!payload.containsKey("recipient")) {
-                throw new IllegalArgumentException("Invalid notification payload: missing recipient data");
-            }
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> recipientData = (Map<String, Object>) payload.get("recipient");
-            
-            if (recipientData == null) {
-                throw new IllegalArgumentException("Recipient data is null in notification payload");
-            }
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> eventData = (Map<String, Object>) payload.get("event");
-            
-            if (eventData == null) {
-                eventData = new HashMap<>();
-            }
-            
-            RecipientResolution recipient = reconstructRecipient(recipientData, notification);
-            WorkflowNotificationRequest request = reconstructRequest(eventData, notification);
-            
-            sendNotification(notification, recipient, request);
+            sendFromPayload(notification);
             
             notification.markAsSent();
-            notification = notificationRepository.getEntityManager().merge(notification);
             
             LOG.info("Notification {} retried successfully", notification.getId());
             
@@ -137,42 +498,52 @@ public class NotificationService {
             LOG.error("Retry failed for notification {}: {}", notification.getId(), e.getMessage(), e);
             
             notification.markAsError("Retry failed: " + e.getMessage());
-            notificationRepository.getEntityManager().merge(notification);
             
             throw new RuntimeException("Failed to retry notification: " + e.getMessage(), e);
         }
     }
     
-    private RecipientResolution reconstructRecipient(Map<String, Object> recipientData, Notification notification) {
-        RecipientResolution recipient = new RecipientResolution();
+    private void sendFromPayload(Notification notification) {
+        NotificationPayload payload = readPayload(notification);
         
-        String userId = (String) recipientData.getOrDefault("userId", notification.getUserId());
-        recipient.setUserId(userId);
-        recipient.setEmail((String) recipientData.get("email"));
-        recipient.setName((String) recipientData.get("name"));
-        recipient.setRecipientType((String) recipientData.get("recipientType"));
-        recipient.setPhone((String) recipientData.get("phone"));
+        if (payload.recipient() == null) {
+            throw new IllegalArgumentException("Invalid notification payload: missing recipient data");
+        }
         
-        @SuppressWarnings("unchecked")
-        Map<String, Object> metadata = (Map<String, Object>) recipientData.get("metadata");
-        recipient.setMetadata(metadata);
+        NotificationPayload.Event event = payload.event();
+        if (event == null && notification.getEventId() != null) {
+            event = loadEvent(notification.getEventId());
+        }
         
-        return recipient;
+        RecipientResolution recipient = reconstructRecipient(payload.recipient(), notification);
+        WorkflowNotificationRequest request = reconstructRequest(event, notification);
+        
+        sendNotification(notification, recipient, request);
     }
     
-    private WorkflowNotificationRequest reconstructRequest(Map<String, Object> eventData, Notification notification) {
-        String eventType = notification.getEventType();
-        String entityType = (String) eventData.getOrDefault("entityType", "user");
-        String entityId = (String) eventData.getOrDefault("entityId", notification.getUserId());
+    private RecipientResolution reconstructRecipient(NotificationPayload.Recipient recipientData, Notification notification) {
+        RecipientResolution recipient = new RecipientResolution();
+        
+        recipient.setUserId(recipientData.userId() != null ? recipientData.userId() : notification.getUserId());
+        recipient.setEmail(recipientData.email());
+        recipient.setName(recipientData.name());
+        recipient.setRecipientType(recipientData.recipientType());
+        recipient.setPhone(recipientData.phone());
+        recipient.setMetadata(recipientData.metadata());
         
-        @SuppressWarnings("unchecked")
-        Map<String, Object> context = (Map<String, Object>) eventData.get("context");
+        return recipient;
+    }
+    
+    private WorkflowNotificationRequest reconstructRequest(NotificationPayload.Event eventData, Notification notification) {
+        String entityType = eventData != null && eventData.entityType() != null ? eventData.entityType() : "user";
+        String entityId = eventData != null && eventData.entityId() != null ? eventData.entityId() : notification.getUserId();
+        Map<String, Object> context = eventData != null ? eventData.context() : null;
         
         return new WorkflowNotificationRequest(
-            eventType,
+            notification.getEventType(),
             entityType,
             entityId,
-            List.of(notification.getChannel()),
+            List.of(notification.getChannel().value()),
             List.of("manual"),
             context != null ? context : new HashMap<>()
         );
@@ -180,32 +551,29 @@ public class NotificationService {
     
     private void sendNotification(Notification notification, RecipientResolution recipient, 
                                  WorkflowNotificationRequest request) {
-        String channel = notification.getChannel();
+        String channel = notification.getChannel().value();
         
         LOG.debug("Sending {} notification to {} via {}", 
                  request.eventType(), recipient.getEmail(), channel);
         
         try {
-            switch (channel.toLowerCase()) {
-                case "email":
+            switch (notification.getChannel()) {
+                case EMAIL:
                     emailService.sendEmail(recipient, request);
                     break;
-                case "whatsapp":
+                case WHATSAPP:
                     if (!recipient.hasPhone()) {
                         throw new NotificationSendException(channel, recipient.getUserId(), 
                                 "Recipient has no phone number for WhatsApp");
                     }
                     whatsappService.sendMessage(recipient, request);
                     break;
-                case "in_app":
+                case IN_APP:
                     LOG.info("In-app notification would be sent to: {}", recipient.getEmail());
                     break;
-                case "sms":
+                case SMS:
                     LOG.info("SMS notification would be sent to: {}", recipient.getPhone());
                     break;
-                default:
-                    throw new NotificationSendException(channel, recipient.getUserId(), 
-                            "Unsupported channel: " + channel);
             }
         } catch (Exception e) {
             throw new NotificationSendException(channel, recipient.getUserId(), 
@@ -213,184 +581,327 @@ public class NotificationService {
         }
     }
     
+    /**
+     * Canais do pedido que têm código no banco. Os DTOs já rejeitam canais não suportados na entrada
+     * ({@code @SupportedChannel}); aqui um canal inválido vindo de outro caminho é ignorado com aviso
+     * em vez de derrubar a gravação das demais notificações.
+     */
+    private static List<String> supportedChannels(WorkflowNotificationRequest request) {
+        List<String> channels = new ArrayList<>(request.channels().size());
+        for (String channel : request.channels()) {
+            if (NotificationChannel.isSupported(channel)) {
+                channels.add(channel);
+            } else {
+                LOG.warn("Ignoring unsupported channel '{}' for {} on {} {}",
+                         channel, request.eventType(), request.entityType(), request.entityId());
+            }
+        }
+        return channels;
+    }
+    
     private Notification createNotification(RecipientResolution recipient, 
                                           WorkflowNotificationRequest request, 
-                                          String channel) {
+                                          String channel,
+                                          String eventId) {
         Notification notification = new Notification(
             recipient.getUserId(),
             request.eventType(),
-            channel
+            NotificationChannel.fromValue(channel)
         );
         
-        notification.setPayloadJson(createJsonPayload(recipient, request));
+        Instant now = Instant.now();
+        if (eventId != null) {
+            notification.setEventId(eventId);
+            notification.setPayload(encodePayload(NotificationPayload.forRecipient(recipient, now)));
+        } else {
+            notification.setPayload(encodePayload(NotificationPayload.of(recipient, request.eventType(), request.entityType(),
+                                                                         request.entityId(), request.context(), now)));
+        }
         
         LOG.debug("Created notification for user {}", recipient.getUserId());
         return notification;
     }
     
-    private String createJsonPayload(RecipientResolution recipient, WorkflowNotificationRequest request) {
+    private byte[] encodePayload(NotificationPayload payload) {
         try {
-            Map<String, Object> payload = new HashMap<>();
-            
-            Map<String, Object> recipientMap = new HashMap<>();
-            recipientMap.put("userId", recipient.getUserId());
-            recipientMap.put("email", recipient.getEmail());
-            recipientMap.put("name", recipient.getName());
-            recipientMap.put("recipientType", recipient.getRecipientType());
-            recipientMap.put("phone", recipient.getPhone());
-            recipientMap.put("metadata", recipient.getMetadata());
-            
-            Map<String, Object> eventMap = new HashMap<>();
-            eventMap.put("type", request.eventType());
-            eventMap.put("entityType", request.entityType());
-            eventMap.put("entityId", request.entityId());
-            eventMap.put("context", request.context());
-            eventMap.put("timestamp", Instant.now().toString());
-            
-            payload.put("recipient", recipientMap);
-            payload.put("event", eventMap);
-            payload.put("retryAttempts", 0);
-            payload.put("createdAt", Instant.now().toString());
-            
-            return objectMapper.writeValueAsString(payload);
-            
+            return payloadCodec.encode(payload);
         } catch (Exception e) {
-            LOG.error("Error creating JSON payload: {}", e.getMessage());
-            return createFallbackPayload(recipient, request);
+            // Metadata/contexto não serializáveis: grava só os dados necessários para o reenvio
+            LOG.error("Error creating notification payload: {}", e.getMessage());
+            try {
+                return payloadCodec.encode(payload.withoutExtras());
+            } catch (Exception fallbackError) {
+                throw new IllegalArgumentException("Failed to encode notification payload: " + fallbackError.getMessage(), fallbackError);
+            }
         }
     }
     
-    private String createFallbackPayload(RecipientResolution recipient, WorkflowNotificationRequest request) {
-        StringBuilder json = new StringBuilder();
-        json.append("{");
-        json.append("\"recipient\": {");
-        json.append("\"userId\": \"").append(recipient.getUserId()).append("\",");
-        json.append("\"email\": \"").append(recipient.getEmail()).append("\",");
-        json.append("\"name\": \"").append(recipient.getName()).append("\",");
-        json.append("\"recipientType\": \"").append(recipient.getRecipientType()).append("\"");
-        
-        if (recipient.getPhone() != null) {
-            json.append(",\"phone\": \"").append(recipient.getPhone()).append("\"");
+    /**
+     * Grava (ou reaproveita) o envelope do evento compartilhado pelas notificações do pedido.
+     *
+     * @return chave do envelope, ou null quando não há destinatário válido ou o contexto não serializa
+     *         (as notificações então gravam o payload completo)
+     */
+    private String storeEvent(WorkflowNotificationRequest request, List<RecipientResolution> recipients) {
+        if (recipients.stream().noneMatch(RecipientResolution::isValid)) {
+            return null;
         }
         
-        json.append("},");
-        json.append("\"event\": {");
-        json.append("\"type\": \"").append(request.eventType()).append("\",");
-        json.append("\"entityType\": \"").append(request.entityType()).append("\",");
-        json.append("\"entityId\": \"").append(request.entityId()).append("\"");
-        json.append("},");
-        json.append("\"retryAttempts\": 0,");
-        json.append("\"createdAt\": \"").append(Instant.now().toString()).append("\"");
-        json.append("}");
-        
-        return json.toString();
+        // Sem timestamp: o mesmo evento enviado de novo reaproveita a linha
+        NotificationPayload.Event event = new NotificationPayload.Event(
+            request.eventType(), request.entityType(), request.entityId(), request.context(), null);
+        try {
+            String key = payloadCodec.eventKey(event);
+            notificationEventRepository.saveIfAbsent(new NotificationEvent(
+                key, request.eventType(), request.entityType(), request.entityId(), payloadCodec.encodeEvent(event)));
+            return key;
+        } catch (Exception e) {
+            LOG.warn("Cannot store shared event for {}: {}", request.eventType(), e.getMessage());
+            return null;
+        }
     }
     
-    private Map<String, Object> parseJson(String json) {
-        if (json == null || json.isEmpty()) {
-            LOG.warn("Cannot parse null or empty JSON payload");
-            throw new IllegalArgumentException("JSON payload is null or empty");
+    /**
+     * Envelope de evento pela chave; o conteúdo de uma chave nunca muda, então pode ficar em cache.
+     */
+    @io.quarkus.cache.CacheResult(cacheName = "notification-event-cache")
+    NotificationPayload.Event loadEvent(String eventId) {
+        // Chamado também pelos workers de entrega, fora de transação
+        NotificationEvent event = QuarkusTransaction.joiningExisting()
+                .call(() -> notificationEventRepository.findById(eventId));
+        if (event == null) {
+            throw new IllegalArgumentException("Invalid notification payload: event " + eventId + " not found");
         }
-        
         try {
-            // Se o JSON começar e terminar com aspas, removê-las
-            String actualJson = json;
-            if (json.startsWith("\"") && json.endsWith("\"")) {
-                LOG.warn("JSON payload has outer quotes, removing them");
-                actualJson = json.substring(1, json.length() - 1);
-                // Unescape escaped quotes
-                actualJson = actualJson.replace("\\\"", "\"");
+            return payloadCodec.decodeEvent(event.getPayload());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to parse notification event: " + e.getMessage(), e);
+        }
+    }
+    
+    private NotificationPayload readPayload(Notification notification) {
+        try {
+            if (notification.getPayload() != null) {
+                return payloadCodec.decode(notification.getPayload());
             }
-            
-            return objectMapper.readValue(actualJson, new TypeReference<Map<String, Object>>() {});
+            return payloadCodec.decodeLegacyJson(notification.getPayloadJson());
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Cannot read payload of notification {}: {}", notification.getId(), e.getMessage());
+            throw e;
         } catch (Exception e) {
-            LOG.error("Error parsing JSON payload: {}", e.getMessage(), e);
+            LOG.error("Error parsing notification payload: {}", e.getMessage(), e);
             throw new IllegalArgumentException("Failed to parse notification payload: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Regrava no formato binário até {@code limit} notificações que ainda só têm {@code payload_json}.
+     * Linhas ilegíveis ficam como estão e são puladas nas próximas páginas.
+     *
+     * @return notificações convertidas
+     */
     @Transactional
-    public void cleanupOldNotifications(int daysToKeep) {
-        Instant cutoffDate = Instant.now().minusSeconds((long) daysToKeep * 24 * 60 * 60);
-        
-        long deletedCount = notificationRepository.delete(
-            "createdAt < ?1 and status in ('sent', 'error')", 
-            cutoffDate
-        );
+    public int migrateLegacyPayloads(int limit) {
+        List<Notification> page = notificationRepository.findLegacyPayloadPage(legacyPayloadCursor, limit);
+        int migrated = 0;
+        
+        for (Notification notification : page) {
+            legacyPayloadCursor = notification.getId();
+            try {
+                notification.setPayload(payloadCodec.encode(payloadCodec.decodeLegacyJson(notification.getPayloadJson())));
+                notification.setPayloadJson(null);
+                migrated++;
+            } catch (Exception e) {
+                LOG.warn("Skipping legacy payload of notification {}: {}", notification.getId(), e.getMessage());
+            }
+        }
         
-        LOG.info("Cleaned up {} old notifications older than {} days", deletedCount, daysToKeep);
+        if (page.size() < limit) {
+            legacyPayloadCursor = 0;
+        }
+        if (migrated > 0) {
+            LOG.info("Migrated {} legacy notification payloads to {}", migrated, payloadCodec.getFormat());
+        }
+        return migrated;
+    }
+    
+    @Scheduled(every = "${notification.payload.backfill-interval:off}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void backfillLegacyPayloads() {
+        migrateLegacyPayloads(legacyBackfillBatchSize);
     }
     
     @io.quarkus.cache.CacheResult(cacheName = "notification-status-cache")
     public String getNotificationStatusWithCache(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId);
-        return notification != null ? notification.getStatus() : "not_found";
+        return notification != null ? notification.getStatus().value() : "not_found";
     }
     
-    public Notification findNotificationById(Long id) {
-        Objects.requireNonNull(id, "id cannot be null");
-        return notificationRepository.findById(id);
+    /**
+     * Abre um lote que será recebido em blocos (ingest NDJSON); fica 'receiving' até {@link #closeBatchJob(String)}.
+     */
+    @Transactional
+    public BatchJob openBatchJob(String jobId, String requestedBy) {
+        BatchJob job = new BatchJob(jobId, 0, 0, requestedBy);
+        job.markAsReceiving();
+        batchJobRepository.persist(job);
+        return job;
     }
     
-    public List<Notification> listNotifications(
-            int page, 
-            int size,
-            String status,
-            String channel,
-            String eventType,
-            Instant startDate,
-            Instant endDate) {
-        
-        StringBuilder query = new StringBuilder("1=1");
-        Map<String, Object> params = new HashMap<>();
+    /**
+     * Encerra o recebimento de um lote aberto com {@link #openBatchJob(String, String)}.
+     */
+    @Transactional
+    public void closeBatchJob(String jobId) {
+        BatchJob job = batchJobRepository.findById(jobId);
+        if (job == null) {
+            return;
+        }
         
-        if (status != null && !status.isEmpty()) {
-            query.append(" and status = :status");
-            params.put("status", status);
+        if (job.getTotalNotifications() == 0) {
+            job.markAsCompleted();
+        } else {
+            job.markAsRunning();
         }
+    }
+    
+    /**
+     * Reivindica a próxima página de notificações pendentes de um lote (FOR UPDATE SKIP LOCKED + lease).
+     */
+    @Transactional
+    public List<Notification> claimBatchPage(String jobId, String nodeId, int limit, Duration lease) {
+        Instant now = Instant.now();
+        List<Notification> claimed = notificationRepository.findDispatchableInBatchForUpdate(jobId, now, limit);
         
-        if (channel != null && !channel.isEmpty()) {
-            query.append(" and channel = :channel");
-            params.put("channel", channel);
+        for (Notification notification : claimed) {
+            notification.claim(nodeId, now.plus(lease));
         }
         
-        if (eventType != null && !eventType.isEmpty()) {
-            query.append(" and eventType = :eventType");
-            params.put("eventType", eventType);
+        return claimed;
+    }
+    
+    /**
+     * Progresso de um lote, agregado das notificações. Só leitura: a conclusão do job é marcada
+     * por quem entrega ({@link #completeBatchIfFinished(String)}).
+     */
+    @Transactional
+    public Optional<BatchProgress> getBatchProgress(String jobId) {
+        Objects.requireNonNull(jobId, "jobId cannot be null");
+        
+        BatchJob job = batchJobRepository.findById(jobId);
+        if (job == null) {
+            return Optional.empty();
         }
         
-        if (startDate != null) {
-            query.append(" and createdAt >= :startDate");
-            params.put("startDate", startDate);
+        return Optional.of(new BatchProgress(job, notificationRepository.countByStatusForBatch(jobId)));
+    }
+    
+    @Transactional
+    public boolean batchJobExists(String jobId) {
+        return batchJobRepository.count("id", jobId) > 0;
+    }
+    
+    /**
+     * Marca o lote como concluído se não resta notificação pendente ou aguardando nova tentativa.
+     * Chamado ao fim da entrega inline e pelo dispatcher depois de gravar resultados de lotes.
+     *
+     * @return true se o job foi concluído agora
+     */
+    @Transactional
+    public boolean completeBatchIfFinished(String jobId) {
+        Objects.requireNonNull(jobId, "jobId cannot be null");
+        
+        BatchJob job = batchJobRepository.findById(jobId);
+        if (job == null || !job.isRunning()) {
+            return false;
         }
         
-        if (endDate != null) {
-            query.append(" and createdAt <= :endDate");
-            params.put("endDate", endDate);
+        if (new BatchProgress(job, notificationRepository.countByStatusForBatch(jobId)).outstanding() > 0) {
+            return false;
         }
         
-        return notificationRepository.find(query.toString(), 
-                io.quarkus.panache.common.Sort.descending("createdAt"), params)
-                .page(page, size)
-                .list();
+        job.markAsCompleted();
+        LOG.info("Batch {} completed", jobId);
+        return true;
+    }
+    
+    /**
+     * Página de resultados de um lote a partir do cursor (id da última notificação lida).
+     */
+    @Transactional
+    public List<Notification> findBatchResults(String jobId, long afterId, int limit) {
+        return notificationRepository.findBatchPage(jobId, afterId, limit);
+    }
+    
+    @ReadReplica
+    public Notification findNotificationById(Long id) {
+        Objects.requireNonNull(id, "id cannot be null");
+        return notificationRepository.findForRead(id);
+    }
+    
+    /**
+     * Listagem admin por cursor, das mais recentes para as mais antigas.
+     *
+     * @param cursor {@code nextCursor} da página anterior, ou null para a primeira página
+     * @throws IllegalArgumentException se o cursor for inválido
+     */
+    @ReadReplica
+    public NotificationPage listNotifications(
+            String cursor,
+            int size,
+            NotificationStatus status,
+            NotificationChannel channel,
+            String eventType,
+            Instant startDate,
+            Instant endDate) {
+        
+        Map<String, Object> params = new HashMap<>();
+        String filter = buildListFilter(params, status, channel, eventType, startDate, endDate);
+        
+        List<Notification> fetched = notificationRepository.findPageAfter(filter, params, decodeCursor(cursor), size + 1);
+        return NotificationPage.of(fetched, size);
     }
     
-    public long countNotifications(
-            String status,
-            String channel,
+    /**
+     * Total para a listagem admin sem varrer a tabela: sem filtros, usa a estimativa do PostgreSQL;
+     * com filtros, conta até {@code notification.listing.count-cap} linhas.
+     */
+    @ReadReplica
+    public TotalCount countNotifications(
+            NotificationStatus status,
+            NotificationChannel channel,
             String eventType,
             Instant startDate,
             Instant endDate) {
         
-        StringBuilder query = new StringBuilder("1=1");
         Map<String, Object> params = new HashMap<>();
+        String filter = buildListFilter(params, status, channel, eventType, startDate, endDate);
         
-        if (status != null && !status.isEmpty()) {
+        if (params.isEmpty() && isPostgreSQL()) {
+            long estimate = notificationRepository.estimateRowCount();
+            if (estimate >= countCap) {
+                return TotalCount.approximate(estimate);
+            }
+        }
+        
+        long count = notificationRepository.countUpTo(filter, params, countCap);
+        return count >= countCap ? TotalCount.approximate(count) : TotalCount.exact(count);
+    }
+    
+    private static String buildListFilter(Map<String, Object> params,
+                                          NotificationStatus status,
+                                          NotificationChannel channel,
+                                          String eventType,
+                                          Instant startDate,
+                                          Instant endDate) {
+        StringBuilder query = new StringBuilder("1=1");
+        
+        if (status != null) {
             query.append(" and status = :status");
             params.put("status", status);
         }
         
-        if (channel != null && !channel.isEmpty()) {
+        if (channel != null) {
             query.append(" and channel = :channel");
             params.put("channel", channel);
         }
@@ -410,7 +921,15 @@ public class NotificationService {
             params.put("endDate", endDate);
         }
         
-        return notificationRepository.find(query.toString(), params).count();
+        return query.toString();
+    }
+    
+    private static NotificationCursor decodeCursor(String cursor) {
+        return cursor == null || cursor.isBlank() ? null : NotificationCursor.decode(cursor);
+    }
+    
+    private boolean isPostgreSQL() {
+        return dbKind.toLowerCase().startsWith("postgres");
     }
     
     @Transactional
@@ -419,106 +938,51 @@ public class NotificationService {
         notificationRepository.deleteById(id);
     }
     
-    public List<Notification> getUserNotifications(String userId, String status, int limit) {
+    /**
+     * Histórico de um usuário por cursor, das mais recentes para as mais antigas
+     * (índice {@code idx_notifications_user_created}).
+     *
+     * @throws IllegalArgumentException se o cursor for inválido
+     */
+    @ReadReplica
+    public NotificationPage getUserNotifications(String userId, NotificationStatus status, String cursor, int limit) {
         Objects.requireNonNull(userId, "userId cannot be null");
         
         StringBuilder query = new StringBuilder("userId = :userId");
         Map<String, Object> params = new HashMap<>();
         params.put("userId", userId);
         
-        if (status != null && !status.isEmpty()) {
+        if (status != null) {
             query.append(" and status = :status");
             params.put("status", status);
         }
         
-        return notificationRepository.find(query.toString(), params)
-                .range(0, limit)
-                .list();
-    }
-    
-    public Map<String, Object> getStatistics(int days) {
-        Instant since = Instant.now().minusSeconds((long) days * 24 * 60 * 60);
-        
-        long total = notificationRepository.count("createdAt >= ?1", since);
-        long sent = notificationRepository.count("status = ?1 and createdAt >= ?2", "sent", since);
-        long error = notificationRepository.count("status = ?1 and createdAt >= ?2", "error", since);
-        long pending = notificationRepository.count("status = ?1 and createdAt >= ?2", "pending", since);
-        
-        Map<String, Long> byChannel = new HashMap<>();
-        String[] channels = {"email", "whatsapp", "sms", "in_app"};
-        for (String channel : channels) {
-            long count = notificationRepository.count("channel = ?1 and createdAt >= ?2", channel, since);
-            if (count > 0) {
-                byChannel.put(channel, count);
-            }
-        }
-        
-        Map<String, Long> byEventType = new HashMap<>();
-        try {
-            var eventResults = notificationRepository.getEntityManager()
-                    .createQuery("SELECT n.eventType, COUNT(n) FROM Notification n WHERE n.createdAt >= :since GROUP BY n.eventType", Object[].class)
-                    .setParameter("since", since)
-                    .setMaxResults(5)
-                    .getResultList();
-            
-            for (Object[] row : eventResults) {
-                byEventType.put((String) row[0], (Long) row[1]);
-            }
-        } catch (Exception e) {
-            LOG.warn("Could not get event type statistics: {}", e.getMessage());
-        }
-        
-        Map<String, Long> byDay = new HashMap<>();
-        try {
-            var dailyResults = notificationRepository.getEntityManager()
-                    .createNativeQuery("SELECT DATE_FORMAT(created_at, '%Y-%m-%d'), COUNT(*) FROM notifications WHERE created_at >= ? GROUP BY DATE_FORMAT(created_at, '%Y-%m-%d')")
-                    .setParameter(1, since)
-                    .getResultList();
-            
-            for (Object row : dailyResults) {
-                Object[] columns = (Object[]) row;
-                byDay.put(columns[0].toString(), ((Number) columns[1]).longValue());
-            }
-        } catch (Exception e) {
-            LOG.warn("Could not get daily statistics (falling back to basic): {}", e.getMessage());
-            var allNotifications = notificationRepository.find("createdAt >= ?1", since).list();
-            for (var notif : allNotifications) {
-                String date = notif.getCreatedAt().toString().substring(0, 10);
-                byDay.put(date, byDay.getOrDefault(date, 0L) + 1);
-            }
-        }
-        
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("periodDays", days);
-        stats.put("since", since.toString());
-        stats.put("total", total);
-        stats.put("sent", sent);
-        stats.put("error", error);
-        stats.put("pending", pending);
-        stats.put("successRate", total > 0 ? 
-            String.format("%.1f%%", (double) sent / total * 100) : "0%");
-        stats.put("byChannel", byChannel);
-        stats.put("byEventType", byEventType);
-        stats.put("byDay", byDay);
-        
-        return stats;
+        List<Notification> fetched = notificationRepository.findPageAfter(query.toString(), params, 
+                                                                          decodeCursor(cursor), limit + 1);
+        return NotificationPage.of(fetched, limit);
     }
     
     public Map<String, Object> getHealthStatus() {
         try {
-            long total = notificationRepository.count();
-            long pending = notificationRepository.count("status = ?1", "pending");
-            long error = notificationRepository.count("status = ?1", "error");
-            long sent = notificationRepository.count("status = ?1", "sent");
+            // Contagens vêm dos contadores em memória; o banco só é tocado para checar a conexão
+            notificationRepository.getEntityManager().createNativeQuery("select 1").getSingleResult();
+            
+            Map<String, Object> recent = new HashMap<>();
+            recent.put("windowMinutes", notificationCounters.getWindowMinutes());
+            recent.put("created", notificationCounters.recent(NotificationCounters.CREATED));
+            recent.put("sent", notificationCounters.recent(NotificationStatus.SENT.value()));
+            recent.put("error", notificationCounters.recent(NotificationStatus.ERROR.value()));
             
             Map<String, Object> health = new HashMap<>();
             health.put("status", "UP");
             health.put("timestamp", Instant.now().toString());
             health.put("database", "connected");
-            health.put("totalNotifications", total);
-            health.put("pendingNotifications", pending);
-            health.put("errorNotifications", error);
-            health.put("sentNotifications", sent);
+            health.put("totalNotifications", notificationCounters.total());
+            health.put("pendingNotifications", notificationCounters.countByStatus(NotificationStatus.PENDING.value()));
+            health.put("errorNotifications", notificationCounters.countByStatus(NotificationStatus.ERROR.value()));
+            health.put("sentNotifications", notificationCounters.countByStatus(NotificationStatus.SENT.value()));
+            health.put("byChannel", notificationCounters.countByChannel());
+            health.put("recent", recent);
             
             return health;
         } catch (Exception e) {
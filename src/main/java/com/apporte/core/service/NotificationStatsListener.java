@@ -0,0 +1,51 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.Notification;
+import com.apporte.core.model.NotificationStatus;
+import jakarta.inject.Inject;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Alimenta o rollup de estatísticas e os contadores em memória a cada insert, mudança de status
+ * ou remoção de uma {@link Notification}. Remoções só descontam dos contadores: o rollup guarda o histórico.
+ */
+public class NotificationStatsListener {
+    
+    @Inject
+    NotificationStatsService notificationStatsService;
+    
+    @Inject
+    NotificationCounters notificationCounters;
+    
+    @PostLoad
+    void onLoad(Notification notification) {
+        notification.statusPersisted();
+    }
+    
+    @PostPersist
+    void onPersist(Notification notification) {
+        notificationStatsService.recordTransition(notification, null, notification.getStatus().value());
+        notificationCounters.recordTransition(notification, null, notification.getStatus().value());
+        notification.statusPersisted();
+    }
+    
+    @PostUpdate
+    void onUpdate(Notification notification) {
+        NotificationStatus previous = notification.persistedStatus();
+        if (previous != null && previous != notification.getStatus()) {
+            notificationStatsService.recordTransition(notification, previous.value(), notification.getStatus().value());
+            notificationCounters.recordTransition(notification, previous.value(), notification.getStatus().value());
+        }
+        notification.statusPersisted();
+    }
+    
+    @PostRemove
+    void onRemove(Notification notification) {
+        if (notification.persistedStatus() != null) {
+            notificationCounters.recordRemoval(notification.persistedStatus().value(), notification.getChannel().value(), 1);
+        }
+    }
+}
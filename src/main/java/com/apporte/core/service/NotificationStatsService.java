@@ -0,0 +1,213 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.Notification;
+import com.apporte.core.model.NotificationStatsBucket;
+import com.apporte.core.model.NotificationStatsKey;
+import com.apporte.core.repository.NotificationStatsRepository;
+import com.apporte.infrastructure.persistence.ReadReplica;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Estatísticas de notificações a partir de um rollup por (hora/dia, canal, tipo de evento, status),
+ * sem varrer {@code notifications}.
+ * <p>
+ * Cada transição de status vira um delta (-1 no status anterior, +1 no novo). Os deltas de uma transação
+ * são somados por chave e inseridos na mesma transação, logo antes do commit: a mudança de status e o
+ * rollup são confirmados (ou desfeitos) juntos. As linhas são só inseridas, sem disputa por chave;
+ * a compactação funde as de mesma chave e agrega em dias as horas mais antigas que
+ * {@code notification.stats.hourly-retention}.
+ */
+@ApplicationScoped
+public class NotificationStatsService {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(NotificationStatsService.class);
+    private static final int TOP_EVENT_TYPES = 5;
+    
+    private final NotificationStatsRepository statsRepository;
+    private final TransactionSynchronizationRegistry transactionRegistry;
+    private final Duration hourlyRetention;
+    private final int compactBatchSize;
+    private final Object resourceKey = new Object();
+    
+    public NotificationStatsService(NotificationStatsRepository statsRepository,
+                                    TransactionSynchronizationRegistry transactionRegistry,
+                                    @ConfigProperty(name = "notification.stats.hourly-retention", defaultValue = "7d") Duration hourlyRetention,
+                                    @ConfigProperty(name = "notification.stats.compact-batch-size", defaultValue = "5000") int compactBatchSize) {
+        this.statsRepository = Objects.requireNonNull(statsRepository, "statsRepository cannot be null");
+        this.transactionRegistry = Objects.requireNonNull(transactionRegistry, "transactionRegistry cannot be null");
+        this.hourlyRetention = Objects.requireNonNull(hourlyRetention, "hourlyRetention cannot be null");
+        this.compactBatchSize = compactBatchSize;
+    }
+    
+    /**
+     * Registra a mudança de status de uma notificação ({@code from} null para uma notificação nova).
+     * Dentro de uma transação, o delta é gravado nela mesma antes do commit.
+     */
+    public void recordTransition(Notification notification, String from, String to) {
+        boolean inTransaction = transactionRegistry.getTransactionStatus() != Status.STATUS_NO_TRANSACTION;
+        Map<NotificationStatsKey, Long> deltas = inTransaction ? currentTransactionDeltas() : new HashMap<>();
+        
+        if (from != null) {
+            deltas.merge(NotificationStatsKey.hourly(notification, from), -1L, Long::sum);
+        }
+        deltas.merge(NotificationStatsKey.hourly(notification, to), 1L, Long::sum);
+        
+        if (!inTransaction) {
+            QuarkusTransaction.requiringNew().run(() -> statsRepository.persist(toRows(deltas)));
+        }
+    }
+    
+    /**
+     * Deltas da transação corrente. No primeiro, registra na sessão do Hibernate a gravação que roda
+     * depois do flush de commit (onde as transições são detectadas) e antes do commit do banco.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<NotificationStatsKey, Long> currentTransactionDeltas() {
+        Map<NotificationStatsKey, Long> deltas = (Map<NotificationStatsKey, Long>) transactionRegistry.getResource(resourceKey);
+        if (deltas != null) {
+            return deltas;
+        }
+        
+        Map<NotificationStatsKey, Long> created = new HashMap<>();
+        transactionRegistry.putResource(resourceKey, created);
+        statsRepository.getEntityManager().unwrap(SessionImplementor.class).getActionQueue()
+                .registerProcess((BeforeTransactionCompletionProcess) session -> writeDeltas(session, created));
+        return created;
+    }
+    
+    private static void writeDeltas(SessionImplementor session, Map<NotificationStatsKey, Long> deltas) {
+        List<NotificationStatsBucket> rows = toRows(deltas);
+        if (rows.isEmpty()) {
+            return;
+        }
+        
+        rows.forEach(session::persist);
+        session.flush();
+    }
+    
+    private static List<NotificationStatsBucket> toRows(Map<NotificationStatsKey, Long> deltas) {
+        List<NotificationStatsBucket> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            if (delta != 0) {
+                rows.add(new NotificationStatsBucket(key, delta));
+            }
+        });
+        return rows;
+    }
+    
+    /**
+     * Funde linhas de mesma chave e converte em diárias as linhas horárias além da retenção.
+     */
+    @Scheduled(every = "${notification.stats.compact-interval:5m}", 
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void compact() {
+        Instant hourlyCutoff = Instant.now().minus(hourlyRetention).truncatedTo(ChronoUnit.DAYS);
+        
+        int compacted = QuarkusTransaction.requiringNew().call(() -> {
+            List<NotificationStatsBucket> rows = statsRepository.findCompactableForUpdate(hourlyCutoff, compactBatchSize);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            
+            Map<NotificationStatsKey, Long> sums = new HashMap<>();
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (NotificationStatsBucket row : rows) {
+                NotificationStatsKey key = row.getKey();
+                if (NotificationStatsBucket.GRANULARITY_HOUR.equals(key.granularity()) 
+                        && key.bucketStart().isBefore(hourlyCutoff)) {
+                    key = key.toDaily();
+                }
+                sums.merge(key, row.getCount(), Long::sum);
+                ids.add(row.getId());
+            }
+            
+            statsRepository.deleteByIds(ids);
+            statsRepository.persist(sums.entrySet().stream()
+                    .filter(entry -> entry.getValue() != 0)
+                    .map(entry -> new NotificationStatsBucket(entry.getKey(), entry.getValue())));
+            return rows.size();
+        });
+        
+        if (compacted > 0) {
+            LOG.debug("Compacted {} notification stats rows", compacted);
+        }
+    }
+    
+    /**
+     * Estatísticas das notificações criadas nos últimos {@code days} dias, lidas do rollup.
+     */
+    @ReadReplica
+    public Map<String, Object> getStatistics(int days) {
+        Instant since = Instant.now().minus(days, ChronoUnit.DAYS);
+        
+        Map<NotificationStatsKey, Long> sums = statsRepository.sumSince(since);
+        
+        long total = 0;
+        Map<String, Long> byStatus = new HashMap<>();
+        Map<String, Long> byChannel = new HashMap<>();
+        Map<String, Long> byEventType = new HashMap<>();
+        Map<String, Long> byDay = new TreeMap<>();
+        
+        for (Map.Entry<NotificationStatsKey, Long> entry : sums.entrySet()) {
+            NotificationStatsKey key = entry.getKey();
+            long count = entry.getValue();
+            
+            total += count;
+            byStatus.merge(key.status(), count, Long::sum);
+            byChannel.merge(key.channel(), count, Long::sum);
+            byEventType.merge(key.eventType(), count, Long::sum);
+            byDay.merge(key.bucketStart().toString().substring(0, 10), count, Long::sum);
+        }
+        
+        byChannel.values().removeIf(count -> count <= 0);
+        byDay.values().removeIf(count -> count <= 0);
+        
+        long sent = byStatus.getOrDefault("sent", 0L);
+        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("periodDays", days);
+        stats.put("since", since.toString());
+        stats.put("total", total);
+        stats.put("sent", sent);
+        stats.put("error", byStatus.getOrDefault("error", 0L));
+        stats.put("pending", byStatus.getOrDefault("pending", 0L));
+        stats.put("successRate", total > 0 ? 
+            String.format("%.1f%%", (double) sent / total * 100) : "0%");
+        stats.put("byChannel", byChannel);
+        stats.put("byEventType", topEventTypes(byEventType));
+        stats.put("byDay", byDay);
+        
+        return stats;
+    }
+    
+    private static Map<String, Long> topEventTypes(Map<String, Long> byEventType) {
+        Map<String, Long> top = new LinkedHashMap<>();
+        byEventType.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(TOP_EVENT_TYPES)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+}
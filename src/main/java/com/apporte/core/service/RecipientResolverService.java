@@ -4,36 +4,98 @@ import com.apporte.api.dto.WorkflowNotificationRequest;
 import com.apporte.core.model.RecipientResolution;
 import com.apporte.core.model.User;
 import com.apporte.core.model.Project;
+import com.apporte.core.model.UserContact;
 import com.apporte.core.repository.UserRepository;
 import com.apporte.core.repository.ProjectRepository;
 import com.apporte.infrastructure.client.dto.KeycloakUserResponse;
-import io.quarkus.cache.CacheResult;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.cache.CaffeineCache;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
+/**
+ * Resolve os destinatários de um evento a partir dos tipos pedidos na requisição.
+ * <p>
+ * Os dados de cada fonte ficam em caches próprios, limitados e com TTL
+ * ({@code quarkus.cache.caffeine."recipient-*"}): dono por projectId, conjunto de admins e usuário por
+ * id ou email. Eventos repetidos do mesmo projeto ou com os mesmos participantes não voltam ao banco,
+ * qualquer que seja o contexto. Ausências não são guardadas, para que usuários novos apareçam na hora.
+ * Com o {@link UserDirectory} ativo, usuários e admins vêm do snapshot em memória; só quem não está nele
+ * passa pelos caches e pelo banco.
+ */
 @ApplicationScoped
 public class RecipientResolverService {
     
     private static final Logger LOG = LoggerFactory.getLogger(RecipientResolverService.class);
     
+    private static final int MAX_LOGGED_MISSES = 20;
+    
+    private static final String ADMINS_KEY = "admins";
+    
     private final UserRepository userRepository;
     private final ProjectRepository projectRepository;
-    private final KeycloakService keycloakService;
+    private final KeycloakUserLoader keycloakUserLoader;
+    private final UserDirectory userDirectory;
+    private final CaffeineCache projectOwnerCache;
+    private final CaffeineCache adminsCache;
+    private final CaffeineCache userByIdCache;
+    private final CaffeineCache userByEmailCache;
     
     public RecipientResolverService(UserRepository userRepository,
                                    ProjectRepository projectRepository,
-                                   KeycloakService keycloakService) {
+                                   KeycloakUserLoader keycloakUserLoader,
+                                   UserDirectory userDirectory,
+                                   @CacheName("recipient-project-owner-cache") Cache projectOwnerCache,
+                                   @CacheName("recipient-admins-cache") Cache adminsCache,
+                                   @CacheName("recipient-user-cache") Cache userByIdCache,
+                                   @CacheName("recipient-user-email-cache") Cache userByEmailCache) {
         this.userRepository = userRepository;
         this.projectRepository = projectRepository;
-        this.keycloakService = keycloakService;
+        this.keycloakUserLoader = Objects.requireNonNull(keycloakUserLoader, "keycloakUserLoader cannot be null");
+        this.userDirectory = Objects.requireNonNull(userDirectory, "userDirectory cannot be null");
+        this.projectOwnerCache = Objects.requireNonNull(projectOwnerCache, "projectOwnerCache cannot be null").as(CaffeineCache.class);
+        this.adminsCache = Objects.requireNonNull(adminsCache, "adminsCache cannot be null").as(CaffeineCache.class);
+        this.userByIdCache = Objects.requireNonNull(userByIdCache, "userByIdCache cannot be null").as(CaffeineCache.class);
+        this.userByEmailCache = Objects.requireNonNull(userByEmailCache, "userByEmailCache cannot be null").as(CaffeineCache.class);
     }
     
-    @CacheResult(cacheName = "recipients-cache")
     public List<RecipientResolution> resolveRecipients(WorkflowNotificationRequest request) {
+        return resolve(request, null);
+    }
+    
+    /**
+     * Resolve destinatários de várias requisições de uma vez. Usuários de destinatários
+     * "manual" são carregados em uma única consulta, em vez de uma por item.
+     *
+     * @return destinatários de cada requisição, na mesma ordem da entrada
+     */
+    public List<List<RecipientResolution>> resolveRecipientsBulk(List<WorkflowNotificationRequest> requests) {
+        Set<String> manualIds = new HashSet<>();
+        for (WorkflowNotificationRequest request : requests) {
+            if (request.recipients().contains("manual") && request.entityId() != null) {
+                manualIds.add(request.entityId());
+            }
+        }
+        
+        Map<String, UserContact> knownUsers = findUsersByIds(manualIds);
+        LOG.debug("Preloaded {} of {} manual recipients", knownUsers.size(), manualIds.size());
+        
+        List<List<RecipientResolution>> resolved = new ArrayList<>(requests.size());
+        for (WorkflowNotificationRequest request : requests) {
+            resolved.add(resolve(request, knownUsers));
+        }
+        return resolved;
+    }
+    
+    private List<RecipientResolution> resolve(WorkflowNotificationRequest request, Map<String, UserContact> knownUsers) {
         LOG.debug("Resolving recipients for event: {}, entity: {}", 
                  request.eventType(), request.entityId());
         
@@ -56,7 +118,7 @@ public class RecipientResolverService {
                     recipients.addAll(resolveSpecificUsers(request.context()));
                     break;
                 case "manual":
-                    recipients.addAll(resolveManualRecipient(request.entityId(), request.context()));
+                    recipients.addAll(resolveManualRecipient(request.entityId(), request.context(), knownUsers));
                     break;
                 default:
                     LOG.warn("Unknown recipient type: {}", recipientType);
@@ -72,25 +134,30 @@ public class RecipientResolverService {
         List<RecipientResolution> result = new ArrayList<>();
         
         try {
-            Optional<Project> projectOpt = projectRepository.findProjectById(projectId);
+            UserContact user = cached(projectOwnerCache, projectId);
             
-            if (projectOpt.isEmpty()) {
-                LOG.warn("Project not found: {}", projectId);
-                return result;
+            if (user == null) {
+                Optional<Project> projectOpt = projectRepository.findProjectById(projectId);
+                
+                if (projectOpt.isEmpty()) {
+                    LOG.warn("Project not found: {}", projectId);
+                    return result;
+                }
+                
+                Project project = projectOpt.get();
+                LOG.debug("Found project owner: id={}, email={}, name={}", 
+                         project.getOwnerId(), project.getOwnerEmail(), project.getOwnerName());
+                
+                // Buscar ou criar cache do usuário
+                user = UserContact.from(getOrCreateUser(project.getOwnerId(), project.getOwnerEmail(), project.getOwnerName()));
+                projectOwnerCache.put(projectId, CompletableFuture.completedFuture(user));
             }
             
-            Project project = projectOpt.get();
-            LOG.debug("Found project owner: id={}, email={}, name={}", 
-                     project.getOwnerId(), project.getOwnerEmail(), project.getOwnerName());
-            
-            // Buscar ou criar cache do usuário
-            User user = getOrCreateUser(project.getOwnerId(), project.getOwnerEmail(), project.getOwnerName());
-            
             RecipientResolution rr = new RecipientResolution();
-            rr.setUserId(project.getOwnerId());
-            rr.setEmail(user.getEmail());
-            rr.setName(user.getName());
-            rr.setPhone(user.getPhone());
+            rr.setUserId(user.id());
+            rr.setEmail(user.email());
+            rr.setName(user.name());
+            rr.setPhone(user.phone());
             rr.setRecipientType("project_owner");
             rr.setMetadata(Map.of("project_id", projectId));
             
@@ -109,14 +176,21 @@ public class RecipientResolverService {
         List<RecipientResolution> result = new ArrayList<>();
         
         try {
-            List<User> adminUsers = userRepository.findAdmins();
+            List<UserContact> adminUsers = userDirectory.findByRoles(UserRepository.ADMIN_ROLES);
+            if (adminUsers == null) {
+                adminUsers = cached(adminsCache, ADMINS_KEY);
+            }
+            if (adminUsers == null) {
+                adminUsers = userRepository.findAdmins().stream().map(UserContact::from).toList();
+                adminsCache.put(ADMINS_KEY, CompletableFuture.completedFuture(adminUsers));
+            }
             
-            for (User user : adminUsers) {
+            for (UserContact user : adminUsers) {
                 RecipientResolution rr = new RecipientResolution();
-                rr.setUserId(user.getId());
-                rr.setEmail(user.getEmail());
-                rr.setName(user.getName());
-                rr.setPhone(user.getPhone());
+                rr.setUserId(user.id());
+                rr.setEmail(user.email());
+                rr.setName(user.name());
+                rr.setPhone(user.phone());
                 rr.setRecipientType("admin");
                 rr.setMetadata(Map.of("role", "admin"));
                 
@@ -165,17 +239,18 @@ public class RecipientResolverService {
             List<String> participantIds = (List<String>) context.get("participant_ids");
             
             if (participantIds != null && !participantIds.isEmpty()) {
+                Map<String, UserContact> users = findUsersByIds(participantIds);
+                
+                List<String> missing = new ArrayList<>();
                 for (String participantId : participantIds) {
-                    Optional<User> userOpt = userRepository.findByKeycloakId(participantId);
+                    UserContact user = users.get(participantId);
                     
-                    if (userOpt.isPresent()) {
-                        User user = userOpt.get();
-                        
+                    if (user != null) {
                         RecipientResolution rr = new RecipientResolution();
-                        rr.setUserId(user.getId());
-                        rr.setEmail(user.getEmail());
-                        rr.setName(user.getName());
-                        rr.setPhone(user.getPhone());
+                        rr.setUserId(user.id());
+                        rr.setEmail(user.email());
+                        rr.setName(user.name());
+                        rr.setPhone(user.phone());
                         rr.setRecipientType("workflow_participant");
                         rr.setMetadata(Map.of(
                             "context", "workflow",
@@ -183,8 +258,11 @@ public class RecipientResolverService {
                         ));
                         
                         result.add(rr);
+                    } else {
+                        missing.add(participantId);
                     }
                 }
+                logMissing("workflow participants", missing, participantIds.size());
             }
             
             LOG.info("Resolved {} workflow participants from context", result.size());
@@ -209,17 +287,18 @@ public class RecipientResolverService {
             List<String> userEmails = (List<String>) context.get("user_emails");
             
             if (userEmails != null && !userEmails.isEmpty()) {
+                Map<String, UserContact> users = findUsersByEmails(userEmails);
+                
+                List<String> missing = new ArrayList<>();
                 for (String email : userEmails) {
-                    Optional<User> userOpt = userRepository.findByEmail(email);
+                    UserContact user = users.get(email);
                     
-                    if (userOpt.isPresent()) {
-                        User user = userOpt.get();
-                        
+                    if (user != null) {
                         RecipientResolution rr = new RecipientResolution();
-                        rr.setUserId(user.getId());
-                        rr.setEmail(user.getEmail());
-                        rr.setName(user.getName());
-                        rr.setPhone(user.getPhone());
+                        rr.setUserId(user.id());
+                        rr.setEmail(user.email());
+                        rr.setName(user.name());
+                        rr.setPhone(user.phone());
                         rr.setRecipientType("specific_user");
                         rr.setMetadata(Map.of(
                             "source", "database",
@@ -227,8 +306,11 @@ public class RecipientResolverService {
                         ));
                         
                         result.add(rr);
+                    } else {
+                        missing.add(email);
                     }
                 }
+                logMissing("specific users", missing, userEmails.size());
             }
             
         } catch (Exception e) {
@@ -238,23 +320,34 @@ public class RecipientResolverService {
         return result;
     }
     
-    private List<RecipientResolution> resolveManualRecipient(String entityId, Map<String, Object> context) {
+    /**
+     * Uma linha de log por resolução com os não encontrados, em vez de uma por id.
+     */
+    private static void logMissing(String kind, List<String> missing, int requested) {
+        if (missing.isEmpty()) {
+            return;
+        }
+        LOG.warn("{} of {} {} not found: {}{}", missing.size(), requested, kind,
+                 missing.subList(0, Math.min(missing.size(), MAX_LOGGED_MISSES)),
+                 missing.size() > MAX_LOGGED_MISSES ? " ..." : "");
+    }
+    
+    private List<RecipientResolution> resolveManualRecipient(String entityId, Map<String, Object> context,
+                                                             Map<String, UserContact> knownUsers) {
         LOG.debug("Resolving manual recipient for entity: {}", entityId);
         List<RecipientResolution> result = new ArrayList<>();
         
         try {
             // Para recipient type "manual", o entityId é o userId do destinatário
-            // Primeiro tenta encontrar no banco
-            Optional<User> userOpt = userRepository.findByKeycloakId(entityId);
+            // Primeiro tenta encontrar no banco (ou no lote já carregado)
+            UserContact user = (knownUsers != null ? knownUsers : findUsersByIds(List.of(entityId))).get(entityId);
             
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                
+            if (user != null) {
                 RecipientResolution rr = new RecipientResolution();
-                rr.setUserId(user.getId());
-                rr.setEmail(user.getEmail());
-                rr.setName(user.getName());
-                rr.setPhone(user.getPhone());
+                rr.setUserId(user.id());
+                rr.setEmail(user.email());
+                rr.setName(user.name());
+                rr.setPhone(user.phone());
                 rr.setRecipientType("manual");
                 rr.setMetadata(Map.of(
                     "source", "database",
@@ -318,14 +411,64 @@ public class RecipientResolverService {
         return result;
     }
     
+    private Map<String, UserContact> findUsersByIds(Collection<String> ids) {
+        return findUsers(userByIdCache, ids, userDirectory::findById, userRepository::findAllByKeycloakIds, UserContact::id);
+    }
+    
+    private Map<String, UserContact> findUsersByEmails(Collection<String> emails) {
+        return findUsers(userByEmailCache, emails, userDirectory::findByEmail, userRepository::findAllByEmails, UserContact::email);
+    }
+    
+    /**
+     * Usuários por chave: os do diretório ou do cache e, numa única consulta em lote, os que faltam.
+     */
+    private Map<String, UserContact> findUsers(CaffeineCache cache, Collection<String> keys,
+                                               Function<String, UserContact> directory,
+                                               Function<List<String>, List<User>> loader,
+                                               Function<UserContact, String> keyOf) {
+        Map<String, UserContact> found = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String key : new LinkedHashSet<>(keys)) {
+            UserContact user = key != null ? directory.apply(key) : null;
+            if (user == null && key != null) {
+                user = cached(cache, key);
+            }
+            if (user != null) {
+                found.put(key, user);
+            } else if (key != null) {
+                misses.add(key);
+            }
+        }
+        
+        if (!misses.isEmpty()) {
+            for (User user : loader.apply(misses)) {
+                UserContact contact = UserContact.from(user);
+                cacheUser(contact);
+                found.put(keyOf.apply(contact), contact);
+            }
+        }
+        return found;
+    }
+    
+    private void cacheUser(UserContact user) {
+        userByIdCache.put(user.id(), CompletableFuture.completedFuture(user));
+        userByEmailCache.put(user.email(), CompletableFuture.completedFuture(user));
+    }
+    
+    private static <T> T cached(CaffeineCache cache, String key) {
+        CompletableFuture<T> value = cache.getIfPresent(key);
+        return value != null ? value.join() : null;
+    }
+    
     private User getOrCreateUser(String keycloakId, String fallbackEmail, String fallbackName) {
         Optional<User> existing = userRepository.findByKeycloakId(keycloakId);
         
         if (existing.isPresent()) {
             User user = existing.get();
-            // Atualizar se necessário (cache de 1 hora)
+            // Desatualizado (cache de 1 hora): usa o que está gravado e atualiza em segundo plano
             if (user.getLastSync().isBefore(Instant.now().minusSeconds(3600))) {
-                updateUserFromKeycloak(user, keycloakId, fallbackEmail, fallbackName);
+                keycloakUserLoader.refreshAsync(keycloakId, keycloakUser ->
+                        refreshUserFromKeycloak(keycloakId, keycloakUser, fallbackEmail, fallbackName));
             }
             return user;
         } else {
@@ -333,25 +476,29 @@ public class RecipientResolverService {
         }
     }
     
-    private void updateUserFromKeycloak(User user, String keycloakId, String fallbackEmail, String fallbackName) {
+    private void refreshUserFromKeycloak(String keycloakId, Optional<KeycloakUserResponse> keycloakUser,
+                                         String fallbackEmail, String fallbackName) {
+        try {
+            QuarkusTransaction.requiringNew().run(() -> userRepository.findByKeycloakId(keycloakId)
+                    .ifPresent(user -> updateUserFromKeycloak(user, keycloakId, keycloakUser, fallbackEmail, fallbackName)));
+        } catch (Exception e) {
+            LOG.warn("Could not refresh user {} from Keycloak: {}", keycloakId, e.getMessage());
+        }
+    }
+    
+    private void updateUserFromKeycloak(User user, String keycloakId, Optional<KeycloakUserResponse> keycloakUser,
+                                        String fallbackEmail, String fallbackName) {
         LOG.debug("Updating user from Keycloak: {}", keycloakId);
         
-        Optional<KeycloakUserResponse> keycloakUser = keycloakService.getUserById(keycloakId);
-        
         if (keycloakUser.isPresent()) {
             KeycloakUserResponse kcUser = keycloakUser.get();
             user.setEmail(kcUser.email() != null ? kcUser.email() : fallbackEmail);
             user.setName(kcUser.getFullName() != null ? kcUser.getFullName() : fallbackName);
             user.setPhone(kcUser.getPhoneNumber());
             
-            // Atualizar roles se disponível
+            // Atualizar roles (user_roles) se disponível
             if (kcUser.realmRoles() != null && !kcUser.realmRoles().isEmpty()) {
-                try {
-                    String rolesJson = "[\"" + String.join("\",\"", kcUser.realmRoles()) + "\"]";
-                    user.setRolesJson(rolesJson);
-                } catch (Exception e) {
-                    LOG.warn("Failed to serialize roles for user {}: {}", keycloakId, e.getMessage());
-                }
+                user.setRoles(kcUser.realmRoles());
             }
         } else {
             // Usar fallback se Keycloak não responder
@@ -362,13 +509,14 @@ public class RecipientResolverService {
         
         user.setLastSync(Instant.now());
         userRepository.persist(user);
+        cacheUser(UserContact.from(user));
         LOG.debug("User updated: {} <{}>", user.getName(), user.getEmail());
     }
     
     private User createUserFromKeycloak(String keycloakId, String fallbackEmail, String fallbackName) {
         LOG.debug("Creating new user from Keycloak: {}", keycloakId);
         
-        Optional<KeycloakUserResponse> keycloakUser = keycloakService.getUserById(keycloakId);
+        Optional<KeycloakUserResponse> keycloakUser = keycloakUserLoader.load(keycloakId);
         
         User user = new User();
         user.setId(keycloakId);
@@ -380,12 +528,7 @@ public class RecipientResolverService {
             user.setPhone(kcUser.getPhoneNumber());
             
             if (kcUser.realmRoles() != null && !kcUser.realmRoles().isEmpty()) {
-                try {
-                    String rolesJson = "[\"" + String.join("\",\"", kcUser.realmRoles()) + "\"]";
-                    user.setRolesJson(rolesJson);
-                } catch (Exception e) {
-                    LOG.warn("Failed to serialize roles for new user {}: {}", keycloakId, e.getMessage());
-                }
+                user.setRoles(kcUser.realmRoles());
             }
             
             LOG.debug("Created user from Keycloak: {} <{}>", user.getName(), user.getEmail());
@@ -400,6 +543,7 @@ public class RecipientResolverService {
         user.setLastSync(Instant.now());
         
         userRepository.persist(user);
+        cacheUser(UserContact.from(user));
         return user;
     }
 }
\ No newline at end of file
@@ -0,0 +1,178 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.User;
+import com.apporte.core.model.UserContact;
+import com.apporte.core.repository.UserRepository;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Cópia em memória de {@code users_cache} indexada por id, email e role, para resolver destinatários
+ * sem ir ao banco (opcional, {@code notification.user-directory.enabled}).
+ * <p>
+ * O snapshot é imutável e trocado de uma vez: leituras não usam lock. Na partida e a cada
+ * {@code notification.user-directory.full-refresh-interval} é montado do zero (o que também remove
+ * usuários apagados); entre elas, a cada {@code notification.user-directory.refresh-interval}, só os
+ * usuários com {@code last_sync} a partir do último visto (menos uma margem para commits atrasados)
+ * são relidos. Enquanto não houver snapshot, as consultas retornam null e o chamador vai ao banco.
+ */
+@ApplicationScoped
+public class UserDirectory {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(UserDirectory.class);
+    
+    // Releitura sobreposta: cobre transações que gravaram last_sync antes do último visto mas commitaram depois
+    private static final Duration DELTA_OVERLAP = Duration.ofMinutes(1);
+    
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final Duration fullRefreshInterval;
+    
+    private volatile Snapshot snapshot;
+    
+    public UserDirectory(UserRepository userRepository,
+                         @ConfigProperty(name = "notification.user-directory.enabled", defaultValue = "false") boolean enabled,
+                         @ConfigProperty(name = "notification.user-directory.full-refresh-interval", defaultValue = "1h") Duration fullRefreshInterval) {
+        this.userRepository = Objects.requireNonNull(userRepository, "userRepository cannot be null");
+        this.enabled = enabled;
+        this.fullRefreshInterval = Objects.requireNonNull(fullRefreshInterval, "fullRefreshInterval cannot be null");
+        
+        Metrics.globalRegistry.gauge("notification.user_directory.size", this,
+                                     directory -> directory.snapshot != null ? directory.snapshot.byId.size() : 0);
+    }
+    
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            refresh();
+        }
+    }
+    
+    public boolean isAvailable() {
+        return snapshot != null;
+    }
+    
+    /**
+     * Usuário pelo id (keycloakId), ou null se não estiver no snapshot ou não houver snapshot.
+     */
+    public UserContact findById(String id) {
+        Snapshot current = snapshot;
+        Entry entry = current != null && id != null ? current.byId.get(id) : null;
+        return entry != null ? entry.contact() : null;
+    }
+    
+    public UserContact findByEmail(String email) {
+        Snapshot current = snapshot;
+        return current != null && email != null ? current.byEmail.get(email) : null;
+    }
+    
+    /**
+     * Usuários com pelo menos uma das roles, sem repetição; null se não houver snapshot.
+     */
+    public List<UserContact> findByRoles(Collection<String> roles) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        
+        Set<UserContact> users = new LinkedHashSet<>();
+        for (String role : roles) {
+            users.addAll(current.byRole.getOrDefault(role, List.of()));
+        }
+        return List.copyOf(users);
+    }
+    
+    @Scheduled(every = "${notification.user-directory.refresh-interval:30s}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRefresh() {
+        if (enabled) {
+            refresh();
+        }
+    }
+    
+    /**
+     * Recarrega o snapshot: completo se não houver um ou se o último completo passou do intervalo,
+     * senão só a variação desde o último {@code last_sync} visto.
+     */
+    void refresh() {
+        Snapshot current = snapshot;
+        Instant now = Instant.now();
+        try {
+            if (current == null || current.builtAt.plus(fullRefreshInterval).isBefore(now)) {
+                List<User> users = QuarkusTransaction.requiringNew().call(userRepository::findAllWithRoles);
+                snapshot = Snapshot.build(toEntries(users), now);
+                LOG.info("User directory loaded with {} users", users.size());
+                return;
+            }
+            
+            Instant since = current.watermark.minus(DELTA_OVERLAP);
+            List<User> changed = QuarkusTransaction.requiringNew().call(() -> userRepository.findSyncedSince(since));
+            if (changed.isEmpty()) {
+                return;
+            }
+            
+            Map<String, Entry> byId = new HashMap<>(current.byId);
+            toEntries(changed).forEach(entry -> byId.put(entry.contact().id(), entry));
+            snapshot = Snapshot.build(byId.values(), current.builtAt);
+            LOG.debug("User directory refreshed with {} changed users", changed.size());
+        } catch (Exception e) {
+            // Mantém o snapshot anterior; a próxima execução tenta de novo
+            LOG.warn("Could not refresh user directory: {}", e.getMessage());
+        }
+    }
+    
+    private static List<Entry> toEntries(List<User> users) {
+        List<Entry> entries = new ArrayList<>(users.size());
+        for (User user : users) {
+            entries.add(new Entry(UserContact.from(user), user.getRoles(), user.getLastSync()));
+        }
+        return entries;
+    }
+    
+    private record Entry(UserContact contact, Set<String> roles, Instant lastSync) {
+    }
+    
+    /**
+     * Índices imutáveis de um estado de {@code users_cache}; {@code builtAt} é o momento da última carga completa.
+     */
+    private record Snapshot(Map<String, Entry> byId, Map<String, UserContact> byEmail,
+                            Map<String, List<UserContact>> byRole, Instant watermark, Instant builtAt) {
+        
+        static Snapshot build(Collection<Entry> entries, Instant builtAt) {
+            Map<String, Entry> byId = new HashMap<>();
+            Map<String, UserContact> byEmail = new HashMap<>();
+            Map<String, List<UserContact>> byRole = new HashMap<>();
+            Instant watermark = Instant.EPOCH;
+            
+            for (Entry entry : entries) {
+                byId.put(entry.contact().id(), entry);
+                byEmail.put(entry.contact().email(), entry.contact());
+                entry.roles().forEach(role -> byRole.computeIfAbsent(role, ignored -> new ArrayList<>()).add(entry.contact()));
+                if (entry.lastSync() != null && entry.lastSync().isAfter(watermark)) {
+                    watermark = entry.lastSync();
+                }
+            }
+            
+            Map<String, List<UserContact>> roles = new HashMap<>();
+            byRole.forEach((role, users) -> roles.put(role, List.copyOf(users)));
+            return new Snapshot(Map.copyOf(byId), Map.copyOf(byEmail), Map.copyOf(roles), watermark, builtAt);
+        }
+    }
+}
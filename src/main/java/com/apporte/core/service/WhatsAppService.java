@@ -27,6 +27,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 @ApplicationScoped
 @RegisterForReflection
@@ -54,7 +55,9 @@ public class WhatsAppService {
     private final AtomicBoolean isLoggedIn = new AtomicBoolean(false);
     private final Map<String, LocalDateTime> sentMessages = new ConcurrentHashMap<>();
     private final Map<String, Integer> retryCounts = new ConcurrentHashMap<>();
-    private final Object driverLock = new Object();
+    // ReentrantLock em vez de synchronized: a inicialização do Chrome bloqueia por segundos
+    // e, em virtual threads (Java 21), um monitor prenderia a carrier thread.
+    private final ReentrantLock driverLock = new ReentrantLock();
     
     public WhatsAppService(WhatsAppTemplateService templateService,
             @ConfigProperty(name = "whatsapp.enabled", defaultValue = "true") boolean enabled,
@@ -287,11 +290,14 @@ public class WhatsAppService {
     
     private void ensureDriverInitialized() {
         if (!isInitialized.get()) {
-            synchronized (driverLock) {
+            driverLock.lock();
+            try {
                 if (!isInitialized.get()) {
                     initializeDriver();
                     isInitialized.set(true);
                 }
+            } finally {
+                driverLock.unlock();
             }
         }
     }
@@ -475,11 +481,14 @@ public class WhatsAppService {
     }
     
     private void resetDriver() {
-        synchronized (driverLock) {
+        driverLock.lock();
+        try {
             closeDriver();
             isInitialized.set(false);
             isLoggedIn.set(false);
             LOG.info("WhatsApp WebDriver reset at: {}", LocalDateTime.now().format(LOG_FORMATTER));
+        } finally {
+            driverLock.unlock();
         }
     }
     
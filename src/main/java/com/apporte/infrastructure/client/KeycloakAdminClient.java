@@ -0,0 +1,23 @@
+package com.apporte.infrastructure.client;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.io.Closeable;
+
+/**
+ * API admin do Keycloak ({@code app.keycloak.admin.server-url}). Criado uma vez pelo
+ * {@code KeycloakService}; as respostas de erro são devolvidas como {@link Response}, sem exceção.
+ */
+public interface KeycloakAdminClient extends Closeable {
+    
+    @GET
+    @Path("/users/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    Response getUser(@PathParam("id") String id, @HeaderParam("Authorization") String authorization);
+}
@@ -0,0 +1,24 @@
+package com.apporte.infrastructure.client;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.FormParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.io.Closeable;
+
+/**
+ * Endpoint de token do Keycloak (grant {@code password} do usuário admin).
+ */
+public interface KeycloakTokenClient extends Closeable {
+    
+    @POST
+    @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
+    @Produces(MediaType.APPLICATION_JSON)
+    Response token(@FormParam("client_id") String clientId,
+                   @FormParam("username") String username,
+                   @FormParam("password") String password,
+                   @FormParam("grant_type") String grantType);
+}
@@ -0,0 +1,25 @@
+package com.apporte.infrastructure.exception;
+
+/**
+ * Exceção lançada quando a fila de um canal de envio está cheia.
+ * Deve ser traduzida em 429 com cabeçalho Retry-After.
+ */
+public class ChannelSaturatedException extends NotificationException {
+    
+    private final String channel;
+    private final long retryAfterSeconds;
+    
+    public ChannelSaturatedException(String channel, long retryAfterSeconds) {
+        super("CHANNEL_SATURATED", "Delivery queue for channel '" + channel + "' is full");
+        this.channel = channel;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public String getChannel() {
+        return channel;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -38,7 +38,13 @@ public class NotificationExceptionMapper implements ExceptionMapper<Exception> {
         error.put("type", exception.getClass().getSimpleName());
         
         int statusCode = getStatusCode(exception);
-        return Response.status(statusCode).entity(error).build();
+        Response.ResponseBuilder response = Response.status(statusCode).entity(error);
+        
+        if (exception instanceof ChannelSaturatedException saturated) {
+            response.header("Retry-After", saturated.getRetryAfterSeconds());
+        }
+        
+        return response.build();
     }
     
     private Response handleGenericException(Exception exception) {
@@ -55,6 +61,7 @@ public class NotificationExceptionMapper implements ExceptionMapper<Exception> {
         return switch (exception.getErrorCode()) {
             case "RECIPIENT_RESOLUTION_ERROR" -> Response.Status.BAD_REQUEST.getStatusCode();
             case "SEND_ERROR" -> Response.Status.SERVICE_UNAVAILABLE.getStatusCode();
+            case "CHANNEL_SATURATED" -> Response.Status.TOO_MANY_REQUESTS.getStatusCode();
             case "VALIDATION_ERROR" -> Response.Status.BAD_REQUEST.getStatusCode();
             default -> Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
         };
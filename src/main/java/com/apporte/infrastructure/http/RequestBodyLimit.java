@@ -0,0 +1,63 @@
+package com.apporte.infrastructure.http;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Objects;
+
+/**
+ * Limite de corpo por rota. O {@code quarkus.http.limits.max-body-size} é global e fica no teto do
+ * ingest NDJSON ({@value #INGEST_PATH}, lido em streaming); as demais rotas desserializam o corpo
+ * inteiro e voltam a {@code notification.http.max-body-size}.
+ */
+@ApplicationScoped
+public class RequestBodyLimit {
+    
+    static final String INGEST_PATH = "/api/notifications/ingest";
+    // Chave lida pelo RESTEasy Reactive ao consumir corpos sem Content-Length (chunked)
+    private static final String MAX_REQUEST_SIZE_KEY = "io.quarkus.max-request-size";
+    // Logo depois do handler global do Quarkus (order -2), que grava a mesma chave
+    private static final int ROUTE_ORDER = -1;
+    
+    private final long maxBodySize;
+    
+    public RequestBodyLimit(@ConfigProperty(name = "notification.http.max-body-size", defaultValue = "10M") MemorySize maxBodySize) {
+        this.maxBodySize = Objects.requireNonNull(maxBodySize, "maxBodySize cannot be null").asLongValue();
+    }
+    
+    void register(@Observes Router router) {
+        router.route().order(ROUTE_ORDER).handler(this::enforce);
+    }
+    
+    private void enforce(RoutingContext ctx) {
+        if (INGEST_PATH.equals(ctx.normalizedPath())) {
+            ctx.next();
+            return;
+        }
+        
+        String contentLength = ctx.request().headers().get(HttpHeaderNames.CONTENT_LENGTH);
+        if (contentLength != null && exceedsLimit(contentLength)) {
+            ctx.response().headers().add(HttpHeaderNames.CONNECTION, "close");
+            ctx.response().setStatusCode(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE.code()).end();
+            return;
+        }
+        
+        ctx.put(MAX_REQUEST_SIZE_KEY, maxBodySize);
+        ctx.next();
+    }
+    
+    private boolean exceedsLimit(String contentLength) {
+        try {
+            return Long.parseLong(contentLength) > maxBodySize;
+        } catch (NumberFormatException e) {
+            // Cabeçalho inválido fica para o servidor HTTP recusar
+            return false;
+        }
+    }
+}
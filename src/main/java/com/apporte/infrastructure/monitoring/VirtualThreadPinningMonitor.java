@@ -0,0 +1,92 @@
+package com.apporte.infrastructure.monitoring;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Detecta virtual threads presas à carrier thread (blocos synchronized ou chamadas nativas
+ * que bloqueiam), via evento JFR {@code jdk.VirtualThreadPinned}.
+ * Cada ocorrência acima do limiar é registrada em log com o topo da stack, para localizar
+ * trechos como locks do WebDriver que ainda precisem sair de {@code synchronized}.
+ */
+@ApplicationScoped
+public class VirtualThreadPinningMonitor {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int STACK_DEPTH = 8;
+    
+    private final boolean enabled;
+    private final Duration threshold;
+    private final LongAdder pinnedCount = new LongAdder();
+    
+    private RecordingStream stream;
+    
+    public VirtualThreadPinningMonitor(
+            @ConfigProperty(name = "notification.virtual-threads.pinning-monitor.enabled", defaultValue = "false") boolean enabled,
+            @ConfigProperty(name = "notification.virtual-threads.pinning-monitor.threshold", defaultValue = "20ms") Duration threshold) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+    
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            LOG.info("Virtual thread pinning monitor started (threshold {})", threshold);
+        } catch (Exception e) {
+            LOG.warn("Could not start virtual thread pinning monitor: {}", e.getMessage());
+        }
+    }
+    
+    void onStop(@Observes ShutdownEvent event) {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+    
+    public long getPinnedCount() {
+        return pinnedCount.sum();
+    }
+    
+    private void onPinned(RecordedEvent event) {
+        pinnedCount.increment();
+        LOG.warn("Virtual thread pinned for {} ms on {}:\n{}",
+                 event.getDuration().toMillis(),
+                 event.getThread() != null ? event.getThread().getJavaName() : "unknown",
+                 formatStack(event.getStackTrace()));
+    }
+    
+    private static String formatStack(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t<no stack trace>";
+        }
+        
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.stream()
+                .limit(STACK_DEPTH)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,19 @@
+package com.apporte.infrastructure.persistence;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca métodos só de leitura cujas consultas podem ir para a réplica ({@link ReadReplicaRouting}).
+ * Os repositórios participam lendo por {@link ReadReplicaRouting#entityManager(jakarta.persistence.EntityManager)};
+ * o resultado pode estar atrasado em até {@code notification.read-replica.max-staleness}.
+ */
+@InterceptorBinding
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadReplica {
+}
@@ -0,0 +1,25 @@
+package com.apporte.infrastructure.persistence;
+
+import jakarta.annotation.Priority;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+import java.util.Objects;
+
+@ReadReplica
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+public class ReadReplicaInterceptor {
+    
+    private final ReadReplicaRouting routing;
+    
+    public ReadReplicaInterceptor(ReadReplicaRouting routing) {
+        this.routing = Objects.requireNonNull(routing, "routing cannot be null");
+    }
+    
+    @AroundInvoke
+    Object route(InvocationContext context) throws Exception {
+        return routing.route(context::proceed);
+    }
+}
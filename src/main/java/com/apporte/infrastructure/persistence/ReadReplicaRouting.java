@@ -0,0 +1,172 @@
+package com.apporte.infrastructure.persistence;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Metrics;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Roteamento das leituras marcadas com {@link ReadReplica} para o datasource {@code replica}.
+ * <p>
+ * Não há uma segunda unidade de persistência (entidades Panache só pertencem a uma): durante o método
+ * anotado, uma sessão somente leitura da mesma SessionFactory é aberta sobre uma conexão da réplica, e
+ * os repositórios a usam via {@link #entityManager(EntityManager)}. A réplica só é usada com
+ * {@code notification.read-replica.enabled} e com o atraso de replay, amostrado a cada
+ * {@code notification.read-replica.lag-check-interval}, até {@code notification.read-replica.max-staleness};
+ * fora disso, ou se a réplica falhar, a leitura vai para o primário.
+ */
+@ApplicationScoped
+public class ReadReplicaRouting {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(ReadReplicaRouting.class);
+    
+    // Atraso de replay na réplica; zero quando a conexão não está em recovery (aponta para o primário) ou
+    // quando já aplicou todo o WAL recebido (com o primário ocioso o horário do último replay só envelhece)
+    private static final String LAG_QUERY = "select case when not pg_is_in_recovery() then 0 "
+            + "when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+            + "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+    
+    private final SessionFactory sessionFactory;
+    private final AgroalDataSource replicaDataSource;
+    private final boolean enabled;
+    private final boolean postgres;
+    private final Duration maxStaleness;
+    
+    private final ThreadLocal<Session> current = new ThreadLocal<>();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    
+    private volatile Duration lastLag = Duration.ZERO; // null = réplica indisponível na última amostra
+    
+    public ReadReplicaRouting(SessionFactory sessionFactory,
+                              @DataSource("replica") AgroalDataSource replicaDataSource,
+                              @ConfigProperty(name = "notification.read-replica.enabled", defaultValue = "false") boolean enabled,
+                              @ConfigProperty(name = "quarkus.datasource.\"replica\".db-kind", defaultValue = "postgresql") String dbKind,
+                              @ConfigProperty(name = "notification.read-replica.max-staleness", defaultValue = "5s") Duration maxStaleness) {
+        this.sessionFactory = Objects.requireNonNull(sessionFactory, "sessionFactory cannot be null");
+        this.replicaDataSource = Objects.requireNonNull(replicaDataSource, "replicaDataSource cannot be null");
+        this.enabled = enabled;
+        this.postgres = Objects.requireNonNull(dbKind, "dbKind cannot be null").toLowerCase().startsWith("postgres");
+        this.maxStaleness = Objects.requireNonNull(maxStaleness, "maxStaleness cannot be null");
+        
+        FunctionCounter.builder("notification.reads", replicaReads, LongAdder::sum)
+                .tag("target", "replica").register(Metrics.globalRegistry);
+        FunctionCounter.builder("notification.reads", primaryReads, LongAdder::sum)
+                .tag("target", "primary").register(Metrics.globalRegistry);
+    }
+    
+    /**
+     * Sessão da réplica se a thread está dentro de um método {@link ReadReplica} roteado; senão {@code primary}.
+     */
+    public EntityManager entityManager(EntityManager primary) {
+        Session session = current.get();
+        return session != null ? session : primary;
+    }
+    
+    public boolean isReplicaAvailable() {
+        Duration lag = lastLag;
+        return enabled && lag != null && lag.compareTo(maxStaleness) <= 0;
+    }
+    
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+    
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+    
+    /**
+     * Executa {@code read} com a sessão da réplica, ou no primário se ela não estiver disponível.
+     * Chamadas aninhadas reaproveitam a rota já escolhida.
+     */
+    <T> T route(Callable<T> read) throws Exception {
+        if (current.get() != null) {
+            return read.call();
+        }
+        if (!isReplicaAvailable()) {
+            primaryReads.increment();
+            return read.call();
+        }
+        
+        try (Connection connection = replicaDataSource.getConnection()) {
+            connection.setReadOnly(true);
+            try (Session session = sessionFactory.withOptions()
+                    .connection(connection)
+                    .autoJoinTransactions(false)
+                    .flushMode(FlushMode.MANUAL)
+                    .openSession()) {
+                session.setDefaultReadOnly(true);
+                current.set(session);
+                try {
+                    T result = read.call();
+                    replicaReads.increment();
+                    return result;
+                } finally {
+                    current.remove();
+                }
+            }
+        } catch (SQLException | PersistenceException e) {
+            // Leituras são idempotentes: repete no primário e tira a réplica de rota até a próxima amostra
+            LOG.warn("Read replica failed, falling back to primary: {}", e.getMessage());
+            lastLag = null;
+            primaryReads.increment();
+            return read.call();
+        }
+    }
+    
+    @Scheduled(every = "${notification.read-replica.lag-check-interval:5s}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void refreshLag() {
+        if (!enabled) {
+            return;
+        }
+        recordLag(sampleLag());
+    }
+    
+    /**
+     * Atualiza o atraso observado da réplica (null = indisponível).
+     */
+    void recordLag(Duration lag) {
+        Duration previous = lastLag;
+        lastLag = lag;
+        boolean wasAvailable = previous != null && previous.compareTo(maxStaleness) <= 0;
+        if (wasAvailable != isReplicaAvailable()) {
+            LOG.info("Read replica {} (lag {})", isReplicaAvailable() ? "back in rotation" : "out of rotation", lag);
+        }
+    }
+    
+    private Duration sampleLag() {
+        if (!postgres) {
+            return Duration.ZERO;
+        }
+        try (Connection connection = replicaDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+            rs.next();
+            return Duration.ofMillis((long) (rs.getDouble(1) * 1000));
+        } catch (SQLException e) {
+            LOG.debug("Could not sample read replica lag: {}", e.getMessage());
+            return null;
+        }
+    }
+}
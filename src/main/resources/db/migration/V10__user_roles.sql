@@ -0,0 +1,19 @@
+-- Roles normalizadas (User.roles): uma linha por (usuário, role). A resolução de "admins" e as buscas por
+-- role passam a ser seeks em idx_user_roles_role em vez de LIKE '%"role"%' sobre users_cache.roles_json.
+-- roles_json continua gravado como cópia; o preenchimento inicial vem dele.
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id VARCHAR(255) NOT NULL REFERENCES users_cache (id) ON DELETE CASCADE,
+    role    VARCHAR(255) NOT NULL,
+    PRIMARY KEY (user_id, role)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_roles_role ON user_roles (role, user_id);
+
+-- Só arrays JSON; linhas com roles_json malformado ficam sem roles até a próxima sincronização com o Keycloak
+INSERT INTO user_roles (user_id, role)
+SELECT DISTINCT u.id, r.role
+FROM users_cache u
+CROSS JOIN LATERAL jsonb_array_elements_text(u.roles_json::jsonb) AS r(role)
+WHERE u.roles_json ~ '^\s*\[.*\]\s*$'
+ON CONFLICT DO NOTHING;
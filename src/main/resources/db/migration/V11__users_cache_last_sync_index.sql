@@ -0,0 +1,3 @@
+-- Atualização incremental do diretório de usuários em memória (UserDirectory): busca por last_sync.
+
+CREATE INDEX IF NOT EXISTS idx_users_cache_last_sync ON users_cache (last_sync);
@@ -0,0 +1,33 @@
+-- Esquema inicial, equivalente ao gerado pelo Hibernate antes da adoção do Flyway.
+-- Bancos já existentes são marcados nesta versão (quarkus.flyway.baseline-on-migrate) sem executá-la.
+
+CREATE SEQUENCE IF NOT EXISTS notification_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS notifications (
+    id            BIGINT                      NOT NULL PRIMARY KEY,
+    user_id       VARCHAR(255)                NOT NULL,
+    event_type    VARCHAR(255)                NOT NULL,
+    channel       VARCHAR(255)                NOT NULL,
+    payload_json  JSONB,
+    status        VARCHAR(255)                NOT NULL,
+    error_message VARCHAR(255),
+    created_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    sent_at       TIMESTAMP(6) WITH TIME ZONE
+);
+
+CREATE TABLE IF NOT EXISTS users_cache (
+    id         VARCHAR(255)                NOT NULL PRIMARY KEY,
+    email      VARCHAR(255)                NOT NULL UNIQUE,
+    name       VARCHAR(255),
+    phone      VARCHAR(255),
+    roles_json TEXT,
+    last_sync  TIMESTAMP(6) WITH TIME ZONE,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS projects (
+    id          VARCHAR(255) NOT NULL PRIMARY KEY,
+    owner_id    VARCHAR(255) NOT NULL,
+    owner_email VARCHAR(255) NOT NULL,
+    owner_name  VARCHAR(255)
+);
@@ -0,0 +1,19 @@
+-- Outbox com lease por nó, lotes (POST /batch e ingest NDJSON) e pré-alocação de ids em blocos de 500.
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS claimed_by VARCHAR(128);
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS batch_id VARCHAR(36);
+
+CREATE TABLE IF NOT EXISTS batch_jobs (
+    id                  VARCHAR(36)                 NOT NULL PRIMARY KEY,
+    status              VARCHAR(255)                NOT NULL,
+    total_items         INTEGER                     NOT NULL,
+    total_notifications INTEGER                     NOT NULL,
+    requested_by        VARCHAR(255),
+    created_at          TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    completed_at        TIMESTAMP(6) WITH TIME ZONE
+);
+
+-- Deve casar com allocationSize = 500 em Notification (otimizador pooled-lo)
+ALTER SEQUENCE notification_seq INCREMENT BY 500;
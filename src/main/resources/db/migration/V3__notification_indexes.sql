@@ -0,0 +1,25 @@
+-- Índices alinhados às consultas reais. CONCURRENTLY evita bloquear escritas em tabelas já grandes,
+-- por isso esta migração roda fora de transação (ver V3__notification_indexes.sql.conf).
+
+-- Caixa do usuário (getUserNotifications): userId [+ status], mais recentes primeiro
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_user_created
+    ON notifications (user_id, created_at DESC);
+
+-- Listagem admin e estatísticas por status; limpeza por status + createdAt
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_status_created
+    ON notifications (status, created_at);
+
+-- Faixas de data sem outro filtro (listagem admin, estatísticas); created_at cresce com a inserção,
+-- então um BRIN cobre a tabela inteira com poucas páginas
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_created_brin
+    ON notifications USING BRIN (created_at);
+
+-- Fila do dispatcher: só as linhas pendentes/em retentativa, que são uma fração pequena da tabela
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_dispatchable
+    ON notifications (id, lease_expires_at)
+    WHERE status IN ('pending', 'retrying');
+
+-- Progresso e resultados de lote (countByStatusForBatch, findBatchPage)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_batch
+    ON notifications (batch_id, id)
+    WHERE batch_id IS NOT NULL;
@@ -0,0 +1,23 @@
+-- Preparação da V5 (particionamento), fora de transação (ver V4_1__prepare_notifications_partitioning.sql.conf)
+-- para não segurar lock forte durante o trabalho pesado sobre a tabela existente:
+--   * o índice único (id, created_at) que a PK da tabela particionada exige em cada partição, criado
+--     CONCURRENTLY: o ATTACH da V5 o reaproveita em vez de construí-lo sob lock;
+--   * um CHECK com o limite superior da partição legacy, criado NOT VALID e validado em seguida
+--     (VALIDATE só pega SHARE UPDATE EXCLUSIVE: leituras e escritas continuam). Com ele provado, o ATTACH
+--     não varre a tabela para conferir o intervalo. A V5 remove o CHECK depois do ATTACH.
+-- O limite é o início do próximo mês (UTC), o mesmo que a V5 calcula; V4.1 e V5 devem rodar no mesmo mês,
+-- senão o ATTACH volta a varrer a tabela (continua correto, só mais lento).
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS notifications_legacy_id_created_key
+    ON notifications (id, created_at);
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ck_notifications_legacy_bound') THEN
+        EXECUTE format('ALTER TABLE notifications ADD CONSTRAINT ck_notifications_legacy_bound '
+                       || 'CHECK (created_at < %L) NOT VALID',
+                       (date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '1 month') AT TIME ZONE 'UTC');
+    END IF;
+END $$;
+
+ALTER TABLE notifications VALIDATE CONSTRAINT ck_notifications_legacy_bound;
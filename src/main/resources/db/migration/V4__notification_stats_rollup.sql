@@ -0,0 +1,25 @@
+-- Rollup de estatísticas por (hora/dia de criação, canal, tipo de evento, status).
+-- Linhas são deltas somáveis; o NotificationStatsService grava e compacta.
+
+CREATE SEQUENCE IF NOT EXISTS notification_stats_rollup_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS notification_stats_rollup (
+    id                 BIGINT                      NOT NULL PRIMARY KEY,
+    bucket_start       TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    granularity        VARCHAR(8)                  NOT NULL,
+    channel            VARCHAR(255)                NOT NULL,
+    event_type         VARCHAR(255)                NOT NULL,
+    status             VARCHAR(255)                NOT NULL,
+    notification_count BIGINT                      NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_stats_rollup_bucket ON notification_stats_rollup (bucket_start);
+
+-- Carga inicial a partir das notificações existentes; a compactação agrega em dias o que passar da retenção horária
+INSERT INTO notification_stats_rollup (id, bucket_start, granularity, channel, event_type, status, notification_count)
+SELECT nextval('notification_stats_rollup_seq'), bucket_start, 'hour', channel, event_type, status, total
+FROM (
+    SELECT date_trunc('hour', created_at) AS bucket_start, channel, event_type, status, count(*) AS total
+    FROM notifications
+    GROUP BY date_trunc('hour', created_at), channel, event_type, status
+) AS existing;
@@ -0,0 +1,83 @@
+-- Particionamento mensal (RANGE em created_at, meses UTC) de notifications.
+-- A tabela existente vira a partição notifications_legacy, cobrindo tudo até o fim do mês corrente; os
+-- meses seguintes ganham partições próprias, criadas com antecedência por ensure_notification_partitions
+-- (chamada aqui e pelo NotificationPartitionMaintenance).
+-- O ATTACH não reescreve os dados e, com o CHECK validado e o índice (id, created_at) criados pela V4.1,
+-- também não varre a tabela nem constrói índice sob o lock: fica restrito a renomes e catálogo. Ainda assim
+-- toma lock exclusivo em notifications: aplicar como passo explícito do deploy, não no startup dos pods.
+-- Partições mensais são retiradas inteiras pelo NotificationPartitionMaintenance; as linhas da
+-- notifications_legacy continuam com a retenção em blocos (NotificationRetentionService) até ela sair.
+
+ALTER TABLE notifications RENAME TO notifications_legacy;
+ALTER TABLE notifications_legacy RENAME CONSTRAINT notifications_pkey TO notifications_legacy_pkey;
+ALTER INDEX idx_notifications_user_created RENAME TO idx_notifications_legacy_user_created;
+ALTER INDEX idx_notifications_status_created RENAME TO idx_notifications_legacy_status_created;
+ALTER INDEX idx_notifications_created_brin RENAME TO idx_notifications_legacy_created_brin;
+ALTER INDEX idx_notifications_dispatchable RENAME TO idx_notifications_legacy_dispatchable;
+ALTER INDEX idx_notifications_batch RENAME TO idx_notifications_legacy_batch;
+
+-- A chave de partição precisa fazer parte da PK; ids continuam únicos pelo notification_seq
+CREATE TABLE notifications (
+    id               BIGINT                      NOT NULL,
+    user_id          VARCHAR(255)                NOT NULL,
+    event_type       VARCHAR(255)                NOT NULL,
+    channel          VARCHAR(255)                NOT NULL,
+    payload_json     JSONB,
+    status           VARCHAR(255)                NOT NULL,
+    error_message    VARCHAR(255),
+    created_at       TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    sent_at          TIMESTAMP(6) WITH TIME ZONE,
+    attempts         INTEGER                     NOT NULL DEFAULT 0,
+    claimed_by       VARCHAR(128),
+    lease_expires_at TIMESTAMP(6) WITH TIME ZONE,
+    batch_id         VARCHAR(36),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Índices particionados: cada partição recebe o seu (os equivalentes da legacy são reaproveitados)
+CREATE INDEX idx_notifications_user_created ON notifications (user_id, created_at DESC);
+CREATE INDEX idx_notifications_status_created ON notifications (status, created_at);
+CREATE INDEX idx_notifications_created_brin ON notifications USING BRIN (created_at);
+CREATE INDEX idx_notifications_dispatchable ON notifications (id, lease_expires_at)
+    WHERE status IN ('pending', 'retrying');
+CREATE INDEX idx_notifications_batch ON notifications (batch_id, id)
+    WHERE batch_id IS NOT NULL;
+
+ALTER TABLE notifications ATTACH PARTITION notifications_legacy
+    FOR VALUES FROM (MINVALUE) TO ((date_trunc('month', now() AT TIME ZONE 'UTC') + INTERVAL '1 month') AT TIME ZONE 'UTC');
+
+-- Já garantido pelo limite da partição
+ALTER TABLE notifications_legacy DROP CONSTRAINT IF EXISTS ck_notifications_legacy_bound;
+
+-- Partições desanexadas pela retenção são movidas para cá quando notification.partitions.archive=true
+CREATE SCHEMA IF NOT EXISTS notifications_archive;
+
+-- Cria as partições mensais (nome notifications_pYYYYMM) do mês corrente até months_ahead meses à frente.
+-- Meses já cobertos por outra partição (ex.: a legacy) são ignorados. Retorna quantas foram criadas.
+CREATE OR REPLACE FUNCTION ensure_notification_partitions(months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    month_start TIMESTAMP := date_trunc('month', now() AT TIME ZONE 'UTC');
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        partition_name := 'notifications_p' || to_char(month_start, 'YYYYMM');
+        IF to_regclass(partition_name) IS NULL THEN
+            BEGIN
+                EXECUTE format('CREATE TABLE %I PARTITION OF notifications FOR VALUES FROM (%L) TO (%L)',
+                               partition_name,
+                               month_start AT TIME ZONE 'UTC',
+                               (month_start + INTERVAL '1 month') AT TIME ZONE 'UTC');
+                created := created + 1;
+            EXCEPTION WHEN invalid_object_definition THEN
+                -- intervalo já coberto por outra partição
+                NULL;
+            END;
+        END IF;
+        month_start := month_start + INTERVAL '1 month';
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT ensure_notification_partitions(3);
@@ -0,0 +1,12 @@
+-- Checkpoint da retenção em blocos (NotificationRetentionService): permite retomar uma execução
+-- interrompida a partir do último bloco confirmado.
+
+CREATE TABLE IF NOT EXISTS retention_checkpoints (
+    id           VARCHAR(64)                 NOT NULL PRIMARY KEY,
+    cutoff       TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    next_id      BIGINT                      NOT NULL,
+    last_id      BIGINT                      NOT NULL,
+    deleted_rows BIGINT                      NOT NULL,
+    started_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,7 @@
+-- Payload binário (NotificationPayloadCodec): Smile/JSON com deflate opcional, prefixado por um byte de formato.
+-- payload_json fica para as linhas antigas, convertidas aos poucos por notification.payload.backfill-interval.
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS payload BYTEA;
+
+-- O corpo já chega comprimido: sem nova tentativa de compressão no TOAST
+ALTER TABLE notifications ALTER COLUMN payload SET STORAGE EXTERNAL;
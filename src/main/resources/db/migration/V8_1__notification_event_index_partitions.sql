@@ -0,0 +1,38 @@
+-- Índices por partição de idx_notifications_event (criado ON ONLY na V8), fora de transação
+-- (ver V8_1__notification_event_index_partitions.sql.conf):
+--   * na notifications_legacy, a única partição grande, CONCURRENTLY: leituras e escritas continuam;
+--   * nas demais (meses criados pela V5, vazios ou pequenos), construção direta no bloco abaixo.
+-- Cada índice é anexado ao da mãe, que fica válido quando todas as partições têm o seu; partições criadas
+-- depois por ensure_notification_partitions já nascem com ele.
+-- Se o CONCURRENTLY falhar, ele deixa um índice inválido: apague idx_notifications_legacy_event antes de
+-- repetir a migração.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notifications_legacy_event
+    ON notifications_legacy (event_id) WHERE event_id IS NOT NULL;
+
+DO $$
+DECLARE
+    partition_name TEXT;
+    index_name TEXT;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'notifications'::regclass
+          AND NOT EXISTS (SELECT 1
+                          FROM pg_inherits ii
+                          JOIN pg_index x ON x.indexrelid = ii.inhrelid
+                          WHERE ii.inhparent = 'idx_notifications_event'::regclass
+                            AND x.indrelid = c.oid)
+    LOOP
+        IF partition_name = 'notifications_legacy' THEN
+            index_name := 'idx_notifications_legacy_event';
+        ELSE
+            index_name := partition_name || '_event_id_idx';
+            EXECUTE format('CREATE INDEX IF NOT EXISTS %I ON %I (event_id) WHERE event_id IS NOT NULL',
+                           index_name, partition_name);
+        END IF;
+        EXECUTE format('ALTER INDEX idx_notifications_event ATTACH PARTITION %I', index_name);
+    END LOOP;
+END $$;
@@ -0,0 +1,23 @@
+-- Envelope de evento compartilhado (NotificationEvent): tipo, entidade e contexto gravados uma vez por
+-- conteúdo, chaveados pelo SHA-256 do JSON canônico. As notificações do fan-out referenciam a linha por
+-- event_id e guardam no payload só o destinatário; linhas antigas (event_id nulo) continuam autocontidas.
+
+CREATE TABLE IF NOT EXISTS notification_events (
+    id           VARCHAR(64)                 NOT NULL PRIMARY KEY,
+    event_type   VARCHAR(255)                NOT NULL,
+    entity_type  VARCHAR(255),
+    entity_id    VARCHAR(255),
+    payload      BYTEA                       NOT NULL,
+    created_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    last_used_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+ALTER TABLE notification_events ALTER COLUMN payload SET STORAGE EXTERNAL;
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS event_id VARCHAR(64);
+
+-- Usado pela limpeza de envelopes sem notificações (NOT EXISTS por event_id). Criado só na tabela-mãe
+-- (ON ONLY, sem tocar nas partições): construí-lo nas partições aqui varreria a notifications_legacy inteira
+-- sob lock SHARE, bloqueando inserts, mesmo com a coluna nova toda nula. Os índices das partições são
+-- construídos e anexados pela V8.1, fora de transação; até lá o índice da mãe fica inválido (não usado).
+CREATE INDEX IF NOT EXISTS idx_notifications_event ON ONLY notifications (event_id) WHERE event_id IS NOT NULL;
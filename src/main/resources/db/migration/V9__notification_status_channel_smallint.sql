@@ -0,0 +1,59 @@
+-- status e channel de notifications como SMALLINT (códigos de NotificationStatus e NotificationChannel)
+-- em vez de VARCHAR: chaves menores nos índices por status e comparações inteiras no dispatch.
+-- A API e o rollup de estatísticas (notification_stats_rollup) continuam usando os nomes.
+--   status:  0 pending, 1 sent, 2 error, 3 retrying
+--   channel: 0 email, 1 whatsapp, 2 in_app, 3 sms
+-- O ALTER reescreve a tabela (todas as partições) sob lock exclusivo: aplicar em janela de manutenção,
+-- como passo explícito do deploy (no perfil prod o Flyway não migra no startup; ver application-prod.properties).
+-- Partições já movidas para notifications_archive não fazem parte da tabela e ficam com os textos.
+
+-- Valores fora das listas abaixo (ex.: canais não suportados, que ficavam como linhas de erro) não têm
+-- código: a migração para antes de alterar a tabela e lista as linhas, para o operador decidir o que
+-- fazer com elas (corrigir o valor ou arquivar). Nada é apagado aqui.
+DO $$
+DECLARE
+    offending TEXT;
+BEGIN
+    SELECT string_agg(format('%s (status=%L, channel=%L)', id, status, channel), ', ')
+    INTO offending
+    FROM (
+        SELECT id, status, channel
+        FROM notifications
+        WHERE status IS NULL
+           OR channel IS NULL
+           OR lower(trim(status)) NOT IN ('pending', 'sent', 'error', 'retrying')
+           OR lower(trim(channel)) NOT IN ('email', 'whatsapp', 'in_app', 'sms')
+        ORDER BY id
+        LIMIT 100
+    ) unexpected;
+    
+    IF offending IS NOT NULL THEN
+        RAISE EXCEPTION 'notifications has status/channel values without a SMALLINT code (first 100): %', offending
+            USING HINT = 'Fix or archive these rows, then re-run the migration';
+    END IF;
+END $$;
+
+-- Índices que dependem de status são recriados depois da conversão
+DROP INDEX IF EXISTS idx_notifications_dispatchable;
+DROP INDEX IF EXISTS idx_notifications_status_created;
+
+ALTER TABLE notifications
+    ALTER COLUMN status TYPE SMALLINT USING CASE lower(trim(status))
+        WHEN 'pending' THEN 0
+        WHEN 'sent' THEN 1
+        WHEN 'error' THEN 2
+        WHEN 'retrying' THEN 3
+    END,
+    ALTER COLUMN channel TYPE SMALLINT USING CASE lower(trim(channel))
+        WHEN 'email' THEN 0
+        WHEN 'whatsapp' THEN 1
+        WHEN 'in_app' THEN 2
+        WHEN 'sms' THEN 3
+    END;
+
+ALTER TABLE notifications ADD CONSTRAINT ck_notifications_status CHECK (status BETWEEN 0 AND 3);
+ALTER TABLE notifications ADD CONSTRAINT ck_notifications_channel CHECK (channel BETWEEN 0 AND 3);
+
+CREATE INDEX IF NOT EXISTS idx_notifications_status_created ON notifications (status, created_at);
+CREATE INDEX IF NOT EXISTS idx_notifications_dispatchable ON notifications (id, lease_expires_at)
+    WHERE status IN (0, 3);
@@ -210,6 +210,47 @@ public class AdminNotificationControllerTest {
                 .body("notifications[0].channel", equalTo("email"));
     }
 
+    @Test
+    @Transactional
+    public void testListNotifications_CursorPagination() {
+        String nextCursor = given()
+            .queryParam("size", "2")
+            .when()
+                .get("/api/admin/notifications")
+            .then()
+                .statusCode(200)
+                .body("notifications.size()", equalTo(2))
+                .body("hasMore", equalTo(true))
+                .body("total", equalTo(3))
+                .body("totalExact", equalTo(true))
+                .extract().path("nextCursor");
+
+        given()
+            .queryParam("size", "2")
+            .queryParam("cursor", nextCursor)
+            .queryParam("includeTotal", "false")
+            .when()
+                .get("/api/admin/notifications")
+            .then()
+                .statusCode(200)
+                .body("notifications.size()", equalTo(1))
+                .body("notifications[0].id", equalTo(errorNotificationId.intValue()))
+                .body("hasMore", equalTo(false))
+                .body("$", not(hasKey("total")));
+    }
+
+    @Test
+    @Transactional
+    public void testListNotifications_InvalidCursor() {
+        given()
+            .queryParam("cursor", "not-a-cursor")
+            .when()
+                .get("/api/admin/notifications")
+            .then()
+                .statusCode(400)
+                .body("error", equalTo("Invalid cursor"));
+    }
+
     @Test
     @Transactional
     public void testHealthCheck() {
@@ -1,6 +1,8 @@
 package com.apporte.api;
 
 import com.apporte.core.model.Notification;
+import com.apporte.core.model.NotificationChannel;
+import com.apporte.core.model.NotificationStatus;
 import com.apporte.core.model.Project;
 import com.apporte.core.model.User;
 import io.quarkus.test.junit.QuarkusTest;
@@ -29,7 +31,8 @@ public class NotificationControllerTest {
     @Transactional
     public void setupTestData() {
         // Limpar dados
-        Notification.deleteAll();
+        List<Notification> notifications = Notification.listAll();
+        notifications.forEach(n -> n.delete());
         Project.deleteAll();
         User.deleteAll();
         
@@ -54,8 +57,8 @@ public class NotificationControllerTest {
         Notification notification = new Notification();
         notification.setUserId("user-123");
         notification.setEventType("PROJECT_READY_REVIEW");
-        notification.setChannel("email");
-        notification.setStatus("sent");
+        notification.setChannel(NotificationChannel.EMAIL);
+        notification.setStatus(NotificationStatus.SENT);
         notification.setCreatedAt(Instant.now());
         notification.setSentAt(Instant.now());
         notification.setPayloadJson("{\"recipient\":{\"userId\":\"user-123\"}}");
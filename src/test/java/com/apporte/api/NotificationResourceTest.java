@@ -2,6 +2,9 @@ package com.apporte.api;
 
 import io.quarkus.test.junit.QuarkusTest;
 import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
 
@@ -15,4 +18,17 @@ public class NotificationResourceTest {
              .statusCode(200)
              .body("message", equalTo("Notification Engine is running!"));
     }
+
+    @Test
+    public void testJsonEndpointKeepsDefaultBodyLimit() {
+        byte[] body = new byte[11 * 1024 * 1024];
+        Arrays.fill(body, (byte) ' ');
+
+        given()
+          .contentType("application/json")
+          .body(body)
+          .when().post("/api/notifications/send")
+          .then()
+             .statusCode(413);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.apporte.core.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationTest {
+
+    @Test
+    void testMarkAs_FollowsTransitionTable() {
+        Notification notification = new Notification("user-123", "TASK_ASSIGNED", NotificationChannel.EMAIL);
+
+        notification.markForRetry("SMTP unavailable", Instant.now());
+        notification.markAsError("SMTP unavailable");
+        notification.markAsRetrying();
+        notification.markAsSent();
+
+        assertEquals(NotificationStatus.SENT, notification.getStatus());
+        assertThrows(IllegalStateException.class, () -> notification.markAsError("late failure"));
+        assertThrows(IllegalStateException.class, notification::markAsRetrying);
+        assertEquals(NotificationStatus.SENT, notification.getStatus());
+    }
+
+    @Test
+    void testErrorOnlyLeavesThroughRetry() {
+        Notification notification = new Notification("user-123", "TASK_ASSIGNED", NotificationChannel.WHATSAPP);
+        notification.markAsError("No phone");
+
+        assertThrows(IllegalStateException.class, notification::markAsSent);
+        assertFalse(NotificationStatus.ERROR.isDispatchable());
+        assertTrue(NotificationStatus.RETRYING.isDispatchable());
+    }
+
+    @Test
+    void testCodesAndValuesRoundTrip() {
+        for (NotificationStatus status : NotificationStatus.values()) {
+            assertEquals(status, NotificationStatus.fromCode(status.code()));
+            assertEquals(status, NotificationStatus.fromValue(status.value().toUpperCase()));
+        }
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            assertEquals(channel, NotificationChannel.fromCode(channel.code()));
+            assertEquals(channel, NotificationChannel.fromValue(channel.value()));
+        }
+        assertNull(NotificationChannel.fromOptionalValue(" "));
+        assertThrows(IllegalArgumentException.class, () -> NotificationChannel.fromValue("telegram"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.apporte.core.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserTest {
+
+    @Test
+    void testSetRoles_EscapesRolesJson() {
+        User user = new User("user-1", "user1@example.com", "User 1");
+
+        user.setRoles(List.of("admin", "team \"ops\"", "path\\to", " "));
+
+        assertEquals(Set.of("admin", "team \"ops\"", "path\\to"), user.getRoles());
+        assertEquals("[\"admin\",\"team \\\"ops\\\"\",\"path\\\\to\"]", user.getRolesJson());
+    }
+
+    @Test
+    void testSetRoles_EmptyClearsRolesJson() {
+        User user = new User("user-1", "user1@example.com", "User 1");
+        user.setRoles(List.of("admin"));
+
+        user.setRoles(null);
+
+        assertTrue(user.getRoles().isEmpty());
+        assertNull(user.getRolesJson());
+    }
+}
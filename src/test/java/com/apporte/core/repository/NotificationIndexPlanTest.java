@@ -0,0 +1,133 @@
+package com.apporte.core.repository;
+
+import com.apporte.core.model.Notification;
+import com.apporte.core.model.NotificationCursor;
+import com.apporte.core.model.NotificationStatus;
+import com.apporte.core.service.NotificationService;
+import com.apporte.test.StatementCapture;
+import com.apporte.test.TestDataHelper;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Confere no H2 (EXPLAIN) que o SQL gerado pelo Hibernate para as consultas da caixa do usuário,
+ * da listagem admin e dos lotes usa os índices B-tree declarados em {@link Notification}
+ * (e a busca de admins o de {@code user_roles}). O esquema do H2 vem das entidades: os índices
+ * específicos do PostgreSQL das migrações (parciais, BRIN) não são cobertos aqui.
+ */
+@QuarkusTest
+public class NotificationIndexPlanTest {
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    @PersistenceUnitExtension
+    StatementCapture statementCapture;
+
+    @Inject
+    NotificationService notificationService;
+
+    @Inject
+    NotificationRepository notificationRepository;
+
+    @Inject
+    UserRepository userRepository;
+
+    @BeforeEach
+    @Transactional
+    public void setupTestData() {
+        TestDataHelper.cleanAllTestData();
+        TestDataHelper.createMultipleNotifications(20, "user", "TASK_ASSIGNED", "email");
+    }
+
+    @Test
+    public void testUserInbox_UsesUserCreatedIndex() throws SQLException {
+        assertUsesIndex("idx_notifications_user_created",
+                () -> notificationService.getUserNotifications("user-1", null, null, 50));
+        assertUsesIndex("idx_notifications_user_created",
+                () -> notificationService.getUserNotifications("user-1", NotificationStatus.SENT, null, 50));
+    }
+
+    @Test
+    public void testUserInboxCursorPage_UsesUserCreatedIndex() throws SQLException {
+        String cursor = new NotificationCursor(Instant.now(), Long.MAX_VALUE).encode();
+        assertUsesIndex("idx_notifications_user_created",
+                () -> notificationService.getUserNotifications("user-1", null, cursor, 20));
+    }
+
+    @Test
+    public void testAdminListByStatus_UsesStatusCreatedIndex() throws SQLException {
+        Instant since = Instant.now().minus(7, ChronoUnit.DAYS);
+        assertUsesIndex("idx_notifications_status_created",
+                () -> notificationService.listNotifications(null, 20, NotificationStatus.ERROR, null, null, since, null));
+        assertUsesIndex("idx_notifications_status_created",
+                () -> notificationService.countNotifications(NotificationStatus.ERROR, null, null, since, null));
+    }
+
+    @Test
+    public void testBatchPage_UsesBatchIndex() throws SQLException {
+        assertUsesIndex("idx_notifications_batch",
+                () -> QuarkusTransaction.requiringNew().run(() -> notificationRepository.findBatchPage("batch-1", 0, 500)));
+    }
+
+    @Test
+    public void testAdminResolution_SeeksUserRolesByRole() throws SQLException {
+        // Com a tabela vazia o H2 pode escolher a chave primária ou idx_user_roles_role; só não pode varrer
+        String plan = explain(captureSelect("user_roles",
+                () -> QuarkusTransaction.requiringNew().run(() -> userRepository.findAdmins())));
+        assertFalse(plan.contains("user_roles.tableScan"), "Expected an index seek on role in plan:\n" + plan);
+    }
+
+    private void assertUsesIndex(String index, Runnable query) throws SQLException {
+        String plan = explain(captureSelect("notifications", query));
+        assertTrue(plan.toLowerCase().contains(index), "Expected " + index + " in plan:\n" + plan);
+    }
+
+    /**
+     * A única consulta sobre {@code table} que o Hibernate gerou ao executar {@code query}.
+     */
+    private String captureSelect(String table, Runnable query) {
+        List<String> selects = statementCapture.capture(query).stream()
+                .filter(sql -> sql.startsWith("select") && sql.contains(" " + table + " "))
+                .toList();
+        assertEquals(1, selects.size(), "Expected one select on " + table + ", got " + selects);
+        return selects.get(0);
+    }
+
+    /**
+     * Plano do SQL capturado; os parâmetros recebem valores textuais, convertidos pelo H2 para o tipo da coluna.
+     */
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setString(i, "1");
+            }
+            
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
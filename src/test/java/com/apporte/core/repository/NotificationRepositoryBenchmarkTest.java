@@ -0,0 +1,90 @@
+package com.apporte.core.repository;
+
+import com.apporte.core.model.Notification;
+import com.apporte.core.model.NotificationChannel;
+import com.apporte.core.model.NotificationStatus;
+import com.apporte.test.TestDataHelper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara a gravação de um fan-out linha a linha com {@link NotificationRepository#persistAll(List)}.
+ * Fora da suíte padrão; rodar com {@code mvn test -Pbenchmark}.
+ */
+@QuarkusTest
+@Tag("benchmark")
+public class NotificationRepositoryBenchmarkTest {
+    
+    private static final int FAN_OUT = 500;
+    private static final int ROUNDS = 10;
+    
+    @Inject
+    NotificationRepository notificationRepository;
+    
+    @BeforeEach
+    @Transactional
+    public void cleanData() {
+        TestDataHelper.cleanAllTestData();
+    }
+    
+    @Test
+    public void benchmarkFanOutPersistence() {
+        // Aquecimento: JIT, pool de conexões e primeiro bloco do sequence
+        runRounds(2, true);
+        runRounds(2, false);
+        
+        double perRow = runRounds(ROUNDS, false);
+        double bulk = runRounds(ROUNDS, true);
+        
+        System.out.printf("Fan-out of %d notifications: per-row persist %.0f rows/s, persistAll %.0f rows/s (%.1fx)%n",
+                          FAN_OUT, perRow, bulk, bulk / perRow);
+        
+        assertEquals((long) FAN_OUT * (ROUNDS + 2) * 2, notificationRepository.count());
+    }
+    
+    private double runRounds(int rounds, boolean bulk) {
+        long elapsed = 0;
+        for (int i = 0; i < rounds; i++) {
+            List<Notification> notifications = fanOut();
+            long start = System.nanoTime();
+            QuarkusTransaction.requiringNew().run(() -> {
+                if (bulk) {
+                    notificationRepository.persistAll(notifications);
+                } else {
+                    notifications.forEach(notification -> {
+                        notificationRepository.persist(notification);
+                        notificationRepository.flush();
+                    });
+                }
+            });
+            elapsed += System.nanoTime() - start;
+        }
+        return (double) FAN_OUT * rounds / (elapsed / 1_000_000_000.0);
+    }
+    
+    private static List<Notification> fanOut() {
+        List<Notification> notifications = new ArrayList<>(FAN_OUT);
+        for (int i = 0; i < FAN_OUT; i++) {
+            Notification notification = new Notification();
+            notification.setUserId("admin-" + i);
+            notification.setEventType("TASK_ASSIGNED");
+            notification.setChannel(NotificationChannel.EMAIL);
+            notification.setStatus(NotificationStatus.SENT);
+            notification.setCreatedAt(Instant.now());
+            notification.setPayloadJson("{\"recipient\":{\"userId\":\"admin-" + i + "\"}}");
+            notifications.add(notification);
+        }
+        return notifications;
+    }
+}
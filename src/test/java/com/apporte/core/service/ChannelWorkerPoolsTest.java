@@ -0,0 +1,77 @@
+package com.apporte.core.service;
+
+import com.apporte.infrastructure.exception.ChannelSaturatedException;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChannelWorkerPoolsTest {
+
+    private ChannelWorkerPools pools;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        pools.shutdown();
+    }
+
+    private void createPools(boolean virtualThreads) {
+        // Canais sem configuração própria: 1 envio simultâneo e fila de 1 posição
+        pools = new ChannelWorkerPools(ConfigProvider.getConfig(), 1, 1, 7, virtualThreads);
+    }
+
+    @ParameterizedTest(name = "virtualThreads={0}")
+    @ValueSource(booleans = {false, true})
+    void testSubmit_RejectsWhenQueueIsFull(boolean virtualThreads) throws InterruptedException {
+        createPools(virtualThreads);
+        CountDownLatch started = new CountDownLatch(1);
+        pools.submit("slow", () -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        pools.submit("slow", this::awaitRelease);
+
+        ChannelSaturatedException e = assertThrows(ChannelSaturatedException.class,
+            () -> pools.submit("slow", this::awaitRelease));
+        assertEquals("slow", e.getChannel());
+        assertEquals(7, e.getRetryAfterSeconds());
+        assertThrows(ChannelSaturatedException.class, () -> pools.ensureCapacity(List.of("slow")));
+    }
+
+    @ParameterizedTest(name = "virtualThreads={0}")
+    @ValueSource(booleans = {false, true})
+    void testSubmit_SaturatedChannelDoesNotBlockOthers(boolean virtualThreads) throws InterruptedException {
+        createPools(virtualThreads);
+        pools.submit("slow", this::awaitRelease);
+        pools.submit("slow", this::awaitRelease);
+
+        CountDownLatch delivered = new CountDownLatch(1);
+        pools.ensureCapacity(List.of("fast"));
+        pools.submit("fast", delivered::countDown);
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.apporte.core.service;
+
+import com.apporte.infrastructure.client.dto.KeycloakUserResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara a busca de usuário no Keycloak com um cliente JAX-RS novo por chamada (caminho antigo) com o
+ * {@link KeycloakService} de clientes reaproveitados, contra um Keycloak falso local (token e /users/{id}).
+ * Fora da suíte padrão; rodar com {@code mvn test -Pbenchmark}.
+ */
+@QuarkusTest
+@Tag("benchmark")
+public class KeycloakServiceBenchmarkTest {
+
+    private static final int CALLS = 2_000;
+    private static final String TOKEN_JSON = "{\"access_token\":\"eyJ.bench\",\"expires_in\":300,\"token_type\":\"Bearer\"}";
+    private static final String USER_JSON = "{\"id\":\"kc-1\",\"username\":\"kc-1\",\"email\":\"kc-1@apporte.com\","
+                                            + "\"firstName\":\"Usuário\",\"lastName\":\"Um\",\"enabled\":true}";
+
+    private final Set<Integer> connections = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private String adminUrl;
+
+    @BeforeEach
+    public void startStubKeycloak() throws IOException {
+        // Sem isso o servidor do JDK segura respostas em conexões reaproveitadas (Nagle + ACK atrasado, ~40ms)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverThreads = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverThreads);
+        server.createContext("/", this::handle);
+        server.start();
+        adminUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/admin/realms/bench";
+    }
+
+    @AfterEach
+    public void stopStubKeycloak() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    public void benchmarkGetUserById() {
+        KeycloakService service = new KeycloakService(adminUrl, "admin", "admin", "admin-cli",
+                                                      20, Duration.ofSeconds(2), Duration.ofSeconds(5), true);
+        try {
+            // Aquecimento: JIT, token em cache e conexões abertas
+            runLegacy(CALLS / 4);
+            runPooled(service, CALLS / 4);
+
+            long legacyNanos = runLegacy(CALLS);
+            long pooledNanos = runPooled(service, CALLS);
+
+            System.out.printf("Keycloak getUserById (%d calls): per-call client %.1f µs/call, "
+                              + "pooled client %.1f µs/call (%.1fx)%n",
+                              CALLS, legacyNanos / 1_000.0 / CALLS, pooledNanos / 1_000.0 / CALLS,
+                              (double) legacyNanos / pooledNanos);
+
+            connections.clear();
+            runPooled(service, CALLS);
+            assertTrue(connections.size() <= 2, "pooled client opened " + connections.size() + " connections");
+        } finally {
+            service.close();
+        }
+    }
+
+    private long runLegacy(int calls) {
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            try (Client client = ClientBuilder.newClient()) {
+                Response response = client.target(adminUrl + "/users/kc-1")
+                        .request(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer eyJ.bench")
+                        .get();
+                assertEquals("kc-1", response.readEntity(KeycloakUserResponse.class).id());
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runPooled(KeycloakService service, int calls) {
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            assertEquals("kc-1", service.getUserById("kc-1").orElseThrow().id());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        // A porta remota identifica a conexão
+        connections.add(exchange.getRemoteAddress().getPort());
+        String body = "POST".equals(exchange.getRequestMethod()) ? TOKEN_JSON : USER_JSON;
+        exchange.getRequestBody().readAllBytes();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", MediaType.APPLICATION_JSON);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.apporte.core.service;
+
+import com.apporte.infrastructure.client.dto.KeycloakUserResponse;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class KeycloakUserLoaderTest {
+
+    @Inject
+    @CacheName("keycloak-user-negative-cache")
+    Cache negativeCache;
+
+    @BeforeEach
+    public void clearNegativeCache() {
+        negativeCache.invalidateAll().await().indefinitely();
+    }
+
+    @Test
+    public void testLoad_CoalescesConcurrentLookupsForTheSameId() throws Exception {
+        StubKeycloak keycloak = new StubKeycloak(Optional.of(user("kc-1")));
+        KeycloakUserLoader loader = new KeycloakUserLoader(keycloak, negativeCache, 1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<KeycloakUserResponse>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> loader.load("kc-1")));
+            }
+            assertTrue(keycloak.started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100); // os demais chegam enquanto a primeira chamada está bloqueada
+            keycloak.release.countDown();
+
+            for (Future<Optional<KeycloakUserResponse>> result : results) {
+                assertEquals("kc-1", result.get(5, TimeUnit.SECONDS).orElseThrow().id());
+            }
+            assertEquals(1, keycloak.calls.get());
+        } finally {
+            callers.shutdownNow();
+            loader.shutdown();
+        }
+    }
+
+    @Test
+    public void testLoad_RemembersMissingUsers() {
+        StubKeycloak keycloak = new StubKeycloak(Optional.empty());
+        keycloak.release.countDown();
+        KeycloakUserLoader loader = new KeycloakUserLoader(keycloak, negativeCache, 1);
+
+        assertTrue(loader.load("unknown").isEmpty());
+        assertTrue(loader.load("unknown").isEmpty());
+        assertFalse(loader.refreshAsync("unknown", ignored -> fail("negative-cached id must not be refreshed")));
+
+        assertEquals(1, keycloak.calls.get());
+        loader.shutdown();
+    }
+
+    @Test
+    public void testRefreshAsync_RunsOncePerIdInFlight() throws Exception {
+        StubKeycloak keycloak = new StubKeycloak(Optional.of(user("kc-2")));
+        KeycloakUserLoader loader = new KeycloakUserLoader(keycloak, negativeCache, 2);
+        CompletableFuture<Optional<KeycloakUserResponse>> loaded = new CompletableFuture<>();
+
+        assertTrue(loader.refreshAsync("kc-2", loaded::complete));
+        assertTrue(keycloak.started.await(5, TimeUnit.SECONDS));
+        assertFalse(loader.refreshAsync("kc-2", ignored -> fail("refresh already in flight")));
+        keycloak.release.countDown();
+
+        assertEquals("kc-2", loaded.get(5, TimeUnit.SECONDS).orElseThrow().id());
+        assertEquals(1, keycloak.calls.get());
+        loader.shutdown();
+    }
+
+    private static KeycloakUserResponse user(String id) {
+        return new KeycloakUserResponse(id, id, id + "@apporte.com", "Usuário", id, true, true, null, null, null);
+    }
+
+    private static class StubKeycloak extends KeycloakService {
+
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        private final Optional<KeycloakUserResponse> result;
+
+        StubKeycloak(Optional<KeycloakUserResponse> result) {
+            super("http://localhost:8180/admin", "admin", "admin", "admin-cli", 1, Duration.ofSeconds(1), Duration.ofSeconds(1), false);
+            this.result = result;
+        }
+
+        @Override
+        public Optional<KeycloakUserResponse> getUserById(String userId) {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        }
+    }
+}
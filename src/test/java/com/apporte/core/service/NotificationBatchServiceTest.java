@@ -0,0 +1,251 @@
+package com.apporte.core.service;
+
+import com.apporte.api.dto.WorkflowNotificationRequest;
+import com.apporte.core.model.BatchJob;
+import com.apporte.core.model.BatchProgress;
+import com.apporte.core.model.Notification;
+import com.apporte.core.model.NotificationEvent;
+import com.apporte.core.model.NotificationStatus;
+import com.apporte.test.TestDataHelper;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.smallrye.config.SmallRyeConfigBuilder;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+public class NotificationBatchServiceTest {
+
+    @Inject
+    NotificationBatchService notificationBatchService;
+
+    @Inject
+    NotificationService notificationService;
+
+    @Inject
+    NotificationDispatcher notificationDispatcher;
+
+    @InjectMock
+    EmailService emailService;
+
+    @BeforeEach
+    @Transactional
+    public void setupTestData() {
+        TestDataHelper.cleanAllTestData();
+        TestDataHelper.createTestUser("user-123", "user123@apporte.com", "Usuário 123", "user");
+        TestDataHelper.createTestUser("user-456", "user456@apporte.com", "Usuário 456", "user");
+    }
+
+    @Test
+    public void testProcess_PersistsWholeBatchAndDeliversEveryItem() {
+        NotificationBatchService.BatchResult result = notificationBatchService.process(List.of(
+            manual("user-123", "email"),
+            manual("user-456", "email"),
+            manual("user-789", "email")
+        ), "tester");
+
+        assertNotNull(result.batchId());
+        assertEquals(3, result.count(NotificationBatchService.ITEM_SUCCESS));
+        verify(emailService, times(3)).sendEmail(any(), any());
+
+        List<Notification> persisted = findByBatch(result.batchId());
+        assertEquals(3, persisted.size());
+        assertTrue(persisted.stream().allMatch(n -> n.getStatus() == NotificationStatus.SENT && n.getClaimedBy() == null));
+    }
+
+    @Test
+    public void testProcess_ReportsFailuresPerItem() {
+        doThrow(new RuntimeException("SMTP unavailable"))
+            .when(emailService).sendEmail(argThat(r -> "user-456".equals(r.getUserId())), any());
+
+        NotificationBatchService.BatchResult result = notificationBatchService.process(List.of(
+            manual("user-123", "email"),
+            manual("user-456", "email")
+        ), "tester");
+
+        NotificationBatchService.ItemResult ok = result.items().get(0);
+        NotificationBatchService.ItemResult failed = result.items().get(1);
+
+        assertEquals(NotificationBatchService.ITEM_SUCCESS, ok.status());
+        assertEquals(0, ok.failed());
+        assertEquals(NotificationBatchService.ITEM_ERROR, failed.status());
+        assertEquals(1, failed.failed());
+        assertTrue(failed.error().contains("SMTP unavailable"));
+    }
+
+    @Test
+    public void testProcess_InvalidItemsAreReportedWithoutAbortingTheBatch() {
+        NotificationBatchService.BatchResult result = notificationBatchService.process(List.of(
+            manual("user-123", "email"),
+            manual("user-456", "fax"),
+            manual("", "email")
+        ), "tester");
+
+        assertEquals(NotificationBatchService.ITEM_SUCCESS, result.items().get(0).status());
+        NotificationBatchService.ItemResult badChannel = result.items().get(1);
+        assertEquals(NotificationBatchService.ITEM_ERROR, badChannel.status());
+        assertEquals(0, badChannel.notifications());
+        assertTrue(badChannel.error().startsWith("Unsupported channel"));
+        assertEquals(NotificationBatchService.ITEM_ERROR, result.items().get(2).status());
+        verify(emailService, times(1)).sendEmail(any(), any());
+
+        List<Notification> persisted = findByBatch(result.batchId());
+        assertEquals(1, persisted.size());
+        assertEquals("user-123", persisted.get(0).getUserId());
+    }
+
+    @Test
+    public void testProcess_SaturatedChannelWaitsInsteadOfFailing() {
+        // 1 envio por vez e fila de 1 posição: a maior parte do lote encontra a fila cheia
+        ChannelWorkerPools tinyPools = new ChannelWorkerPools(new SmallRyeConfigBuilder().build(), 1, 1, 1, false);
+        NotificationBatchService batchService = new NotificationBatchService(notificationService, notificationDispatcher,
+                                                                             tinyPools, 16);
+        doAnswer(invocation -> {
+            Thread.sleep(20);
+            return null;
+        }).when(emailService).sendEmail(any(), any());
+
+        try {
+            NotificationBatchService.BatchResult result = batchService.process(List.of(
+                manual("user-123", "email"),
+                manual("user-456", "email"),
+                manual("user-123", "email"),
+                manual("user-456", "email"),
+                manual("user-123", "email")
+            ), "tester");
+
+            assertEquals(5, result.count(NotificationBatchService.ITEM_SUCCESS));
+            assertTrue(findByBatch(result.batchId()).stream().allMatch(n -> n.getStatus() == NotificationStatus.SENT));
+        } finally {
+            batchService.shutdown();
+            tinyPools.shutdown();
+        }
+    }
+
+    @Test
+    public void testSubmit_ProgressIsAggregatedFromBatchRows() throws InterruptedException {
+        NotificationBatchService.BatchResult result = notificationBatchService.submit(List.of(
+            manual("user-123", "email"),
+            manual("user-456", "email")
+        ), "tester");
+
+        assertEquals(2, result.count(NotificationBatchService.ITEM_QUEUED));
+
+        BatchProgress progress = awaitCompletion(result.batchId());
+        assertEquals(BatchJob.STATUS_COMPLETED, progress.job().getStatus());
+        assertEquals(2, progress.job().getTotalNotifications());
+        assertEquals(2, progress.count(NotificationStatus.SENT));
+        assertEquals(0, progress.outstanding());
+
+        List<Notification> firstPage = notificationService.findBatchResults(result.batchId(), 0, 1);
+        List<Notification> secondPage = notificationService.findBatchResults(result.batchId(), firstPage.get(0).getId(), 1);
+        assertEquals(1, secondPage.size());
+        assertTrue(secondPage.get(0).getId() > firstPage.get(0).getId());
+    }
+
+    @Test
+    public void testInterruptedInlineBatchIsDeliveredByTheDispatcherPoll() throws InterruptedException {
+        // Nó que caiu no meio de um lote inline: entregou a primeira notificação e deixou as outras reivindicadas
+        String batchId = UUID.randomUUID().toString();
+        List<NotificationService.EnqueuedItem> enqueued = notificationService.enqueueBatch(List.of(
+            manual("user-123", "email"),
+            manual("user-456", "email"),
+            manual("user-789", "email")
+        ), batchId, "tester", "crashed-node", Duration.ofMinutes(2));
+        notificationService.recordDeliveryResult(enqueued.get(0).notifications().get(0).getId(), "crashed-node", null, null);
+        expireLeases(batchId);
+
+        notificationDispatcher.pollOutbox();
+
+        BatchProgress progress = awaitCompletion(batchId);
+        assertEquals(3, progress.count(NotificationStatus.SENT));
+        verify(emailService, times(2)).sendEmail(any(), any());
+    }
+
+    @Test
+    public void testProcess_FanOutSharesOneStoredEvent() {
+        WorkflowNotificationRequest request = new WorkflowNotificationRequest("TASK_ASSIGNED", "task", "task-1",
+                List.of("email", "in_app"), List.of("manual"), Map.of("taskName", "Revisar documentação"));
+
+        NotificationBatchService.BatchResult result = notificationBatchService.process(List.of(request, request), "tester");
+
+        assertEquals(2, result.count(NotificationBatchService.ITEM_SUCCESS));
+        verify(emailService, times(2)).sendEmail(any(), any());
+
+        List<Notification> persisted = findByBatch(result.batchId());
+        assertEquals(4, persisted.size());
+        assertEquals(1, countEvents());
+        String eventId = persisted.get(0).getEventId();
+        assertNotNull(eventId);
+        assertTrue(persisted.stream().allMatch(n -> eventId.equals(n.getEventId()) && n.getStatus() == NotificationStatus.SENT));
+    }
+
+    @Test
+    public void testGetBatchProgress_IsReadOnly() {
+        String batchId = UUID.randomUUID().toString();
+        List<NotificationService.EnqueuedItem> enqueued = notificationService.enqueueBatch(
+            List.of(manual("user-123", "email")), batchId, "tester", "node-a", Duration.ofMinutes(2));
+        notificationService.recordDeliveryResult(enqueued.get(0).notifications().get(0).getId(), "node-a", null, null);
+
+        BatchProgress progress = notificationService.getBatchProgress(batchId).orElseThrow();
+        assertEquals(0, progress.outstanding());
+        assertEquals(BatchJob.STATUS_RUNNING, progress.job().getStatus());
+        assertEquals(BatchJob.STATUS_RUNNING, notificationService.getBatchProgress(batchId).orElseThrow().job().getStatus());
+
+        assertTrue(notificationService.completeBatchIfFinished(batchId));
+        assertTrue(notificationService.getBatchProgress(batchId).orElseThrow().job().isCompleted());
+    }
+
+    @Test
+    public void testGetBatchProgress_UnknownJob() {
+        assertTrue(notificationService.getBatchProgress("does-not-exist").isEmpty());
+    }
+
+    private BatchProgress awaitCompletion(String batchId) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            // O ciclo do dispatcher recupera linhas abandonadas e conclui lotes que ele entregou
+            notificationDispatcher.pollOutbox();
+            BatchProgress progress = notificationService.getBatchProgress(batchId).orElseThrow();
+            if (progress.job().isCompleted()) {
+                return progress;
+            }
+            Thread.sleep(100);
+        }
+        fail("Batch " + batchId + " did not complete");
+        return null;
+    }
+
+    private WorkflowNotificationRequest manual(String recipientId, String channel) {
+        return new WorkflowNotificationRequest("TASK_ASSIGNED", "user", recipientId,
+                List.of(channel), List.of("manual"), Map.of());
+    }
+
+    @Transactional
+    void expireLeases(String batchId) {
+        Notification.update("leaseExpiresAt = ?1 where batchId = ?2 and claimedBy is not null",
+                            Instant.now().minusSeconds(1), batchId);
+    }
+
+    @Transactional
+    long countEvents() {
+        return NotificationEvent.count();
+    }
+
+    @Transactional
+    List<Notification> findByBatch(String batchId) {
+        return Notification.list("batchId", batchId);
+    }
+}
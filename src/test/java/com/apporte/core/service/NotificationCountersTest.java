@@ -0,0 +1,58 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.Notification;
+import com.apporte.test.TestDataHelper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class NotificationCountersTest {
+
+    @Inject
+    NotificationCounters notificationCounters;
+
+    @BeforeEach
+    public void setupTestData() {
+        TestDataHelper.cleanAllTestData();
+        notificationCounters.reconcile();
+    }
+
+    @Test
+    public void testCountersFollowCommittedTransitions() {
+        long recentCreated = notificationCounters.recent(NotificationCounters.CREATED);
+        long recentSent = notificationCounters.recent("sent");
+
+        Long id = TestDataHelper.createTestNotification("user-1", "TASK_ASSIGNED", "email", "pending").id;
+        TestDataHelper.createTestNotification("user-2", "TASK_ASSIGNED", "whatsapp", "error");
+        QuarkusTransaction.requiringNew().run(() -> Notification.<Notification>findById(id).markAsSent());
+
+        assertEquals(2, notificationCounters.total());
+        assertEquals(0, notificationCounters.countByStatus("pending"));
+        assertEquals(1, notificationCounters.countByStatus("sent"));
+        assertEquals(1, notificationCounters.countByStatus("error"));
+        assertEquals(1L, notificationCounters.countByChannel().get("email"));
+        assertEquals(recentCreated + 2, notificationCounters.recent(NotificationCounters.CREATED));
+        assertEquals(recentSent + 1, notificationCounters.recent("sent"));
+
+        QuarkusTransaction.requiringNew().run(() -> Notification.deleteById(id));
+        assertEquals(0, notificationCounters.countByStatus("sent"));
+        assertEquals(1, notificationCounters.total());
+    }
+
+    @Test
+    public void testReconcile_CorrectsBulkDeletesOutsideTheListener() {
+        TestDataHelper.createTestNotification("user-1", "TASK_ASSIGNED", "email", "sent");
+        TestDataHelper.createTestNotification("user-2", "TASK_ASSIGNED", "email", "sent");
+        QuarkusTransaction.requiringNew().run(() -> Notification.delete("userId", "user-1"));
+
+        assertEquals(2, notificationCounters.countByStatus("sent"));
+
+        notificationCounters.reconcile();
+        assertEquals(1, notificationCounters.countByStatus("sent"));
+    }
+}
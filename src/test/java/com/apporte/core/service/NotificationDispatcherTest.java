@@ -0,0 +1,98 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.Notification;
+import com.apporte.core.model.NotificationStatus;
+import com.apporte.test.TestDataHelper;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class NotificationDispatcherTest {
+
+    @Inject
+    NotificationService notificationService;
+
+    private Long pendingId;
+
+    @BeforeEach
+    @Transactional
+    public void setupTestData() {
+        TestDataHelper.cleanAllTestData();
+        pendingId = TestDataHelper.createTestNotification("user-123", "PROJECT_READY_REVIEW", "email", "pending").id;
+        TestDataHelper.createTestNotification("user-456", "TASK_ASSIGNED", "email", "sent");
+    }
+
+    @Test
+    public void testClaimDispatchBatch_OnlyPendingRowsAreClaimed() {
+        List<Notification> claimed = notificationService.claimDispatchBatch("node-a", 10, Duration.ofMinutes(2));
+
+        assertEquals(1, claimed.size());
+        assertEquals(pendingId, claimed.get(0).getId());
+        assertEquals("node-a", claimed.get(0).getClaimedBy());
+        assertEquals(1, claimed.get(0).getAttempts());
+    }
+
+    @Test
+    public void testClaimDispatchBatch_LeaseBlocksOtherNodesUntilExpired() {
+        notificationService.claimDispatchBatch("node-a", 10, Duration.ofMinutes(2));
+
+        // Lease válido: outro nó não recebe a mesma linha
+        assertTrue(notificationService.claimDispatchBatch("node-b", 10, Duration.ofMinutes(2)).isEmpty());
+
+        // Simula queda do node-a: lease expirado volta a ser elegível
+        expireLease(pendingId);
+        List<Notification> reclaimed = notificationService.claimDispatchBatch("node-b", 10, Duration.ofMinutes(2));
+
+        assertEquals(1, reclaimed.size());
+        assertEquals("node-b", reclaimed.get(0).getClaimedBy());
+        assertEquals(2, reclaimed.get(0).getAttempts());
+    }
+
+    @Test
+    public void testRecordDeliveryResult_IgnoresResultFromNodeThatLostLease() {
+        notificationService.claimDispatchBatch("node-a", 10, Duration.ofMinutes(2));
+        expireLease(pendingId);
+        notificationService.claimDispatchBatch("node-b", 10, Duration.ofMinutes(2));
+
+        notificationService.recordDeliveryResult(pendingId, "node-a", null, null);
+        assertEquals(NotificationStatus.PENDING, reload(pendingId).getStatus());
+
+        notificationService.recordDeliveryResult(pendingId, "node-b", null, null);
+        Notification delivered = reload(pendingId);
+        assertEquals(NotificationStatus.SENT, delivered.getStatus());
+        assertNull(delivered.getClaimedBy());
+    }
+
+    @Test
+    public void testRecordDeliveryResult_SchedulesRetryWhileAttemptsRemain() {
+        notificationService.claimDispatchBatch("node-a", 10, Duration.ofMinutes(2));
+        Instant retryAt = Instant.now().plusSeconds(60);
+
+        notificationService.recordDeliveryResult(pendingId, "node-a", "SMTP timeout", retryAt);
+
+        Notification retrying = reload(pendingId);
+        assertEquals(NotificationStatus.RETRYING, retrying.getStatus());
+        assertEquals("SMTP timeout", retrying.getErrorMessage());
+        // Ainda no backoff: não é reivindicada
+        assertTrue(notificationService.claimDispatchBatch("node-b", 10, Duration.ofMinutes(2)).isEmpty());
+    }
+
+    @Transactional
+    Notification reload(Long notificationId) {
+        return Notification.findById(notificationId);
+    }
+
+    @Transactional
+    void expireLease(Long notificationId) {
+        Notification.update("leaseExpiresAt = ?1 where id = ?2", Instant.now().minusSeconds(1), notificationId);
+    }
+}
@@ -0,0 +1,125 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.BatchProgress;
+import com.apporte.core.model.NotificationStatus;
+import com.apporte.test.TestDataHelper;
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+public class NotificationIngestServiceTest {
+
+    @Inject
+    NotificationIngestService notificationIngestService;
+
+    @Inject
+    NotificationService notificationService;
+
+    @InjectMock
+    EmailService emailService;
+
+    @BeforeEach
+    @Transactional
+    public void setupTestData() {
+        TestDataHelper.cleanAllTestData();
+    }
+
+    @Test
+    public void testIngest_AcceptsValidLinesAndRejectsInvalidOnes() throws Exception {
+        String ndjson = """
+            {"eventType":"REMINDER","channel":"email","recipientId":"user-1"}
+            {"eventType":"REMINDER","channel":"email"}
+
+            {not json}
+            {"eventType":"REMINDER","channel":"email","recipientId":"user-2","context":{"day":"monday"}}
+            """;
+
+        NotificationIngestService.IngestResult result = ingest(ndjson);
+
+        assertEquals(2, result.accepted());
+        assertEquals(2, result.rejected());
+        assertEquals(2, result.rejections().get(0).line());
+        assertTrue(result.rejections().get(0).reason().contains("Recipient ID"));
+        assertEquals(4, result.rejections().get(1).line());
+        assertTrue(result.rejections().get(1).reason().startsWith("Malformed JSON"));
+
+        BatchProgress progress = awaitCompletion(result.jobId());
+        assertEquals(2, progress.job().getTotalNotifications());
+        assertEquals(2, progress.count(NotificationStatus.SENT));
+        verify(emailService, times(2)).sendEmail(any(), any());
+    }
+
+    @Test
+    public void testIngest_RejectsUnsupportedChannelWithoutStoppingTheUpload() throws Exception {
+        String ndjson = """
+            {"eventType":"REMINDER","channel":"email","recipientId":"user-1"}
+            {"eventType":"REMINDER","channel":"fax","recipientId":"user-2"}
+            {"eventType":"REMINDER","channel":"EMAIL","recipientId":"user-3"}
+            """;
+
+        NotificationIngestService.IngestResult result = ingest(ndjson);
+
+        assertEquals(2, result.accepted());
+        assertEquals(1, result.rejected());
+        assertEquals(2, result.rejections().get(0).line());
+        assertTrue(result.rejections().get(0).reason().startsWith("Unsupported channel"));
+
+        BatchProgress progress = awaitCompletion(result.jobId());
+        assertEquals(2, progress.count(NotificationStatus.SENT));
+    }
+
+    @Test
+    public void testIngest_OversizedLineIsDiscardedAndReadingContinues() throws Exception {
+        String padding = "x".repeat(70_000);
+        String ndjson = "{\"eventType\":\"REMINDER\",\"channel\":\"email\",\"recipientId\":\"user-1\",\"context\":{\"pad\":\"" + padding + "\"}}\r\n"
+                        + "{\"eventType\":\"REMINDER\",\"channel\":\"email\",\"recipientId\":\"user-2\"}\r\n"
+                        + "{\"eventType\":\"REMINDER\",\"channel\":\"email\",\"recipientId\":\"user-3\"}";
+
+        NotificationIngestService.IngestResult result = ingest(ndjson);
+
+        assertEquals(2, result.accepted());
+        assertEquals(1, result.rejected());
+        assertEquals(1, result.rejections().get(0).line());
+        assertTrue(result.rejections().get(0).reason().startsWith("Line exceeds"));
+
+        BatchProgress progress = awaitCompletion(result.jobId());
+        assertEquals(2, progress.count(NotificationStatus.SENT));
+    }
+
+    @Test
+    public void testIngest_EmptyBodyCompletesImmediately() throws Exception {
+        NotificationIngestService.IngestResult result = ingest("");
+
+        assertEquals(0, result.accepted());
+        assertTrue(notificationService.getBatchProgress(result.jobId()).orElseThrow().job().isCompleted());
+    }
+
+    private NotificationIngestService.IngestResult ingest(String ndjson) throws IOException {
+        return notificationIngestService.ingest(
+            new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "tester");
+    }
+
+    private BatchProgress awaitCompletion(String jobId) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            BatchProgress progress = notificationService.getBatchProgress(jobId).orElseThrow();
+            if (progress.job().isCompleted()) {
+                return progress;
+            }
+            Thread.sleep(100);
+        }
+        fail("Ingest " + jobId + " did not complete");
+        return null;
+    }
+}
@@ -0,0 +1,116 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.NotificationPayload;
+import com.apporte.core.model.RecipientResolution;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara o payload montado em {@code HashMap} e serializado por um ObjectMapper avulso (caminho antigo)
+ * com o {@link NotificationPayload} tipado do {@link NotificationPayloadCodec} (escritor/leitor em cache,
+ * com e sem Blackbird), ida e volta por notificação de um fan-out.
+ * Fora da suíte padrão; rodar com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class NotificationPayloadBenchmarkTest {
+    
+    private static final int FAN_OUT = 20_000;
+    private static final int ROUNDS = 10;
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+    
+    private final ObjectMapper legacyMapper = new ObjectMapper();
+    private final RecipientResolution recipient = recipient();
+    private final Map<String, Object> context = Map.of("projectTitle", "Meu Projeto",
+                                                       "fromColumn", "Em Análise",
+                                                       "toColumn", "Pronto para Revisão");
+    
+    @Test
+    public void benchmarkPayloadRoundTrip() throws IOException {
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        NotificationPayloadCodec reflective = new NotificationPayloadCodec(mapper, "json", 0, false);
+        NotificationPayloadCodec blackbird = new NotificationPayloadCodec(mapper, "json", 0, true);
+        NotificationPayloadCodec smile = new NotificationPayloadCodec(mapper, "smile", 0, true);
+        
+        // Aquecimento: JIT e caches de serializadores
+        for (int i = 0; i < 3; i++) {
+            runLegacy(FAN_OUT);
+            runTyped(reflective, FAN_OUT);
+            runTyped(blackbird, FAN_OUT);
+            runTyped(smile, FAN_OUT);
+        }
+        
+        double legacy = rate(runLegacy(FAN_OUT * ROUNDS));
+        double typed = rate(runTyped(reflective, FAN_OUT * ROUNDS));
+        double typedBlackbird = rate(runTyped(blackbird, FAN_OUT * ROUNDS));
+        double typedSmile = rate(runTyped(smile, FAN_OUT * ROUNDS));
+        
+        System.out.printf("Payload round trips/s: map %.0f, typed %.0f (%.1fx), typed+blackbird %.0f (%.1fx), "
+                          + "typed+blackbird smile %.0f (%.1fx)%n",
+                          legacy, typed, typed / legacy, typedBlackbird, typedBlackbird / legacy,
+                          typedSmile, typedSmile / legacy);
+        
+        assertEquals("user-123", blackbird.decode(blackbird.encode(payload())).recipient().userId());
+    }
+    
+    private long runLegacy(int iterations) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Map<String, Object> recipientMap = new HashMap<>();
+            recipientMap.put("userId", recipient.getUserId());
+            recipientMap.put("email", recipient.getEmail());
+            recipientMap.put("name", recipient.getName());
+            recipientMap.put("recipientType", recipient.getRecipientType());
+            recipientMap.put("phone", recipient.getPhone());
+            recipientMap.put("metadata", recipient.getMetadata());
+            
+            Map<String, Object> eventMap = new HashMap<>();
+            eventMap.put("type", "PROJECT_READY_REVIEW");
+            eventMap.put("entityType", "project");
+            eventMap.put("entityId", "proj-123");
+            eventMap.put("context", context);
+            eventMap.put("timestamp", Instant.now().toString());
+            
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("recipient", recipientMap);
+            payload.put("event", eventMap);
+            payload.put("retryAttempts", 0);
+            payload.put("createdAt", Instant.now().toString());
+            
+            String json = legacyMapper.writeValueAsString(payload);
+            legacyMapper.readValue(json, MAP_TYPE);
+        }
+        return System.nanoTime() - start;
+    }
+    
+    private long runTyped(NotificationPayloadCodec codec, int iterations) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            codec.decode(codec.encode(payload()));
+        }
+        return System.nanoTime() - start;
+    }
+    
+    private NotificationPayload payload() {
+        return NotificationPayload.of(recipient, "PROJECT_READY_REVIEW", "project", "proj-123", context, Instant.now());
+    }
+    
+    private static double rate(long elapsedNanos) {
+        return FAN_OUT * ROUNDS / (elapsedNanos / 1_000_000_000.0);
+    }
+    
+    private static RecipientResolution recipient() {
+        RecipientResolution recipient = new RecipientResolution("user-123", "usuario@empresa.com", "João Silva", "project_owner");
+        recipient.setPhone("+5511999999999");
+        recipient.setMetadata(Map.of("department", "Financeiro"));
+        return recipient;
+    }
+}
@@ -0,0 +1,94 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.NotificationPayload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationPayloadCodecTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T12:00:00Z");
+
+    private static final NotificationPayload PAYLOAD = new NotificationPayload(
+        new NotificationPayload.Recipient("user-123", "user123@apporte.com", "Usuário 123", "task_assignee",
+                                          null, Map.of("department", "Financeiro")),
+        new NotificationPayload.Event("TASK_ASSIGNED", "task", "task-1",
+                                      Map.of("description", "Revisar documentação ".repeat(20)), NOW),
+        0,
+        NOW
+    );
+
+    @ParameterizedTest(name = "format={0}, threshold={1}, blackbird={2}")
+    @CsvSource({"json, 0, false", "json, 64, true", "smile, 0, true", "smile, 64, false"})
+    void testRoundTrip(String format, int threshold, boolean blackbird) throws IOException {
+        NotificationPayloadCodec codec = new NotificationPayloadCodec(mapper(), format, threshold, blackbird);
+
+        byte[] encoded = codec.encode(PAYLOAD);
+
+        assertEquals(PAYLOAD, codec.decode(encoded));
+    }
+
+    @Test
+    void testCompressedSmileIsSmallerThanJsonText() throws IOException {
+        NotificationPayloadCodec codec = codec("smile", 64);
+        byte[] json = mapper().writeValueAsBytes(PAYLOAD);
+
+        byte[] encoded = codec.encode(PAYLOAD);
+
+        assertTrue(encoded.length < json.length / 2, encoded.length + " bytes vs " + json.length);
+    }
+
+    @Test
+    void testDecode_ReadsRowsWrittenWithAnotherFormat() throws IOException {
+        byte[] json = codec("json", 0).encode(PAYLOAD);
+
+        assertEquals(PAYLOAD, codec("smile", 64).decode(json));
+    }
+
+    @Test
+    void testDecodeLegacyJson_AcceptsQuotedPayload() throws IOException {
+        NotificationPayloadCodec codec = codec("smile", 64);
+        String quoted = "\"{\\\"recipient\\\":{\\\"userId\\\":\\\"user-123\\\"},\\\"createdAt\\\":\\\"2026-03-01T12:00:00Z\\\"}\"";
+
+        NotificationPayload payload = codec.decodeLegacyJson(quoted);
+        assertEquals("user-123", payload.recipient().userId());
+        assertEquals(NOW, payload.createdAt());
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("x".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testEventKey_IgnoresContextOrderAndRoundTrips() throws IOException {
+        NotificationPayloadCodec codec = codec("smile", 64);
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("taskName", "Revisar");
+        context.put("dueDate", "2026-03-10");
+        Map<String, Object> reversed = new LinkedHashMap<>();
+        reversed.put("dueDate", "2026-03-10");
+        reversed.put("taskName", "Revisar");
+        NotificationPayload.Event event = new NotificationPayload.Event("TASK_ASSIGNED", "task", "task-1", context, null);
+
+        String key = codec.eventKey(event);
+
+        assertEquals(64, key.length());
+        assertEquals(key, codec("json", 0).eventKey(new NotificationPayload.Event("TASK_ASSIGNED", "task", "task-1", reversed, null)));
+        assertNotEquals(key, codec.eventKey(new NotificationPayload.Event("TASK_ASSIGNED", "task", "task-2", context, null)));
+        assertEquals(event, codec.decodeEvent(codec.encodeEvent(event)));
+    }
+
+    private static NotificationPayloadCodec codec(String format, int threshold) {
+        return new NotificationPayloadCodec(mapper(), format, threshold, true);
+    }
+
+    private static ObjectMapper mapper() {
+        return new ObjectMapper().findAndRegisterModules();
+    }
+}
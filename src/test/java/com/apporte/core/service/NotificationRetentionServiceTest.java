@@ -0,0 +1,76 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.Notification;
+import com.apporte.core.model.RetentionCheckpoint;
+import com.apporte.test.TestDataHelper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class NotificationRetentionServiceTest {
+
+    @Inject
+    NotificationRetentionService notificationRetentionService;
+
+    @Inject
+    NotificationCounters notificationCounters;
+
+    @BeforeEach
+    public void setupTestData() {
+        TestDataHelper.cleanAllTestData();
+        notificationCounters.reconcile();
+    }
+
+    @Test
+    public void testRun_DeletesExpiredDeliveredNotificationsInChunks() {
+        createOld("sent");
+        createOld("sent");
+        createOld("error");
+        Long oldPending = createOld("pending");
+        Long recentSent = TestDataHelper.createTestNotification("user-1", "TASK_ASSIGNED", "email", "sent").id;
+
+        assertEquals(3, notificationRetentionService.run());
+
+        List<Long> remaining = QuarkusTransaction.requiringNew().call(() ->
+                Notification.<Notification>listAll().stream().map(n -> n.id).sorted().toList());
+        assertEquals(List.of(oldPending, recentSent), remaining);
+
+        assertNull(QuarkusTransaction.requiringNew().call(() ->
+                RetentionCheckpoint.findById(NotificationRetentionService.CHECKPOINT_ID)));
+        assertEquals(1, notificationCounters.countByStatus("sent"));
+        assertEquals(0, notificationCounters.countByStatus("error"));
+    }
+
+    @Test
+    public void testRun_ResumesFromCheckpoint() {
+        Long first = createOld("sent");
+        Long second = createOld("sent");
+        Long third = createOld("sent");
+
+        // Execução interrompida depois do primeiro bloco
+        QuarkusTransaction.requiringNew().run(() -> new RetentionCheckpoint(NotificationRetentionService.CHECKPOINT_ID,
+                Instant.now().minus(Duration.ofDays(1)), second, third).persist());
+
+        assertEquals(2, notificationRetentionService.run());
+
+        List<Long> remaining = QuarkusTransaction.requiringNew().call(() ->
+                Notification.<Notification>listAll().stream().map(n -> n.id).toList());
+        assertEquals(List.of(first), remaining);
+    }
+
+    private Long createOld(String status) {
+        Long id = TestDataHelper.createTestNotification("user-1", "TASK_ASSIGNED", "email", status).id;
+        QuarkusTransaction.requiringNew().run(() -> Notification.<Notification>findById(id)
+                .setCreatedAt(Instant.now().minus(Duration.ofDays(120))));
+        return id;
+    }
+}
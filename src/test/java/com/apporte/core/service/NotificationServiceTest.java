@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import java.util.*;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @QuarkusTest
@@ -143,4 +144,21 @@ public class NotificationServiceTest {
         // WhatsApp ainda deve ser enviado
         verify(whatsappService, times(1)).sendMessage(any(RecipientResolution.class), eq(request));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEnqueueWorkflowNotification_PersistsPendingWithoutSending() {
+        // Arrange
+        WorkflowNotificationRequest request = createTestRequest();
+
+        // Act
+        notificationService.enqueueWorkflowNotification(request);
+
+        // Assert
+        // 1 recipient × 2 canais, todos pendentes e nenhum envio durante a requisição
+        verify(notificationRepository, times(1)).persistAll(argThat(notifications ->
+            notifications.size() == 2 &&
+            notifications.stream().allMatch(n -> n.getStatus() == NotificationStatus.PENDING)));
+        verify(emailService, never()).sendEmail(any(), any());
+        verify(whatsappService, never()).sendMessage(any(), any());
+    }
+}
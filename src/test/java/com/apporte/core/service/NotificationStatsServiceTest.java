@@ -0,0 +1,107 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.Notification;
+import com.apporte.core.model.NotificationStatsBucket;
+import com.apporte.core.model.NotificationStatsKey;
+import com.apporte.test.TestDataHelper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class NotificationStatsServiceTest {
+
+    @Inject
+    NotificationStatsService notificationStatsService;
+
+    @BeforeEach
+    public void setupTestData() {
+        TestDataHelper.cleanAllTestData();
+    }
+
+    @Test
+    public void testStatusTransitionsMoveCountsBetweenStatuses() {
+        Long sentId = TestDataHelper.createTestNotification("user-1", "TASK_ASSIGNED", "email", "pending").id;
+        TestDataHelper.createTestNotification("user-2", "TASK_ASSIGNED", "whatsapp", "pending");
+        TestDataHelper.createTestNotification("user-3", "PROJECT_READY_REVIEW", "email", "error");
+
+        QuarkusTransaction.requiringNew().run(() -> Notification.<Notification>findById(sentId).markAsSent());
+
+        Map<String, Object> stats = notificationStatsService.getStatistics(7);
+        assertEquals(3L, stats.get("total"));
+        assertEquals(1L, stats.get("sent"));
+        assertEquals(1L, stats.get("pending"));
+        assertEquals(1L, stats.get("error"));
+        assertEquals(Map.of("email", 2L, "whatsapp", 1L), stats.get("byChannel"));
+        assertEquals(Map.of("TASK_ASSIGNED", 2L, "PROJECT_READY_REVIEW", 1L), stats.get("byEventType"));
+    }
+
+    @Test
+    public void testDeltasCommitWithTheTransitionAndRollbacksAreIgnored() {
+        TestDataHelper.createTestNotification("user-1", "TASK_ASSIGNED", "email", "sent");
+
+        assertThrows(IllegalStateException.class, () -> QuarkusTransaction.requiringNew().run(() -> {
+            TestDataHelper.createTestNotification("user-2", "TASK_ASSIGNED", "email", "sent");
+            Notification.flush();
+            throw new IllegalStateException("rollback");
+        }));
+
+        assertEquals(1, countRollupRows());
+        Map<String, Object> stats = notificationStatsService.getStatistics(1);
+        assertEquals(1L, stats.get("total"));
+        assertEquals(1L, stats.get("sent"));
+    }
+
+    @Test
+    public void testCompact_MergesDeltasAndRollsOldHoursIntoDays() {
+        Instant recentHour = Instant.now().truncatedTo(ChronoUnit.HOURS);
+        Instant oldHour = recentHour.minus(30, ChronoUnit.DAYS);
+
+        insertBuckets(List.of(
+            bucket(recentHour, "sent", 2),
+            bucket(recentHour, "sent", 3),
+            bucket(recentHour, "pending", 1),
+            bucket(oldHour, "sent", 4),
+            bucket(oldHour.plus(1, ChronoUnit.HOURS), "sent", 1)
+        ));
+
+        notificationStatsService.compact();
+
+        List<NotificationStatsBucket> rows = listRollupRows();
+        assertEquals(3, rows.size());
+        assertTrue(rows.stream().anyMatch(row -> row.getKey().bucketStart().equals(recentHour)
+                && "sent".equals(row.getKey().status()) && row.getCount() == 5));
+        assertTrue(rows.stream().anyMatch(row -> NotificationStatsBucket.GRANULARITY_DAY.equals(row.getKey().granularity())
+                && row.getKey().bucketStart().equals(oldHour.truncatedTo(ChronoUnit.DAYS)) && row.getCount() == 5));
+    }
+
+    private static NotificationStatsBucket bucket(Instant hour, String status, long count) {
+        return new NotificationStatsBucket(new NotificationStatsKey(
+                hour, NotificationStatsBucket.GRANULARITY_HOUR, "email", "TASK_ASSIGNED", status), count);
+    }
+
+    @Transactional
+    void insertBuckets(List<NotificationStatsBucket> buckets) {
+        NotificationStatsBucket.persist(buckets);
+    }
+
+    @Transactional
+    List<NotificationStatsBucket> listRollupRows() {
+        return NotificationStatsBucket.listAll();
+    }
+
+    @Transactional
+    long countRollupRows() {
+        return NotificationStatsBucket.count();
+    }
+}
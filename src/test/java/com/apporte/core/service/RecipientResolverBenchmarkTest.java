@@ -0,0 +1,122 @@
+package com.apporte.core.service;
+
+import com.apporte.api.dto.WorkflowNotificationRequest;
+import com.apporte.core.model.RecipientResolution;
+import com.apporte.core.model.User;
+import io.quarkus.cache.Cache;
+import io.quarkus.cache.CacheName;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Consultas por resolução de um evento com muitos participantes ({@code workflow_participants}) e emails
+ * ({@code specific_users}), que antes custavam uma consulta por entrada: com os caches por fonte vazios
+ * (uma consulta em lote por tipo) e já preenchidos (nenhuma).
+ * Fora da suíte padrão; rodar com {@code mvn test -Pbenchmark}.
+ */
+@QuarkusTest
+@Tag("benchmark")
+public class RecipientResolverBenchmarkTest {
+    
+    private static final int PARTICIPANTS = 300;
+    private static final int ROUNDS = 20;
+    
+    @Inject
+    RecipientResolverService recipientResolverService;
+    
+    @Inject
+    SessionFactory sessionFactory;
+    
+    @Inject
+    @CacheName("recipient-user-cache")
+    Cache userByIdCache;
+    
+    @Inject
+    @CacheName("recipient-user-email-cache")
+    Cache userByEmailCache;
+    
+    @BeforeEach
+    public void createUsers() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            User.deleteAll();
+            for (int i = 0; i < PARTICIPANTS; i++) {
+                User user = new User();
+                user.setId("participant-" + i);
+                user.setEmail("participant-" + i + "@apporte.com");
+                user.setName("Participante " + i);
+                user.setCreatedAt(Instant.now());
+                user.setLastSync(Instant.now());
+                user.persist();
+            }
+        });
+    }
+    
+    @Test
+    public void benchmarkBulkResolution() {
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.setStatisticsEnabled(true);
+        
+        // Aquecimento: JIT, pool de conexões e planos de consulta
+        resolveRounds(2, true);
+        
+        statistics.clear();
+        long start = System.nanoTime();
+        resolveRounds(ROUNDS, true);
+        double coldMillis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+        double coldQueries = (double) statistics.getPrepareStatementCount() / ROUNDS;
+        
+        statistics.clear();
+        start = System.nanoTime();
+        resolveRounds(ROUNDS, false);
+        double warmMillis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+        double warmQueries = (double) statistics.getPrepareStatementCount() / ROUNDS;
+        statistics.setStatisticsEnabled(false);
+        
+        System.out.printf("Resolution of %d participants + %d emails: cold cache %.1f queries, %.2f ms; "
+                          + "warm cache %.1f queries, %.2f ms%n",
+                          PARTICIPANTS, PARTICIPANTS, coldQueries, coldMillis, warmQueries, warmMillis);
+        
+        // Uma consulta IN por tipo de destinatário (e por bloco de 500), qualquer que seja o número de entradas
+        assertTrue(coldQueries <= 2, coldQueries + " queries per resolution");
+        assertEquals(0, warmQueries);
+    }
+    
+    private void resolveRounds(int rounds, boolean coldCache) {
+        List<String> ids = new ArrayList<>(PARTICIPANTS);
+        List<String> emails = new ArrayList<>(PARTICIPANTS);
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            ids.add("participant-" + i);
+            emails.add("participant-" + i + "@apporte.com");
+        }
+        
+        for (int round = 0; round < rounds; round++) {
+            if (coldCache) {
+                userByIdCache.invalidateAll().await().indefinitely();
+                userByEmailCache.invalidateAll().await().indefinitely();
+            }
+            // entityId e contexto variam por evento; os caches são por usuário, não por requisição
+            WorkflowNotificationRequest request = new WorkflowNotificationRequest(
+                "TASK_ASSIGNED", "task", "task-" + System.nanoTime(), List.of("email"),
+                List.of("workflow_participants", "specific_users"),
+                Map.of("participant_ids", ids, "user_emails", emails));
+            
+            List<RecipientResolution> recipients = QuarkusTransaction.requiringNew()
+                    .call(() -> recipientResolverService.resolveRecipients(request));
+            assertEquals(PARTICIPANTS * 2, recipients.size());
+        }
+    }
+}
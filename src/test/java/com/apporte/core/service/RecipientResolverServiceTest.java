@@ -37,7 +37,7 @@ public class RecipientResolverServiceTest {
         adminUser.setId("user-123");
         adminUser.setEmail("admin@apporte.com");
         adminUser.setName("Administrador");
-        adminUser.setRolesJson("[\"admin\", \"notification-admin\"]");
+        adminUser.setRoles(List.of("admin", "notification-admin"));
         adminUser.setCreatedAt(Instant.now());
         adminUser.setLastSync(Instant.now());
         adminUser.persist();
@@ -96,4 +96,44 @@ public class RecipientResolverServiceTest {
             .anyMatch(r -> "admin@apporte.com".equals(r.getEmail()));
         assertTrue(foundAdmin, "Should find admin user");
     }
-}
\ No newline at end of file
+    
+    @Test
+    @TestTransaction
+    public void testResolveRecipients_ParticipantsAndEmailsInBulkSkippingMisses() {
+        WorkflowNotificationRequest request = new WorkflowNotificationRequest(
+            "TASK_ASSIGNED",
+            "task",
+            "task-1",
+            List.of("email"),
+            List.of("workflow_participants", "specific_users"),
+            Map.of(
+                "participant_ids", List.of("user-123", "missing-1", "user-123"),
+                "user_emails", List.of("missing@apporte.com", "admin@apporte.com")
+            )
+        );
+        
+        List<RecipientResolution> recipients = recipientResolverService.resolveRecipients(request);
+        
+        assertEquals(List.of("workflow_participant", "workflow_participant", "specific_user"),
+                     recipients.stream().map(RecipientResolution::getRecipientType).toList());
+        assertTrue(recipients.stream().allMatch(r -> "user-123".equals(r.getUserId())));
+    }
+    
+    @Test
+    @TestTransaction
+    public void testResolveRecipients_ProjectOwnerCachedAcrossContexts() {
+        List<RecipientResolution> first = recipientResolverService.resolveRecipients(new WorkflowNotificationRequest(
+            "PROJECT_READY_REVIEW", "project", "proj-123", List.of("email"), List.of("project_owner"),
+            Map.of("step", "review")));
+        
+        // Sem o projeto no banco, o dono só pode vir do cache por projectId
+        Project.deleteAll();
+        List<RecipientResolution> second = recipientResolverService.resolveRecipients(new WorkflowNotificationRequest(
+            "PROJECT_APPROVED", "project", "proj-123", List.of("email"), List.of("project_owner"),
+            Map.of("step", "approval")));
+        
+        assertEquals(1, first.size());
+        assertEquals(1, second.size());
+        assertEquals("admin@apporte.com", second.get(0).getEmail());
+    }
+}
@@ -0,0 +1,65 @@
+package com.apporte.core.service;
+
+import com.apporte.core.model.User;
+import com.apporte.core.model.UserContact;
+import com.apporte.core.repository.UserRepository;
+import com.apporte.test.TestDataHelper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class UserDirectoryTest {
+
+    @Inject
+    UserRepository userRepository;
+
+    @BeforeEach
+    public void setupTestData() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            TestDataHelper.cleanAllTestData();
+            TestDataHelper.createTestUser("admin-1", "admin1@apporte.com", "Admin", "admin");
+            TestDataHelper.createTestUser("user-1", "user1@apporte.com", "Usuário", "notification-sender");
+        });
+    }
+
+    @Test
+    public void testRefresh_LoadsSnapshotIndexedByIdEmailAndRole() {
+        UserDirectory directory = new UserDirectory(userRepository, true, Duration.ofHours(1));
+        assertNull(directory.findById("admin-1"));
+        assertNull(directory.findByRoles(UserRepository.ADMIN_ROLES));
+
+        directory.refresh();
+
+        assertTrue(directory.isAvailable());
+        assertEquals("admin1@apporte.com", directory.findById("admin-1").email());
+        assertEquals("user-1", directory.findByEmail("user1@apporte.com").id());
+        assertEquals(List.of("admin-1"), directory.findByRoles(UserRepository.ADMIN_ROLES).stream().map(UserContact::id).toList());
+    }
+
+    @Test
+    public void testRefresh_AppliesDeltaOfSyncedUsers() {
+        UserDirectory directory = new UserDirectory(userRepository, true, Duration.ofHours(1));
+        directory.refresh();
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            User user = userRepository.findByKeycloakId("user-1").orElseThrow();
+            user.setRoles(List.of("notification-sender", "supervisor"));
+            user.setLastSync(Instant.now());
+            TestDataHelper.createTestUser("user-2", "user2@apporte.com", "Novo");
+        });
+        directory.refresh();
+
+        assertEquals("Novo", directory.findById("user-2").name());
+        assertEquals(List.of("admin-1", "user-1"), directory.findByRoles(UserRepository.ADMIN_ROLES).stream()
+                .map(UserContact::id).sorted().toList());
+    }
+}
@@ -0,0 +1,66 @@
+package com.apporte.infrastructure.persistence;
+
+import com.apporte.core.model.Notification;
+import com.apporte.core.model.NotificationPage;
+import com.apporte.core.service.NotificationService;
+import com.apporte.test.TestDataHelper;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@QuarkusTest
+public class ReadReplicaRoutingTest {
+
+    @Inject
+    ReadReplicaRouting readReplicaRouting;
+
+    @Inject
+    NotificationService notificationService;
+
+    @BeforeEach
+    public void setupTestData() {
+        TestDataHelper.cleanAllTestData();
+        readReplicaRouting.recordLag(Duration.ZERO);
+    }
+
+    @AfterEach
+    public void resetLag() {
+        readReplicaRouting.recordLag(Duration.ZERO);
+    }
+
+    @Test
+    public void testReadMethods_UseReplicaWhenFresh() {
+        Notification created = TestDataHelper.createTestNotification("user-1", "TASK_ASSIGNED", "email", "sent");
+        TestDataHelper.createTestNotification("user-1", "TASK_ASSIGNED", "email", "error");
+        long replicaReads = readReplicaRouting.getReplicaReads();
+
+        NotificationPage page = notificationService.getUserNotifications("user-1", null, null, 10);
+        Notification found = notificationService.findNotificationById(created.id);
+
+        assertEquals(2, page.notifications().size());
+        assertEquals("TASK_ASSIGNED", found.getEventType());
+        assertEquals(replicaReads + 2, readReplicaRouting.getReplicaReads());
+    }
+
+    @Test
+    public void testReadMethods_FallBackToPrimaryWhenReplicaIsStale() {
+        TestDataHelper.createTestNotification("user-1", "TASK_ASSIGNED", "email", "sent");
+        readReplicaRouting.recordLag(Duration.ofMinutes(1));
+        long replicaReads = readReplicaRouting.getReplicaReads();
+        long primaryReads = readReplicaRouting.getPrimaryReads();
+
+        assertFalse(readReplicaRouting.isReplicaAvailable());
+        assertEquals(1, notificationService.countNotifications(null, null, null, null, null).value());
+        assertEquals(replicaReads, readReplicaRouting.getReplicaReads());
+        assertEquals(primaryReads + 1, readReplicaRouting.getPrimaryReads());
+
+        readReplicaRouting.recordLag(null);
+        assertFalse(readReplicaRouting.isReplicaAvailable());
+    }
+}
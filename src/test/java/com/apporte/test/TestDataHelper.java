@@ -20,6 +20,18 @@ public class TestDataHelper {
         List<Notification> notifications = Notification.listAll();
         notifications.forEach(n -> n.delete());
         
+        // Envelopes de evento compartilhados
+        NotificationEvent.deleteAll();
+        
+        // Lotes
+        BatchJob.deleteAll();
+        
+        // Rollup de estatísticas
+        NotificationStatsBucket.deleteAll();
+        
+        // Checkpoint da retenção
+        RetentionCheckpoint.deleteAll();
+        
         // Projetos
         List<Project> projects = Project.listAll();
         projects.forEach(p -> p.delete());
@@ -42,13 +54,7 @@ public class TestDataHelper {
         user.setLastSync(Instant.now());
         
         if (roles != null && roles.length > 0) {
-            StringBuilder rolesJson = new StringBuilder("[");
-            for (int i = 0; i < roles.length; i++) {
-                if (i > 0) rolesJson.append(",");
-                rolesJson.append("\"").append(roles[i]).append("\"");
-            }
-            rolesJson.append("]");
-            user.setRolesJson(rolesJson.toString());
+            user.setRoles(List.of(roles));
         }
         
         user.persist();
@@ -79,8 +85,8 @@ public class TestDataHelper {
         Notification notification = new Notification();
         notification.setUserId(userId);
         notification.setEventType(eventType);
-        notification.setChannel(channel);
-        notification.setStatus(status);
+        notification.setChannel(NotificationChannel.fromValue(channel));
+        notification.setStatus(NotificationStatus.fromValue(status));
         notification.setCreatedAt(Instant.now());
         
         if ("sent".equals(status)) {
@@ -106,8 +112,8 @@ public class TestDataHelper {
         Notification notification = new Notification();
         notification.setUserId(userId);
         notification.setEventType(eventType);
-        notification.setChannel(channel);
-        notification.setStatus("error");
+        notification.setChannel(NotificationChannel.fromValue(channel));
+        notification.setStatus(NotificationStatus.ERROR);
         notification.setCreatedAt(Instant.now().minusSeconds(300)); // 5 minutos atrás
         notification.setErrorMessage("SMTP connection failed");
         notification.setPayloadJson(createTestPayload(userId, eventType, channel));
@@ -140,7 +146,7 @@ public class TestDataHelper {
      * Conta notificações por status
      */
     public static long countNotificationsByStatus(String status) {
-        return Notification.count("status", status);
+        return Notification.count("status", NotificationStatus.fromValue(status));
     }
     
     /**
@@ -251,8 +257,8 @@ public class TestDataHelper {
         Notification sentNotification = new Notification();
         sentNotification.setUserId("user-123");
         sentNotification.setEventType("PROJECT_READY_REVIEW");
-        sentNotification.setChannel("email");
-        sentNotification.setStatus("sent");
+        sentNotification.setChannel(NotificationChannel.EMAIL);
+        sentNotification.setStatus(NotificationStatus.SENT);
         sentNotification.setCreatedAt(Instant.now());
         sentNotification.setSentAt(Instant.now());
         sentNotification.setPayloadJson("{\"recipient\":{\"userId\":\"user-123\",\"email\":\"admin@apporte.com\",\"name\":\"Administrador\",\"recipientType\":\"project_owner\"},\"event\":{\"type\":\"PROJECT_READY_REVIEW\",\"entityType\":\"project\",\"entityId\":\"proj-123\"}}");
@@ -261,8 +267,8 @@ public class TestDataHelper {
         Notification errorNotification = new Notification();
         errorNotification.setUserId("user-999");
         errorNotification.setEventType("TEST_EVENT");
-        errorNotification.setChannel("email");
-        errorNotification.setStatus("error");
+        errorNotification.setChannel(NotificationChannel.EMAIL);
+        errorNotification.setStatus(NotificationStatus.ERROR);
         errorNotification.setErrorMessage("SMTP connection failed");
         errorNotification.setCreatedAt(Instant.now().minusSeconds(300)); // 5 minutos atrás
         errorNotification.setPayloadJson("{\"recipient\":{\"userId\":\"user-999\",\"email\":\"user-999@test.example.com\",\"name\":\"Test User 999\",\"recipientType\":\"manual\",\"phone\":\"+5511999999999\"},\"event\":{\"type\":\"TEST_EVENT\",\"entityType\":\"user\",\"entityId\":\"user-999\"}}");
@@ -271,8 +277,8 @@ public class TestDataHelper {
         Notification pendingNotification = new Notification();
         pendingNotification.setUserId("user-456");
         pendingNotification.setEventType("TASK_ASSIGNED");
-        pendingNotification.setChannel("whatsapp");
-        pendingNotification.setStatus("pending");
+        pendingNotification.setChannel(NotificationChannel.WHATSAPP);
+        pendingNotification.setStatus(NotificationStatus.PENDING);
         pendingNotification.setCreatedAt(Instant.now());
         pendingNotification.setPayloadJson("{\"recipient\":{\"userId\":\"user-456\",\"email\":\"user@example.com\",\"name\":\"Regular User\",\"phone\":\"+5511999999999\",\"recipientType\":\"task_assignee\"},\"event\":{\"type\":\"TASK_ASSIGNED\",\"entityType\":\"task\",\"entityId\":\"task-123\"}}");
         pendingNotification.persist();